@@ -0,0 +1,159 @@
+package jie.runtime.benchmark;
+
+import com.alibaba.fastjson2.JSON;
+import jie.runtime.rpc.util.JsonUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 比较 Json 经过中间 {@link String} 与直接以 UTF-8 字节读写的开销
+ * <p>带 <code>viaString</code> 前缀的方法是原先的实现, 带 <code>utf8</code> 前缀的方法调用现在的 {@link JsonUtils}</p>
+ *
+ * @author jiegg
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonUtilsBenchmark {
+
+    //region --字段--
+    /**
+     * 消息的形式: 只有请求信息的小消息, 包含 10000 个 ASCII 字符或非 ASCII 字符的大消息
+     */
+    @Param({"envelope", "ascii", "unicode"})
+    public String payload;
+
+    private Envelope value;
+    private byte[] utf8;
+    //endregion
+
+    //region --公开方法--
+    @Setup
+    public void setup() {
+        String text;
+        switch (this.payload) {
+            case "ascii":
+                text = repeat('a', 10000);
+                break;
+            case "unicode":
+                text = repeat('节', 10000);
+                break;
+            default:
+                text = "hello";
+                break;
+        }
+
+        this.value = new Envelope();
+        this.value.setVer("4");
+        this.value.setClient("Java");
+        this.value.setType("IEchoService");
+        this.value.setMethod("echo");
+        this.value.setParams(Arrays.asList(text, "42"));
+        this.utf8 = JsonUtils.serializeToUtf8Bytes(this.value);
+    }
+
+    @Benchmark
+    public byte[] viaStringWrite() {
+        return JSON.toJSONString(this.value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] utf8Write() {
+        return JsonUtils.serializeToUtf8Bytes(this.value);
+    }
+
+    @Benchmark
+    public Envelope viaStringRead() {
+        return JSON.parseObject(new String(this.utf8, StandardCharsets.UTF_8), Envelope.class);
+    }
+
+    @Benchmark
+    public Envelope utf8Read() {
+        return JsonUtils.deserialize(this.utf8, 0, this.utf8.length, Envelope.class);
+    }
+    //endregion
+
+    //region --私有方法--
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+    //endregion
+
+    //region --内部类--
+
+    /**
+     * 与远程调用请求结构相同的消息
+     */
+    public static class Envelope {
+
+        //region --字段--
+        private String ver;
+        private String client;
+        private String type;
+        private String method;
+        private List<String> params;
+        //endregion
+
+        //region --属性--
+        public String getVer() {
+            return ver;
+        }
+
+        public void setVer(String ver) {
+            this.ver = ver;
+        }
+
+        public String getClient() {
+            return client;
+        }
+
+        public void setClient(String client) {
+            this.client = client;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public void setMethod(String method) {
+            this.method = method;
+        }
+
+        public List<String> getParams() {
+            return params;
+        }
+
+        public void setParams(List<String> params) {
+            this.params = params;
+        }
+        //endregion
+    }
+    //endregion
+}
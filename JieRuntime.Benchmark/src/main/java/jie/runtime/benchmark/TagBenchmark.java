@@ -0,0 +1,61 @@
+package jie.runtime.benchmark;
+
+import jie.runtime.utils.GuidUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 比较生成远程调用请求标识的几种方式
+ * <p>{@link #guidInt64()} 是原先每次调用生成的标识, {@link #sequence()} 是现在每个连接使用的递增序列</p>
+ *
+ * @author jiegg
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TagBenchmark {
+
+    //region --字段--
+    private final AtomicLong sequence = new AtomicLong(GuidUtils.newInt64());
+    //endregion
+
+    //region --公开方法--
+    @Benchmark
+    public long guidInt64() {
+        return GuidUtils.newGuidInt64();
+    }
+
+    @Benchmark
+    public long randomInt64() {
+        return GuidUtils.newInt64();
+    }
+
+    @Benchmark
+    public long sequence() {
+        return this.sequence.getAndIncrement();
+    }
+
+    /**
+     * 多个线程共享同一个连接的序列
+     */
+    @Benchmark
+    @Threads(4)
+    public long sequenceContended() {
+        return this.sequence.getAndIncrement();
+    }
+    //endregion
+}
@@ -0,0 +1,93 @@
+package jie.runtime.rpc;
+
+import net.sf.cglib.reflect.FastClass;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 比较服务方法的几种调用方式
+ * <p>{@link #methodInvoke()} 是原先处理请求时的 {@link Method#invoke(Object, Object...)},
+ * {@link #fastClass()} 是现在 {@link RpcServiceMethod} 通过 {@link FastClass} 按索引分派的调用,
+ * {@link #reflection()} 是 {@link RpcServiceMethod} 无法生成调用类时退回的反射调用, {@link #direct()} 是直接调用的下限</p>
+ *
+ * @author jiegg
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.lang=ALL-UNNAMED")
+@State(Scope.Benchmark)
+public class RpcServiceMethodBenchmark {
+
+    //region --字段--
+    private Calculator service;
+    private Method method;
+    private RpcServiceMethod fastMethod;
+    private RpcServiceMethod reflectMethod;
+    private Object[] args;
+    private int a;
+    private int b;
+    //endregion
+
+    //region --公开方法--
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        this.service = new CalculatorImpl();
+        this.method = Calculator.class.getMethod("add", int.class, int.class);
+
+        // 直接创建 FastClass, 生成失败时抛出异常, 避免测量到退回的反射调用
+        this.fastMethod = new RpcServiceMethod(this.method, this.service, FastClass.create(Calculator.class));
+        this.reflectMethod = new RpcServiceMethod(this.method, this.service);
+        this.a = 17;
+        this.b = 25;
+        this.args = new Object[]{this.a, this.b};
+    }
+
+    @Benchmark
+    public int direct() {
+        return this.service.add(this.a, this.b);
+    }
+
+    @Benchmark
+    public Object methodInvoke() throws Exception {
+        return this.method.invoke(this.service, this.args);
+    }
+
+    @Benchmark
+    public Object fastClass() throws Exception {
+        return this.fastMethod.invoke(this.args);
+    }
+
+    @Benchmark
+    public Object reflection() throws Exception {
+        return this.reflectMethod.invoke(this.args);
+    }
+    //endregion
+
+    //region --内部类--
+    public interface Calculator {
+
+        int add(int a, int b);
+    }
+
+    public static class CalculatorImpl implements Calculator {
+
+        @Override
+        public int add(int a, int b) {
+            return a + b;
+        }
+    }
+    //endregion
+}
@@ -0,0 +1,178 @@
+package jie.runtime.rpc.tcp;
+
+import org.apache.commons.pool2.BasePooledObjectFactory;
+import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.impl.DefaultPooledObject;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 比较同步远程调用登记、完成、等待和移除一次等待对象的开销
+ * <p>带 <code>pooledWait</code> 前缀的方法是原先 {@link GenericObjectPool} 借出等待对象并登记到 {@link ConcurrentHashMap} 的实现,
+ * 带 <code>pendingCall</code> 前缀的方法是现在的 {@link PendingCall} 与 {@link PendingCallTable}.
+ * 响应在等待之前由同一个线程完成, 测量的是登记表与等待对象本身的开销, 不包含线程切换</p>
+ *
+ * @author jiegg
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PendingCallTableBenchmark {
+
+    //region --常量--
+    /**
+     * 与 {@link jie.runtime.rpc.RpcClientBase} 默认的等待响应时间一致
+     */
+    private static final long TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private static final byte[] RESPONSE = new byte[16];
+    //endregion
+
+    //region --字段--
+    private final AtomicLong sequence = new AtomicLong();
+    private final PendingCallTable pendingCalls = new PendingCallTable();
+    private final GenericObjectPool<Wait> waitPool = new GenericObjectPool<>(new WaitObjectFactory());
+    private final ConcurrentMap<Long, Wait> waitReference = new ConcurrentHashMap<>();
+    //endregion
+
+    //region --公开方法--
+    @Benchmark
+    public byte[] pendingCall() throws Exception {
+        return this.pendingCallRoundTrip();
+    }
+
+    /**
+     * 多个线程共享同一个连接的登记表
+     */
+    @Benchmark
+    @Threads(4)
+    public byte[] pendingCallContended() throws Exception {
+        return this.pendingCallRoundTrip();
+    }
+
+    @Benchmark
+    public byte[] pooledWait() throws Exception {
+        return this.pooledWaitRoundTrip();
+    }
+
+    /**
+     * 多个线程共享同一个连接的对象池与哈希表
+     */
+    @Benchmark
+    @Threads(4)
+    public byte[] pooledWaitContended() throws Exception {
+        return this.pooledWaitRoundTrip();
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.waitPool.close();
+    }
+    //endregion
+
+    //region --私有方法--
+    private byte[] pendingCallRoundTrip() throws Exception {
+        long tag = this.sequence.getAndIncrement();
+
+        // 与 TcpRpcClient.sendWaitResponse 相同: 登记, 收到响应时取出并完成, 等待结果, 最后移除
+        PendingCall call = PendingCall.createSync(tag, TIMEOUT_NANOS);
+        this.pendingCalls.add(call);
+        try {
+            PendingCall response = this.pendingCalls.take(tag);
+            if (response != null) {
+                response.complete(RESPONSE);
+            }
+            return call.await();
+        } finally {
+            this.pendingCalls.remove(call);
+        }
+    }
+
+    private byte[] pooledWaitRoundTrip() throws Exception {
+        long tag = this.sequence.getAndIncrement();
+
+        // 原先的 TcpRpcClient.sendWaitResponse: 借出等待对象并登记, 收到响应时设置结果并唤醒, 等待后移除并归还
+        Wait wait = this.waitPool.borrowObject();
+        this.waitReference.put(tag, wait);
+        wait.thread = Thread.currentThread();
+        try {
+            Wait response = this.waitReference.get(tag);
+            if (response != null) {
+                response.isResponse = true;
+                response.result = RESPONSE;
+                LockSupport.unpark(response.thread);
+            }
+            LockSupport.parkNanos(TIMEOUT_NANOS);
+            if (wait.result == null && wait.isResponse) {
+                throw new JsonRpcNetworkException();
+            }
+            return wait.result;
+        } finally {
+            this.waitPool.returnObject(this.waitReference.remove(tag));
+        }
+    }
+    //endregion
+
+    //region --内部类--
+
+    /**
+     * 原先的 TcpWait
+     */
+    private static class Wait {
+
+        //region --字段--
+        private boolean isResponse;
+        private byte[] result;
+        private Thread thread;
+        //endregion
+    }
+
+    /**
+     * 原先的 TcpWaitObjectFactory, 归还时唤醒等待线程并重置状态
+     */
+    private static class WaitObjectFactory extends BasePooledObjectFactory<Wait> {
+
+        //region --公开方法--
+        @Override
+        public Wait create() {
+            return new Wait();
+        }
+
+        @Override
+        public PooledObject<Wait> wrap(Wait obj) {
+            return new DefaultPooledObject<>(obj);
+        }
+
+        @Override
+        public void passivateObject(PooledObject<Wait> p) {
+            Wait wait = p.getObject();
+            if (wait.thread != null) {
+                LockSupport.unpark(wait.thread);
+            }
+            wait.isResponse = false;
+            wait.result = null;
+            wait.thread = null;
+        }
+        //endregion
+    }
+    //endregion
+}
@@ -1,6 +1,5 @@
 package jie.runtime.io;
 
-import jie.runtime.BinaryConvert;
 import jie.runtime.utils.ArrayUtils;
 
 import java.io.ByteArrayInputStream;
@@ -74,11 +73,7 @@ public class BufferReader extends ByteArrayInputStream {
      * @throws IndexOutOfBoundsException 在读取所有字节之前达到流末尾
      */
     public byte readByte() {
-        int read = this.read();
-        if (read == -1) {
-            throw new IndexOutOfBoundsException("无法继续读取数据, 因为已经读取到流的末尾");
-        }
-        return (byte) read;
+        return (byte) this.readBits(Byte.BYTES, true);
     }
 
     /**
@@ -103,7 +98,7 @@ public class BufferReader extends ByteArrayInputStream {
      * @throws IndexOutOfBoundsException 在读取所有字节之前达到流末尾
      */
     public boolean readBoolean() {
-        return BinaryConvert.toBoolean(this.readBytes(Byte.BYTES), 0);
+        return this.readByte() != 0;
     }
 
     /**
@@ -124,7 +119,7 @@ public class BufferReader extends ByteArrayInputStream {
      * @throws IndexOutOfBoundsException 在读取所有字节之前达到流末尾
      */
     public char readChar(boolean isBigEndian) {
-        return BinaryConvert.toChar(this.readBytes(Character.BYTES), 0, isBigEndian);
+        return (char) this.readBits(Character.BYTES, isBigEndian);
     }
 
     /**
@@ -170,7 +165,7 @@ public class BufferReader extends ByteArrayInputStream {
      * @throws IndexOutOfBoundsException 在读取所有字节之前达到流末尾
      */
     public short readInt16(boolean isBigEndian) {
-        return BinaryConvert.toInt16(this.readBytes(Short.BYTES), 0, isBigEndian);
+        return (short) this.readBits(Short.BYTES, isBigEndian);
     }
 
     /**
@@ -191,7 +186,7 @@ public class BufferReader extends ByteArrayInputStream {
      * @throws IndexOutOfBoundsException 在读取所有字节之前达到流末尾
      */
     public int readInt32(boolean isBigEndian) {
-        return BinaryConvert.toInt32(this.readBytes(Integer.BYTES), 0, isBigEndian);
+        return (int) this.readBits(Integer.BYTES, isBigEndian);
     }
 
     /**
@@ -212,7 +207,7 @@ public class BufferReader extends ByteArrayInputStream {
      * @throws IndexOutOfBoundsException 在读取所有字节之前达到流末尾
      */
     public long readInt64(boolean isBigEndian) {
-        return BinaryConvert.toInt64(this.readBytes(Long.BYTES), 0, isBigEndian);
+        return this.readBits(Long.BYTES, isBigEndian);
     }
 
     /**
@@ -233,7 +228,7 @@ public class BufferReader extends ByteArrayInputStream {
      * @throws IndexOutOfBoundsException 在读取所有字节之前达到流末尾
      */
     public float readSingle(boolean isBigEndian) {
-        return BinaryConvert.toSingle(this.readBytes(Float.BYTES), 0, isBigEndian);
+        return Float.intBitsToFloat((int) this.readBits(Float.BYTES, isBigEndian));
     }
 
     /**
@@ -254,7 +249,7 @@ public class BufferReader extends ByteArrayInputStream {
      * @throws IndexOutOfBoundsException 在读取所有字节之前达到流末尾
      */
     public double readDouble(boolean isBigEndian) {
-        return BinaryConvert.toDouble(this.readBytes(Double.BYTES), 0, isBigEndian);
+        return Double.longBitsToDouble(this.readBits(Double.BYTES, isBigEndian));
     }
 
     /**
@@ -278,4 +273,22 @@ public class BufferReader extends ByteArrayInputStream {
         }
         this.setPosition(this.getPosition() - len);
     }
+
+    //region --私有方法--
+    private long readBits(int size, boolean isBigEndian) {
+        // 直接从缓冲区读取, 不为每个值创建临时数组
+        if (size > this.overSize()) {
+            this.pos = this.count;
+            throw new IndexOutOfBoundsException("无法继续读取数据, 因为已经读取到流的末尾");
+        }
+
+        long value = 0;
+        for (int i = 0; i < size; i++) {
+            int shift = (isBigEndian ? size - 1 - i : i) * Byte.SIZE;
+            value |= (this.buf[this.pos + i] & 0xffL) << shift;
+        }
+        this.pos += size;
+        return value;
+    }
+    //endregion
 }
@@ -1,9 +1,8 @@
 package jie.runtime.io;
 
-import jie.runtime.BinaryConvert;
-
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.Arrays;
 
 /**
  * 提供缓冲区写入服务的类
@@ -20,7 +19,7 @@ public class BufferWriter extends ByteArrayOutputStream {
      * @param value 要写入的 {@link Byte} 值
      */
     public void write(byte value) {
-        super.write(value);
+        this.writeBits(value, Byte.BYTES, true);
     }
 
     /**
@@ -50,7 +49,7 @@ public class BufferWriter extends ByteArrayOutputStream {
      * @throws IOException I/O错误
      */
     public void write(char value, boolean isBigEndian) throws IOException {
-        this.write(BinaryConvert.getBytes(value, isBigEndian));
+        this.writeBits(value, Character.BYTES, isBigEndian);
     }
 
     /**
@@ -97,7 +96,7 @@ public class BufferWriter extends ByteArrayOutputStream {
      * @throws IOException I/O错误
      */
     public void write(short value, boolean isBigEndian) throws IOException {
-        this.write(BinaryConvert.getBytes(value, isBigEndian));
+        this.writeBits(value, Short.BYTES, isBigEndian);
     }
 
     /**
@@ -118,7 +117,7 @@ public class BufferWriter extends ByteArrayOutputStream {
      * @throws IOException I/O错误
      */
     public void write(int value, boolean isBigEndian) throws IOException {
-        this.write(BinaryConvert.getBytes(value, isBigEndian));
+        this.writeBits(value, Integer.BYTES, isBigEndian);
     }
 
     /**
@@ -139,7 +138,7 @@ public class BufferWriter extends ByteArrayOutputStream {
      * @throws IOException I/O错误
      */
     public void write(long value, boolean isBigEndian) throws IOException {
-        this.write(BinaryConvert.getBytes(value, isBigEndian));
+        this.writeBits(value, Long.BYTES, isBigEndian);
     }
 
     /**
@@ -160,7 +159,7 @@ public class BufferWriter extends ByteArrayOutputStream {
      * @throws IOException I/O错误
      */
     public void write(float value, boolean isBigEndian) throws IOException {
-        this.write(BinaryConvert.getBytes(value, isBigEndian));
+        this.writeBits(Float.floatToRawIntBits(value), Float.BYTES, isBigEndian);
     }
 
     /**
@@ -181,8 +180,24 @@ public class BufferWriter extends ByteArrayOutputStream {
      * @throws IOException I/O错误
      */
     public void write(double value, boolean isBigEndian) throws IOException {
-        this.write(BinaryConvert.getBytes(value, isBigEndian));
+        this.writeBits(Double.doubleToRawLongBits(value), Double.BYTES, isBigEndian);
     }
 
     //endregion
+
+    //region --私有方法--
+    private void writeBits(long value, int size, boolean isBigEndian) {
+        // 直接写入缓冲区, 不为每个值创建临时数组
+        int end = this.count + size;
+        if (end > this.buf.length) {
+            this.buf = Arrays.copyOf(this.buf, Math.max(this.buf.length << 1, end));
+        }
+
+        for (int i = 0; i < size; i++) {
+            int shift = (isBigEndian ? size - 1 - i : i) * Byte.SIZE;
+            this.buf[this.count + i] = (byte) (value >> shift);
+        }
+        this.count = end;
+    }
+    //endregion
 }
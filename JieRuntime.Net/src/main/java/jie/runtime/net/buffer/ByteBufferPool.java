@@ -0,0 +1,324 @@
+package jie.runtime.net.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 提供 {@link ByteBuffer} 池化分配服务的类
+ * <p>缓冲区按 2 的幂划分大小等级, 每个线程持有一个小容量的本地缓存, 本地缓存已满时归还到共享队列.
+ * 通过 {@link #acquire(int)} 获取的缓冲区在使用完毕后应调用 {@link #release(ByteBuffer)} 归还.
+ * 缓冲池按对象标识记录借出的缓冲区, 只接受借出中的原始缓冲区, 其他缓冲区 (包括其 duplicate/slice 视图) 以及重复归还都将被忽略;
+ * 借出后未归还的缓冲区会一直被缓冲池引用</p>
+ *
+ * @author jiegg
+ */
+public class ByteBufferPool {
+
+    //region --常量--
+    /**
+     * 获取缓冲池最小的缓冲区大小
+     */
+    public static final int MIN_BUFFER_SIZE = 256;
+
+    /**
+     * 获取缓冲池默认可池化的最大缓冲区大小
+     */
+    public static final int DEFAULT_MAX_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * 获取每个线程的本地缓存在每个大小等级中默认保留的缓冲区数量
+     */
+    public static final int DEFAULT_THREAD_CACHE_SIZE = 16;
+
+    /**
+     * 获取共享队列在每个大小等级中默认保留的缓冲区数量
+     */
+    public static final int DEFAULT_SHARED_CACHE_SIZE = 256;
+    //endregion
+
+    //region --字段--
+    private static volatile ByteBufferPool defaultPool;
+
+    private final boolean direct;
+    private final int maxBufferSize;
+    private final int threadCacheSize;
+    private final int sharedCacheSize;
+    private final int[] classSizes;
+    private final Queue<ByteBuffer>[] sharedCaches;
+    private final AtomicInteger[] sharedCounts;
+    private final ThreadLocal<ArrayDeque<ByteBuffer>[]> threadCaches;
+    private final LentBuffers lentBuffers;
+
+    private final LongAdder acquireCount;
+    private final LongAdder threadCacheHitCount;
+    private final LongAdder sharedCacheHitCount;
+    private final LongAdder allocateCount;
+    private final LongAdder allocateBytes;
+    private final LongAdder unpooledCount;
+    private final LongAdder releaseCount;
+    private final LongAdder discardCount;
+    //endregion
+
+    //region --属性--
+
+    /**
+     * 获取进程内共享的默认缓冲池, 该缓冲池分配直接缓冲区
+     */
+    public static ByteBufferPool getDefault() {
+        if (defaultPool == null) {
+            synchronized (ByteBufferPool.class) {
+                if (defaultPool == null) {
+                    defaultPool = new ByteBufferPool();
+                }
+            }
+        }
+        return defaultPool;
+    }
+
+    /**
+     * 获取当前缓冲池是否分配直接缓冲区
+     */
+    public boolean isDirect() {
+        return this.direct;
+    }
+
+    /**
+     * 获取当前缓冲池可池化的最大缓冲区大小, 超过该大小的请求将分配不参与池化的堆缓冲区
+     */
+    public int getMaxBufferSize() {
+        return this.maxBufferSize;
+    }
+
+    /**
+     * 获取当前缓冲池的统计信息快照
+     */
+    public ByteBufferPoolStatistics getStatistics() {
+        int pooledCount = 0;
+        long pooledBytes = 0;
+        for (int i = 0; i < this.classSizes.length; i++) {
+            int count = this.sharedCounts[i].get();
+            pooledCount += count;
+            pooledBytes += (long) count * this.classSizes[i];
+        }
+        return new ByteBufferPoolStatistics(
+                this.acquireCount.sum(),
+                this.threadCacheHitCount.sum(),
+                this.sharedCacheHitCount.sum(),
+                this.allocateCount.sum(),
+                this.allocateBytes.sum(),
+                this.unpooledCount.sum(),
+                this.releaseCount.sum(),
+                this.discardCount.sum(),
+                pooledCount,
+                pooledBytes);
+    }
+    //endregion
+
+    //region --构造函数--
+
+    /**
+     * 使用默认设置初始化 {@link ByteBufferPool} 类的新实例, 缓冲池分配直接缓冲区
+     */
+    public ByteBufferPool() {
+        this(true, DEFAULT_MAX_BUFFER_SIZE, DEFAULT_THREAD_CACHE_SIZE, DEFAULT_SHARED_CACHE_SIZE);
+    }
+
+    /**
+     * 初始化 {@link ByteBufferPool} 类的新实例
+     *
+     * @param direct          是否分配直接缓冲区
+     * @param maxBufferSize   可池化的最大缓冲区大小, 将向上取整为 2 的幂
+     * @param threadCacheSize 每个线程的本地缓存在每个大小等级中保留的缓冲区数量, 为 0 时不使用本地缓存
+     * @param sharedCacheSize 共享队列在每个大小等级中保留的缓冲区数量
+     */
+    @SuppressWarnings("unchecked")
+    public ByteBufferPool(boolean direct, int maxBufferSize, int threadCacheSize, int sharedCacheSize) {
+        if (maxBufferSize < MIN_BUFFER_SIZE) {
+            throw new IllegalArgumentException("参数: maxBufferSize, 值不能小于 " + MIN_BUFFER_SIZE);
+        }
+
+        if (threadCacheSize < 0) {
+            throw new IllegalArgumentException("参数: threadCacheSize, 值不能为负数");
+        }
+
+        if (sharedCacheSize < 0) {
+            throw new IllegalArgumentException("参数: sharedCacheSize, 值不能为负数");
+        }
+
+        this.direct = direct;
+        this.maxBufferSize = roundUpToPowerOfTwo(maxBufferSize);
+        this.threadCacheSize = threadCacheSize;
+        this.sharedCacheSize = sharedCacheSize;
+
+        // 初始化大小等级
+        int classCount = Integer.numberOfTrailingZeros(this.maxBufferSize) - Integer.numberOfTrailingZeros(MIN_BUFFER_SIZE) + 1;
+        this.classSizes = new int[classCount];
+        this.sharedCaches = new Queue[classCount];
+        this.sharedCounts = new AtomicInteger[classCount];
+        for (int i = 0; i < classCount; i++) {
+            this.classSizes[i] = MIN_BUFFER_SIZE << i;
+            this.sharedCaches[i] = new ConcurrentLinkedQueue<>();
+            this.sharedCounts[i] = new AtomicInteger();
+        }
+        this.threadCaches = ThreadLocal.withInitial(() -> {
+            ArrayDeque<ByteBuffer>[] caches = new ArrayDeque[classCount];
+            for (int i = 0; i < caches.length; i++) {
+                caches[i] = new ArrayDeque<>();
+            }
+            return caches;
+        });
+        this.lentBuffers = new LentBuffers();
+
+        // 初始化统计信息
+        this.acquireCount = new LongAdder();
+        this.threadCacheHitCount = new LongAdder();
+        this.sharedCacheHitCount = new LongAdder();
+        this.allocateCount = new LongAdder();
+        this.allocateBytes = new LongAdder();
+        this.unpooledCount = new LongAdder();
+        this.releaseCount = new LongAdder();
+        this.discardCount = new LongAdder();
+    }
+    //endregion
+
+    //region --公开方法--
+
+    /**
+     * 从缓冲池获取一个缓冲区, 缓冲区的位置为 0, 上限为请求的大小, 容量可能大于请求的大小
+     *
+     * @param size 请求的缓冲区大小
+     * @return 一个 {@link ByteBuffer}, 使用完毕后需要通过 {@link #release(ByteBuffer)} 归还
+     */
+    public ByteBuffer acquire(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("参数: size, 值不能为负数");
+        }
+
+        this.acquireCount.increment();
+
+        // 超过最大大小的请求不参与池化
+        if (size > this.maxBufferSize) {
+            this.unpooledCount.increment();
+            return ByteBuffer.allocate(size);
+        }
+
+        int index = this.getClassIndex(size);
+
+        // 优先从线程本地缓存获取
+        ByteBuffer buffer = this.threadCacheSize > 0 ? this.threadCaches.get()[index].pollLast() : null;
+        if (buffer != null) {
+            this.threadCacheHitCount.increment();
+        } else {
+            // 其次从共享队列获取
+            buffer = this.sharedCaches[index].poll();
+            if (buffer != null) {
+                this.sharedCounts[index].decrementAndGet();
+                this.sharedCacheHitCount.increment();
+            } else {
+                // 分配新的缓冲区
+                int capacity = this.classSizes[index];
+                buffer = this.direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+                this.allocateCount.increment();
+                this.allocateBytes.add(capacity);
+            }
+        }
+
+        buffer.clear();
+        buffer.limit(size);
+        this.lentBuffers.add(buffer);
+        return buffer;
+    }
+
+    /**
+     * 将缓冲区归还到缓冲池, 归还后调用方不能再使用该缓冲区
+     * <p>只有通过 {@link #acquire(int)} 借出且尚未归还的原始缓冲区会被回收, 不参与池化的缓冲区、
+     * 其他来源的缓冲区、缓冲区的视图以及已经归还过的缓冲区都将被忽略</p>
+     *
+     * @param buffer 通过 {@link #acquire(int)} 获取的缓冲区
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer == null || !this.lentBuffers.remove(buffer)) {
+            return;
+        }
+
+        this.releaseCount.increment();
+        int index = this.getClassIndex(buffer.capacity());
+
+        // 优先归还到线程本地缓存
+        if (this.threadCacheSize > 0) {
+            ArrayDeque<ByteBuffer> cache = this.threadCaches.get()[index];
+            if (cache.size() < this.threadCacheSize) {
+                cache.addLast(buffer);
+                return;
+            }
+        }
+
+        // 其次归还到共享队列
+        if (this.sharedCounts[index].incrementAndGet() <= this.sharedCacheSize) {
+            this.sharedCaches[index].add(buffer);
+        } else {
+            this.sharedCounts[index].decrementAndGet();
+            this.discardCount.increment();
+        }
+    }
+    //endregion
+
+    //region --私有方法--
+    private int getClassIndex(int size) {
+        if (size <= MIN_BUFFER_SIZE) {
+            return 0;
+        }
+        return Integer.numberOfTrailingZeros(roundUpToPowerOfTwo(size)) - Integer.numberOfTrailingZeros(MIN_BUFFER_SIZE);
+    }
+
+    private static int roundUpToPowerOfTwo(int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+    //endregion
+
+    //region --内部类--
+
+    /**
+     * 按对象标识记录借出中的缓冲区的集合, 分段加锁以降低多线程借出与归还时的竞争
+     * <p>{@link ByteBuffer} 的 equals/hashCode 基于剩余内容, 因此必须使用标识比较</p>
+     */
+    private static final class LentBuffers {
+
+        private static final int STRIPE_COUNT = 64;
+
+        private final IdentityHashMap<ByteBuffer, Boolean>[] stripes;
+
+        @SuppressWarnings("unchecked")
+        LentBuffers() {
+            this.stripes = new IdentityHashMap[STRIPE_COUNT];
+            for (int i = 0; i < STRIPE_COUNT; i++) {
+                this.stripes[i] = new IdentityHashMap<>();
+            }
+        }
+
+        void add(ByteBuffer buffer) {
+            IdentityHashMap<ByteBuffer, Boolean> stripe = this.stripeOf(buffer);
+            synchronized (stripe) {
+                stripe.put(buffer, Boolean.TRUE);
+            }
+        }
+
+        boolean remove(ByteBuffer buffer) {
+            IdentityHashMap<ByteBuffer, Boolean> stripe = this.stripeOf(buffer);
+            synchronized (stripe) {
+                return stripe.remove(buffer) != null;
+            }
+        }
+
+        private IdentityHashMap<ByteBuffer, Boolean> stripeOf(ByteBuffer buffer) {
+            int h = System.identityHashCode(buffer);
+            return this.stripes[(h ^ (h >>> 16)) & (STRIPE_COUNT - 1)];
+        }
+    }
+    //endregion
+}
@@ -0,0 +1,157 @@
+package jie.runtime.net.buffer;
+
+import java.io.Serializable;
+
+/**
+ * 表示 {@link ByteBufferPool} 统计信息快照的类
+ *
+ * @author jiegg
+ */
+public class ByteBufferPoolStatistics implements Serializable {
+
+    //region --字段--
+    private final long acquireCount;
+    private final long threadCacheHitCount;
+    private final long sharedCacheHitCount;
+    private final long allocateCount;
+    private final long allocateBytes;
+    private final long unpooledCount;
+    private final long releaseCount;
+    private final long discardCount;
+    private final int pooledCount;
+    private final long pooledBytes;
+    //endregion
+
+    //region --属性--
+
+    /**
+     * 获取请求缓冲区的总次数
+     */
+    public long getAcquireCount() {
+        return acquireCount;
+    }
+
+    /**
+     * 获取从线程本地缓存中取得缓冲区的次数
+     */
+    public long getThreadCacheHitCount() {
+        return threadCacheHitCount;
+    }
+
+    /**
+     * 获取从共享队列中取得缓冲区的次数
+     */
+    public long getSharedCacheHitCount() {
+        return sharedCacheHitCount;
+    }
+
+    /**
+     * 获取缓冲池新分配缓冲区的次数
+     */
+    public long getAllocateCount() {
+        return allocateCount;
+    }
+
+    /**
+     * 获取缓冲池新分配缓冲区的总字节数
+     */
+    public long getAllocateBytes() {
+        return allocateBytes;
+    }
+
+    /**
+     * 获取因超过最大大小而未参与池化的请求次数
+     */
+    public long getUnpooledCount() {
+        return unpooledCount;
+    }
+
+    /**
+     * 获取归还缓冲区的次数
+     */
+    public long getReleaseCount() {
+        return releaseCount;
+    }
+
+    /**
+     * 获取归还时因缓存已满而丢弃的缓冲区数量
+     */
+    public long getDiscardCount() {
+        return discardCount;
+    }
+
+    /**
+     * 获取共享队列中当前保留的缓冲区数量, 不包含线程本地缓存
+     */
+    public int getPooledCount() {
+        return pooledCount;
+    }
+
+    /**
+     * 获取共享队列中当前保留的缓冲区总字节数, 不包含线程本地缓存
+     */
+    public long getPooledBytes() {
+        return pooledBytes;
+    }
+
+    /**
+     * 获取请求缓冲区时命中缓存的比例
+     */
+    public double getHitRate() {
+        if (this.acquireCount == 0) {
+            return 0;
+        }
+        return (double) (this.threadCacheHitCount + this.sharedCacheHitCount) / this.acquireCount;
+    }
+    //endregion
+
+    //region --构造函数--
+
+    /**
+     * 初始化 {@link ByteBufferPoolStatistics} 类的新实例
+     *
+     * @param acquireCount        请求缓冲区的总次数
+     * @param threadCacheHitCount 从线程本地缓存中取得缓冲区的次数
+     * @param sharedCacheHitCount 从共享队列中取得缓冲区的次数
+     * @param allocateCount       新分配缓冲区的次数
+     * @param allocateBytes       新分配缓冲区的总字节数
+     * @param unpooledCount       未参与池化的请求次数
+     * @param releaseCount        归还缓冲区的次数
+     * @param discardCount        归还时被丢弃的缓冲区数量
+     * @param pooledCount         共享队列中保留的缓冲区数量
+     * @param pooledBytes         共享队列中保留的缓冲区总字节数
+     */
+    public ByteBufferPoolStatistics(long acquireCount, long threadCacheHitCount, long sharedCacheHitCount,
+                                    long allocateCount, long allocateBytes, long unpooledCount,
+                                    long releaseCount, long discardCount, int pooledCount, long pooledBytes) {
+        this.acquireCount = acquireCount;
+        this.threadCacheHitCount = threadCacheHitCount;
+        this.sharedCacheHitCount = sharedCacheHitCount;
+        this.allocateCount = allocateCount;
+        this.allocateBytes = allocateBytes;
+        this.unpooledCount = unpooledCount;
+        this.releaseCount = releaseCount;
+        this.discardCount = discardCount;
+        this.pooledCount = pooledCount;
+        this.pooledBytes = pooledBytes;
+    }
+    //endregion
+
+    //region --公开方法--
+    @Override
+    public String toString() {
+        return "ByteBufferPoolStatistics{" +
+                "acquireCount=" + acquireCount +
+                ", threadCacheHitCount=" + threadCacheHitCount +
+                ", sharedCacheHitCount=" + sharedCacheHitCount +
+                ", allocateCount=" + allocateCount +
+                ", allocateBytes=" + allocateBytes +
+                ", unpooledCount=" + unpooledCount +
+                ", releaseCount=" + releaseCount +
+                ", discardCount=" + discardCount +
+                ", pooledCount=" + pooledCount +
+                ", pooledBytes=" + pooledBytes +
+                '}';
+    }
+    //endregion
+}
@@ -0,0 +1,36 @@
+package jie.runtime.net.sockets;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 提供有序执行器异常处理服务的接口, 由创建有序执行器的连接实现
+ *
+ * @author jiegg
+ */
+public interface IOrderedExecutorHandler {
+
+    /**
+     * 表示通过有序执行器提交的任务引发了异常, 异常不会影响同一执行器后续的任务
+     *
+     * @param e 任务引发的异常
+     */
+    void onTaskException(Throwable e);
+
+    /**
+     * 表示分发器的任务队列已满, 有序执行器未能排队执行
+     * <p>已提交的任务仍保留在执行器中, 分发器的队列出现空位后将自动重新排队, 实现者通常应在此期间暂停产生新的任务.
+     * 如果分发器已关闭, 执行器不会再重新排队, 通知后将通过 {@link #onDiscarded(Runnable)} 逐个交还尚未执行的任务,
+     * 实现者通常应关闭所属的连接</p>
+     *
+     * @param e        拒绝执行的异常
+     * @param shutdown 分发器是否已关闭
+     */
+    void onRejected(RejectedExecutionException e, boolean shutdown);
+
+    /**
+     * 表示分发器已关闭, 通过有序执行器提交的任务不会再被执行, 实现者应释放任务占用的资源
+     *
+     * @param task 被丢弃的任务
+     */
+    void onDiscarded(Runnable task);
+}
@@ -1,12 +1,18 @@
 package jie.runtime.net.sockets;
 
 import jie.runtime.net.sockets.event.ISocketClientEvent;
+import jie.runtime.net.sockets.event.SocketDataBatchEventArgs;
 import jie.runtime.net.sockets.event.SocketDataEventArgs;
 import jie.runtime.net.sockets.event.SocketEventArgs;
 import jie.runtime.net.sockets.event.SocketExceptionEventArgs;
+import jie.runtime.net.sockets.event.SocketWritabilityEventArgs;
 
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 提供套接字客户端服务的类, 该类是抽象的
@@ -15,8 +21,24 @@ import java.util.concurrent.CopyOnWriteArrayList;
  */
 public abstract class SocketClient<T> {
 
+    //region --常量--
+    /**
+     * 获取等待发送字节数的默认高水位线
+     */
+    public static final int DEFAULT_WRITE_BUFFER_HIGH_WATER_MARK = 1024 * 1024;
+
+    /**
+     * 获取等待发送字节数的默认低水位线
+     */
+    public static final int DEFAULT_WRITE_BUFFER_LOW_WATER_MARK = 512 * 1024;
+    //endregion
+
     //region --字段--
     protected final CopyOnWriteArrayList<ISocketClientEvent> listener;
+    private final AtomicLong pendingWriteBytes;
+    private final AtomicBoolean writable;
+    private volatile int writeBufferHighWaterMark;
+    private volatile int writeBufferLowWaterMark;
     //endregion
 
     //region --属性--
@@ -62,6 +84,66 @@ public abstract class SocketClient<T> {
      * 获取当前客户端接收或发送数据时的封包头占用字节数
      */
     public abstract byte getPacketHeaderLength();
+
+    /**
+     * 获取当前客户端是否已暂停接收数据
+     */
+    public abstract boolean isReceivePaused();
+
+    /**
+     * 获取当前客户端是否可写, 等待发送的字节数超过高水位线后不可写, 回落到低水位线及以下后恢复可写
+     */
+    public boolean isWritable() {
+        return this.writable.get();
+    }
+
+    /**
+     * 获取当前客户端已提交但尚未写入套接字的字节数
+     */
+    public long getPendingWriteBytes() {
+        return this.pendingWriteBytes.get();
+    }
+
+    /**
+     * 获取当前客户端等待发送字节数的高水位线
+     */
+    public int getWriteBufferHighWaterMark() {
+        return this.writeBufferHighWaterMark;
+    }
+
+    /**
+     * 获取当前客户端等待发送字节数的低水位线
+     */
+    public int getWriteBufferLowWaterMark() {
+        return this.writeBufferLowWaterMark;
+    }
+
+    /**
+     * 设置当前客户端等待发送字节数的水位线
+     *
+     * @param low  低水位线, 等待发送的字节数回落到该值及以下时恢复可写
+     * @param high 高水位线, 等待发送的字节数超过该值时变为不可写
+     */
+    public void setWriteBufferWaterMark(int low, int high) {
+        if (low < 0) {
+            throw new IllegalArgumentException("参数: low, 值不能为负数");
+        }
+
+        if (high < low) {
+            throw new IllegalArgumentException("参数: high, 值不能小于低水位线");
+        }
+
+        this.writeBufferLowWaterMark = low;
+        this.writeBufferHighWaterMark = high;
+
+        // 按新的水位线重新计算可写状态
+        long pending = this.pendingWriteBytes.get();
+        if (pending > high) {
+            this.setUnwritable();
+        } else if (pending <= low) {
+            this.setWritable();
+        }
+    }
     //endregion
 
     //region --构造函数--
@@ -71,6 +153,10 @@ public abstract class SocketClient<T> {
      */
     public SocketClient() {
         this.listener = new CopyOnWriteArrayList<>();
+        this.pendingWriteBytes = new AtomicLong();
+        this.writable = new AtomicBoolean(true);
+        this.writeBufferHighWaterMark = DEFAULT_WRITE_BUFFER_HIGH_WATER_MARK;
+        this.writeBufferLowWaterMark = DEFAULT_WRITE_BUFFER_LOW_WATER_MARK;
     }
     //endregion
 
@@ -97,6 +183,16 @@ public abstract class SocketClient<T> {
      */
     public abstract void send(byte[] data);
 
+    /**
+     * 暂停接收数据, 已经收到的数据仍会继续分发, 但不再从套接字读取新的数据, 使对端的发送受到 TCP 流量控制的约束
+     */
+    public abstract void pauseReceive();
+
+    /**
+     * 恢复接收数据
+     */
+    public abstract void resumeReceive();
+
     /**
      * 释放当前实例所占用的资源
      */
@@ -150,6 +246,18 @@ public abstract class SocketClient<T> {
         }
     }
 
+    protected void invokeReceiveDataEvent(List<ByteBuffer> frames) {
+        this.invokeReceiveDataEvent(frames, null);
+    }
+
+    protected void invokeReceiveDataEvent(List<ByteBuffer> frames, Runnable retainHandler) {
+        for (ISocketClientEvent item : this.listener) {
+            if (item != null) {
+                item.onReceiveDataBatch(this, new SocketDataBatchEventArgs(frames, retainHandler));
+            }
+        }
+    }
+
     protected void invokeSendDataEvent(byte[] data) {
         for (ISocketClientEvent item : this.listener) {
             if (item != null) {
@@ -158,6 +266,16 @@ public abstract class SocketClient<T> {
         }
     }
 
+    protected void invokeSendDataEvent(ByteBuffer[] buffers) {
+        // 所有监听者共享同一个事件参数, 数据最多复制一次
+        SocketDataEventArgs args = new SocketDataEventArgs(buffers);
+        for (ISocketClientEvent item : this.listener) {
+            if (item != null) {
+                item.onSendData(this, args);
+            }
+        }
+    }
+
     protected void invokeExceptionEvent(Throwable e) {
         for (ISocketClientEvent item : this.listener) {
             if (item != null) {
@@ -165,5 +283,57 @@ public abstract class SocketClient<T> {
             }
         }
     }
+
+    protected void invokeWritabilityChangedEvent(boolean writable) {
+        for (ISocketClientEvent item : this.listener) {
+            if (item != null) {
+                item.onWritabilityChanged(this, new SocketWritabilityEventArgs(writable, this.pendingWriteBytes.get()));
+            }
+        }
+    }
+
+    /**
+     * 增加等待发送的字节数, 在数据加入发送队列之前调用
+     *
+     * @param len 加入发送队列的字节数
+     */
+    protected void incrementPendingWriteBytes(long len) {
+        if (this.pendingWriteBytes.addAndGet(len) > this.writeBufferHighWaterMark) {
+            this.setUnwritable();
+        }
+    }
+
+    /**
+     * 减少等待发送的字节数, 在数据写入套接字或被丢弃之后调用
+     *
+     * @param len 离开发送队列的字节数
+     */
+    protected void decrementPendingWriteBytes(long len) {
+        if (this.pendingWriteBytes.addAndGet(-len) <= this.writeBufferLowWaterMark) {
+            this.setWritable();
+        }
+    }
+
+    private void setWritable() {
+        if (this.writable.compareAndSet(false, true)) {
+            this.invokeWritabilityChangedEvent(true);
+
+            // 恢复可写的同时可能已有其他线程越过了高水位线
+            if (this.pendingWriteBytes.get() > this.writeBufferHighWaterMark) {
+                this.setUnwritable();
+            }
+        }
+    }
+
+    private void setUnwritable() {
+        if (this.writable.compareAndSet(true, false)) {
+            this.invokeWritabilityChangedEvent(false);
+
+            // 变为不可写的同时可能已有其他线程回落到了低水位线
+            if (this.pendingWriteBytes.get() <= this.writeBufferLowWaterMark) {
+                this.setWritable();
+            }
+        }
+    }
     //endregion
 }
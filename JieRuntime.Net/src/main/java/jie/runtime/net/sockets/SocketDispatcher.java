@@ -0,0 +1,383 @@
+package jie.runtime.net.sockets;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 提供套接字事件分发服务的类
+ * <p>多个套接字客户端可以共享同一个分发器, 分发器使用固定数量的线程和有界队列执行事件,
+ * 并通过 {@link #createOrderedExecutor()} 保证同一个连接的事件按提交顺序依次执行.
+ * 队列已满时, 普通任务由提交任务的线程直接执行, 有序执行器则等待队列出现空位后重新排队并通知其所属的连接</p>
+ *
+ * @author jiegg
+ */
+public class SocketDispatcher {
+
+    //region --常量--
+    /**
+     * 获取分发器默认的线程数量
+     */
+    public static final int DEFAULT_THREAD_COUNT = Runtime.getRuntime().availableProcessors() * 2;
+
+    /**
+     * 获取分发器默认的任务队列容量
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 65536;
+
+    /**
+     * 有序执行器单次占用线程时最多执行的任务数量, 超过后将重新排队以让出线程
+     */
+    private static final int ORDERED_BATCH_SIZE = 64;
+    //endregion
+
+    //region --字段--
+    private static volatile SocketDispatcher defaultDispatcher;
+
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final Queue<OrderedExecutor> deferredExecutors;
+    //endregion
+
+    //region --属性--
+
+    /**
+     * 获取进程内共享的默认分发器, 该分发器使用守护线程且不会被关闭
+     */
+    public static SocketDispatcher getDefault() {
+        if (defaultDispatcher == null) {
+            synchronized (SocketDispatcher.class) {
+                if (defaultDispatcher == null) {
+                    defaultDispatcher = new SocketDispatcher();
+                }
+            }
+        }
+        return defaultDispatcher;
+    }
+
+    /**
+     * 获取当前分发器的线程数量
+     */
+    public int getThreadCount() {
+        return this.executor.getCorePoolSize();
+    }
+
+    /**
+     * 获取当前分发器的任务队列容量
+     */
+    public int getQueueCapacity() {
+        return this.queueCapacity;
+    }
+
+    /**
+     * 获取当前分发器队列中等待执行的任务数量
+     */
+    public int getPendingCount() {
+        return this.executor.getQueue().size();
+    }
+
+    /**
+     * 获取当前分发器是否已关闭
+     */
+    public boolean isShutdown() {
+        return this.executor.isShutdown();
+    }
+    //endregion
+
+    //region --构造函数--
+
+    /**
+     * 使用默认的线程数量和队列容量初始化 {@link SocketDispatcher} 类的新实例
+     */
+    public SocketDispatcher() {
+        this(DEFAULT_THREAD_COUNT, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * 初始化 {@link SocketDispatcher} 类的新实例
+     *
+     * @param threadCount   分发器的线程数量
+     * @param queueCapacity 分发器的任务队列容量, 队列已满时普通任务由提交任务的线程直接执行, 有序执行器将延后重新排队
+     */
+    public SocketDispatcher(int threadCount, int queueCapacity) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("参数: threadCount, 线程数量不能小于 1");
+        }
+
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("参数: queueCapacity, 队列容量不能小于 1");
+        }
+
+        this.queueCapacity = queueCapacity;
+        this.deferredExecutors = new ConcurrentLinkedQueue<>();
+        this.executor = new DispatcherExecutor(threadCount, queueCapacity);
+    }
+    //endregion
+
+    //region --公开方法--
+
+    /**
+     * 在分发器中执行指定的任务, 任务之间不保证执行顺序
+     *
+     * @param task 要执行的任务
+     */
+    public void execute(Runnable task) {
+        if (task == null) {
+            throw new NullPointerException("参数: task 是 null");
+        }
+        this.executor.execute(task);
+    }
+
+    /**
+     * 创建一个有序执行器, 通过该执行器提交的任务将在分发器中按提交顺序依次执行
+     * <p>任务引发的异常交由执行任务的线程的 {@link Thread.UncaughtExceptionHandler} 处理</p>
+     *
+     * @return 一个 {@link Executor}, 通常每个连接使用一个
+     */
+    public Executor createOrderedExecutor() {
+        return new OrderedExecutor(null);
+    }
+
+    /**
+     * 创建一个有序执行器, 通过该执行器提交的任务将在分发器中按提交顺序依次执行
+     *
+     * @param handler 处理任务异常和拒绝执行的 {@link IOrderedExecutorHandler}, 通常由所属的连接实现
+     * @return 一个 {@link Executor}, 通常每个连接使用一个
+     */
+    public Executor createOrderedExecutor(IOrderedExecutorHandler handler) {
+        if (handler == null) {
+            throw new NullPointerException("参数: handler 是 null");
+        }
+        return new OrderedExecutor(handler);
+    }
+
+    /**
+     * 关闭当前分发器, 已提交的任务会继续执行, 但不再接受新的任务
+     */
+    public void shutdown() {
+        if (this == defaultDispatcher) {
+            throw new IllegalStateException("无法关闭默认分发器");
+        }
+        this.executor.shutdown();
+    }
+    //endregion
+
+    //region --私有方法--
+    private void defer(OrderedExecutor orderedExecutor) {
+        this.deferredExecutors.add(orderedExecutor);
+
+        // 加入等待之前队列可能已经出现空位, 此时不会再有任务完成来触发重新排队
+        if (this.executor.getQueue().remainingCapacity() > 0) {
+            this.scheduleDeferred();
+        }
+    }
+
+    private void scheduleDeferred() {
+        OrderedExecutor orderedExecutor = this.deferredExecutors.poll();
+        if (orderedExecutor != null) {
+            orderedExecutor.resume();
+        }
+    }
+
+    private static void handleUncaught(Throwable e) {
+        Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+    }
+    //endregion
+
+    //region --内部类--
+
+    /**
+     * 按提交顺序串行执行任务的执行器
+     */
+    private class OrderedExecutor implements Executor, Runnable {
+
+        //region --字段--
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean isScheduled = new AtomicBoolean();
+        private final AtomicBoolean isDeferred = new AtomicBoolean();
+        private final IOrderedExecutorHandler handler;
+        private volatile boolean isRejected;
+        //endregion
+
+        //region --构造函数--
+        OrderedExecutor(IOrderedExecutorHandler handler) {
+            this.handler = handler;
+        }
+        //endregion
+
+        //region --公开方法--
+        @Override
+        public void execute(Runnable task) {
+            if (task == null) {
+                throw new NullPointerException("参数: task 是 null");
+            }
+            this.tasks.add(task);
+
+            // 等待重新排队期间不再重复尝试, 由分发器在队列出现空位后调度
+            if (!this.isDeferred.get()) {
+                this.schedule();
+            }
+        }
+
+        @Override
+        public void run() {
+            this.isRejected = false;
+            for (int i = 0; i < ORDERED_BATCH_SIZE; i++) {
+                Runnable task = this.tasks.poll();
+                if (task == null) {
+                    break;
+                }
+                try {
+                    task.run();
+                } catch (Throwable e) {
+                    // 任务的异常不应影响同一连接后续的任务
+                    this.onTaskException(e);
+                }
+            }
+
+            this.isScheduled.set(false);
+            if (!this.tasks.isEmpty()) {
+                this.schedule();
+            }
+        }
+        //endregion
+
+        //region --私有方法--
+        private void schedule() {
+            if (this.isScheduled.compareAndSet(false, true)) {
+                SocketDispatcher.this.executor.execute(this);
+            }
+        }
+
+        private void resume() {
+            this.isDeferred.set(false);
+            this.schedule();
+        }
+
+        private void reject(RejectedExecutionException e, boolean shutdown) {
+            // 未能排队时释放调度标志, 重新排队时才能再次调度
+            this.isScheduled.set(false);
+            if (!shutdown) {
+                if (this.isDeferred.compareAndSet(false, true)) {
+                    SocketDispatcher.this.defer(this);
+                }
+
+                // 恢复执行之前只通知一次
+                if (this.isRejected) {
+                    return;
+                }
+                this.isRejected = true;
+            }
+
+            if (this.handler == null) {
+                if (shutdown) {
+                    this.tasks.clear();
+                    throw e;
+                }
+                return;
+            }
+            try {
+                this.handler.onRejected(e, shutdown);
+            } catch (Throwable ex) {
+                handleUncaught(ex);
+            }
+
+            // 已关闭的分发器不会再执行任务, 交给所属的连接释放任务占用的资源
+            if (shutdown) {
+                Runnable task;
+                while ((task = this.tasks.poll()) != null) {
+                    try {
+                        this.handler.onDiscarded(task);
+                    } catch (Throwable ex) {
+                        handleUncaught(ex);
+                    }
+                }
+            }
+        }
+
+        private void onTaskException(Throwable e) {
+            if (this.handler != null) {
+                try {
+                    this.handler.onTaskException(e);
+                    return;
+                } catch (Throwable ex) {
+                    e.addSuppressed(ex);
+                }
+            }
+            handleUncaught(e);
+        }
+        //endregion
+    }
+
+    /**
+     * 分发器使用的线程池, 每个任务完成后为等待重新排队的有序执行器让出空位
+     */
+    private class DispatcherExecutor extends ThreadPoolExecutor {
+
+        //region --构造函数--
+        DispatcherExecutor(int threadCount, int queueCapacity) {
+            super(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                    new DispatcherThreadFactory(), new DispatcherRejectedHandler());
+        }
+        //endregion
+
+        //region --私有方法--
+        @Override
+        protected void afterExecute(Runnable r, Throwable t) {
+            SocketDispatcher.this.scheduleDeferred();
+        }
+        //endregion
+    }
+
+    /**
+     * 分发器队列已满或已关闭时的拒绝策略
+     */
+    private static class DispatcherRejectedHandler implements RejectedExecutionHandler {
+
+        //region --公开方法--
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            RejectedExecutionException e = new RejectedExecutionException(executor.isShutdown() ? "分发器已关闭" : "分发器的任务队列已满");
+            if (r instanceof OrderedExecutor) {
+                // 有序执行器不能在提交线程中执行, 否则会阻塞 I/O 线程并打乱与其他连接之间的公平性
+                ((OrderedExecutor) r).reject(e, executor.isShutdown());
+            } else if (executor.isShutdown()) {
+                throw e;
+            } else {
+                r.run();
+            }
+        }
+        //endregion
+    }
+
+    /**
+     * 分发器线程工厂
+     */
+    private static class DispatcherThreadFactory implements ThreadFactory {
+
+        //region --字段--
+        private static final AtomicInteger POOL_NUMBER = new AtomicInteger(1);
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+        private final String namePrefix = "jie-socket-dispatcher-" + POOL_NUMBER.getAndIncrement() + "-";
+        //endregion
+
+        //region --公开方法--
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, this.namePrefix + this.threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+        //endregion
+    }
+    //endregion
+}
@@ -140,6 +140,14 @@ public abstract class SocketServer<T, TClient extends SocketClient<?>> {
         }
     }
 
+    protected void invokeSendDataEvent(SocketClient<?> client, SocketDataEventArgs args) {
+        for (ISocketServerEvent item : this.listener) {
+            if (item != null) {
+                item.onSendData(this, new SocketServerDataEventArgs(client, client.getRemoteAddress(), args));
+            }
+        }
+    }
+
     protected void invokeExceptionEvent(Throwable e) {
         for (ISocketServerEvent item : this.listener) {
             if (item != null) {
@@ -1,5 +1,7 @@
 package jie.runtime.net.sockets.event;
 
+import java.nio.ByteBuffer;
+
 /**
  * 提供套接字客户端事件监听服务的接口
  *
@@ -31,6 +33,31 @@ public interface ISocketClientEvent {
      */
     void onReceiveData(Object sender, SocketDataEventArgs args);
 
+    /**
+     * 表示客户端一次收到多个远程服务器数据的事件
+     * <p>默认实现将按顺序逐个调用 {@link #onReceiveFrame(Object, SocketFrameEventArgs)}, 需要批量处理数据时可重写此方法</p>
+     *
+     * @param sender 引发此事件的事件源
+     * @param args   批量数据事件参数
+     */
+    default void onReceiveDataBatch(Object sender, SocketDataBatchEventArgs args) {
+        for (ByteBuffer frame : args.getFrames()) {
+            this.onReceiveFrame(sender, new SocketFrameEventArgs(frame, args::retain));
+        }
+    }
+
+    /**
+     * 表示客户端收到远程服务器封包的事件, 封包以只读视图的形式提供, 不会复制数据
+     * <p>视图在事件结束后可能被覆盖, 需要继续持有时调用 {@link SocketFrameEventArgs#retain()}</p>
+     * <p>默认实现将封包复制为字节数组后调用 {@link #onReceiveData(Object, SocketDataEventArgs)}, 需要避免复制时可重写此方法</p>
+     *
+     * @param sender 引发此事件的事件源
+     * @param args   封包事件参数
+     */
+    default void onReceiveFrame(Object sender, SocketFrameEventArgs args) {
+        this.onReceiveData(sender, new SocketDataEventArgs(args.getData()));
+    }
+
     /**
      * 表示客户端发送数据到远程服务器的事件
      *
@@ -39,6 +66,16 @@ public interface ISocketClientEvent {
      */
     void onSendData(Object sender, SocketDataEventArgs args);
 
+    /**
+     * 表示客户端可写状态发生改变的事件
+     * <p>等待发送的字节数超过高水位线时客户端变为不可写, 回落到低水位线及以下时恢复可写</p>
+     *
+     * @param sender 引发此事件的事件源
+     * @param args   可写状态事件参数
+     */
+    default void onWritabilityChanged(Object sender, SocketWritabilityEventArgs args) {
+    }
+
     /**
      * 表示套接字客户端出现异常的事件
      *
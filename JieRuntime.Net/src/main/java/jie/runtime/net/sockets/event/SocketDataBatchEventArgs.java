@@ -0,0 +1,94 @@
+package jie.runtime.net.sockets.event;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 表示套接字批量数据事件数据的类
+ * <p>事件结束后接收缓冲区将被复用, 需要在事件结束后继续持有封包视图时应在事件中调用 {@link #retain()}</p>
+ *
+ * @author jiegg
+ */
+public class SocketDataBatchEventArgs extends SocketEventArgs {
+
+    //region --字段--
+    private final List<ByteBuffer> frames;
+    private final Runnable retainHandler;
+    private List<byte[]> data;
+    //endregion
+
+    //region --属性--
+
+    /**
+     * 获取当前事件的所有封包视图, 按接收的顺序排列
+     * <p>视图是只读的, 并且直接引用接收缓冲区中的数据, 读取前请使用 {@link ByteBuffer#duplicate()} 以免影响其他读取方</p>
+     */
+    public List<ByteBuffer> getFrames() {
+        return frames;
+    }
+
+    /**
+     * 获取当前事件的所有数据, 按接收的顺序排列, 首次调用时从封包视图中复制
+     */
+    public List<byte[]> getData() {
+        if (this.data == null) {
+            List<byte[]> list = new ArrayList<>(this.frames.size());
+            for (ByteBuffer frame : this.frames) {
+                byte[] dest = new byte[frame.remaining()];
+                frame.duplicate().get(dest);
+                list.add(dest);
+            }
+            this.data = Collections.unmodifiableList(list);
+        }
+        return this.data;
+    }
+
+    /**
+     * 获取当前事件包含的数据数量
+     */
+    public int size() {
+        return this.frames.size();
+    }
+    //endregion
+
+    //region --构造函数--
+
+    /**
+     * 初始化 {@link SocketDataBatchEventArgs} 类的新实例
+     *
+     * @param frames 相关的封包视图, 必须是只读的
+     */
+    public SocketDataBatchEventArgs(List<ByteBuffer> frames) {
+        this(frames, null);
+    }
+
+    /**
+     * 初始化 {@link SocketDataBatchEventArgs} 类的新实例
+     *
+     * @param frames        相关的封包视图, 必须是只读的
+     * @param retainHandler 保留封包视图时调用的处理器, 为 <code>null</code> 时视图不引用可复用的缓冲区
+     */
+    public SocketDataBatchEventArgs(List<ByteBuffer> frames, Runnable retainHandler) {
+        if (frames == null) {
+            throw new NullPointerException("参数: frames 是 null");
+        }
+        this.frames = Collections.unmodifiableList(frames);
+        this.retainHandler = retainHandler;
+    }
+    //endregion
+
+    //region --公开方法--
+
+    /**
+     * 保留封包视图引用的接收缓冲区, 使所有视图在事件结束后仍然有效, 只能在事件中调用
+     * <p>被保留的缓冲区不会再被复用, 仅需在事件结束后继续持有视图时调用. 通过 {@link #getData()} 复制的数据不需要保留</p>
+     */
+    public void retain() {
+        if (this.retainHandler != null) {
+            this.retainHandler.run();
+        }
+    }
+    //endregion
+}
@@ -1,5 +1,7 @@
 package jie.runtime.net.sockets.event;
 
+import java.nio.ByteBuffer;
+
 /**
  * 表示套接字数据事件数据的类
  *
@@ -8,15 +10,31 @@ package jie.runtime.net.sockets.event;
 public class SocketDataEventArgs extends SocketEventArgs {
 
     //region --字段--
-    private final byte[] data;
+    private byte[] data;
+    private final ByteBuffer[] buffers;
     //endregion
 
     //region --属性--
     /**
-     * 获取当前事件的数据
+     * 获取当前事件的数据, 以数据视图创建的事件在首次调用时从视图中复制
      */
     public byte[] getData() {
-        return data;
+        if (this.data == null && this.buffers != null) {
+            int len = 0;
+            for (ByteBuffer buffer : this.buffers) {
+                len += buffer.remaining();
+            }
+
+            byte[] dest = new byte[len];
+            int offset = 0;
+            for (ByteBuffer buffer : this.buffers) {
+                int count = buffer.remaining();
+                buffer.duplicate().get(dest, offset, count);
+                offset += count;
+            }
+            this.data = dest;
+        }
+        return this.data;
     }
     //endregion
 
@@ -29,6 +47,33 @@ public class SocketDataEventArgs extends SocketEventArgs {
      */
     public SocketDataEventArgs(byte[] data) {
         this.data = data;
+        this.buffers = null;
+    }
+
+    /**
+     * 初始化 {@link SocketDataEventArgs} 类的新实例, 数据按顺序由多个视图组成, 仅在获取数据时复制
+     *
+     * @param buffers 相关的数据视图, 事件处理期间不能修改其内容
+     */
+    public SocketDataEventArgs(ByteBuffer[] buffers) {
+        if (buffers == null) {
+            throw new NullPointerException("参数: buffers 是 null");
+        }
+        this.data = null;
+        this.buffers = buffers;
+    }
+
+    /**
+     * 以另一个事件的数据初始化 {@link SocketDataEventArgs} 类的新实例, 两个事件共享相同的数据来源
+     *
+     * @param args 提供数据的事件参数
+     */
+    protected SocketDataEventArgs(SocketDataEventArgs args) {
+        if (args == null) {
+            throw new NullPointerException("参数: args 是 null");
+        }
+        this.data = args.data;
+        this.buffers = args.buffers;
     }
     //endregion
 }
@@ -0,0 +1,87 @@
+package jie.runtime.net.sockets.event;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 表示套接字封包事件数据的类
+ * <p>封包以只读 {@link ByteBuffer} 视图的形式提供, 视图直接引用接收缓冲区中的数据, 不会产生复制.
+ * 事件结束后接收缓冲区将被复用, 需要在事件结束后继续持有视图时应在事件中调用 {@link #retain()}</p>
+ *
+ * @author jiegg
+ */
+public class SocketFrameEventArgs extends SocketEventArgs {
+
+    //region --字段--
+    private final ByteBuffer frame;
+    private final Runnable retainHandler;
+    private byte[] data;
+    //endregion
+
+    //region --属性--
+
+    /**
+     * 获取当前事件的封包视图, 每次调用都会返回一个独立位置的只读视图
+     */
+    public ByteBuffer getFrame() {
+        return this.frame.duplicate();
+    }
+
+    /**
+     * 获取当前事件的封包长度
+     */
+    public int getLength() {
+        return this.frame.remaining();
+    }
+
+    /**
+     * 获取当前事件的数据, 首次调用时从封包视图中复制
+     */
+    public byte[] getData() {
+        if (this.data == null) {
+            byte[] dest = new byte[this.frame.remaining()];
+            this.frame.duplicate().get(dest);
+            this.data = dest;
+        }
+        return this.data;
+    }
+    //endregion
+
+    //region --构造函数--
+
+    /**
+     * 初始化 {@link SocketFrameEventArgs} 类的新实例
+     *
+     * @param frame 相关的封包视图
+     */
+    public SocketFrameEventArgs(ByteBuffer frame) {
+        this(frame, null);
+    }
+
+    /**
+     * 初始化 {@link SocketFrameEventArgs} 类的新实例
+     *
+     * @param frame         相关的封包视图
+     * @param retainHandler 保留封包视图时调用的处理器, 为 <code>null</code> 时视图不引用可复用的缓冲区
+     */
+    public SocketFrameEventArgs(ByteBuffer frame, Runnable retainHandler) {
+        if (frame == null) {
+            throw new NullPointerException("参数: frame 是 null");
+        }
+        this.frame = frame.isReadOnly() ? frame : frame.asReadOnlyBuffer();
+        this.retainHandler = retainHandler;
+    }
+    //endregion
+
+    //region --公开方法--
+
+    /**
+     * 保留封包视图引用的接收缓冲区, 使视图在事件结束后仍然有效, 只能在事件中调用
+     * <p>被保留的缓冲区不会再被复用, 仅需在事件结束后继续持有视图时调用. 通过 {@link #getData()} 复制的数据不需要保留</p>
+     */
+    public void retain() {
+        if (this.retainHandler != null) {
+            this.retainHandler.run();
+        }
+    }
+    //endregion
+}
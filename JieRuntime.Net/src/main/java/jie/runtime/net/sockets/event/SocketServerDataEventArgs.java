@@ -45,5 +45,18 @@ public class SocketServerDataEventArgs extends SocketDataEventArgs {
         this.client = client;
         this.remoteAddr = remoteAddr;
     }
+
+    /**
+     * 以客户端的数据事件初始化 {@link SocketServerDataEventArgs} 类的新实例, 不会复制数据
+     *
+     * @param client     相关的客户端
+     * @param remoteAddr 事件的远端地址
+     * @param args       客户端的数据事件参数
+     */
+    public SocketServerDataEventArgs(SocketClient<?> client, InetSocketAddress remoteAddr, SocketDataEventArgs args) {
+        super(args);
+        this.client = client;
+        this.remoteAddr = remoteAddr;
+    }
     //endregion
 }
@@ -0,0 +1,45 @@
+package jie.runtime.net.sockets.event;
+
+/**
+ * 表示套接字可写状态事件数据的类
+ *
+ * @author jiegg
+ */
+public class SocketWritabilityEventArgs extends SocketEventArgs {
+
+    //region --字段--
+    private final boolean writable;
+    private final long pendingWriteBytes;
+    //endregion
+
+    //region --属性--
+
+    /**
+     * 获取客户端当前是否可写
+     */
+    public boolean isWritable() {
+        return writable;
+    }
+
+    /**
+     * 获取状态改变时等待发送的字节数
+     */
+    public long getPendingWriteBytes() {
+        return pendingWriteBytes;
+    }
+    //endregion
+
+    //region --构造函数--
+
+    /**
+     * 初始化 {@link SocketWritabilityEventArgs} 类的新实例
+     *
+     * @param writable          客户端当前是否可写
+     * @param pendingWriteBytes 状态改变时等待发送的字节数
+     */
+    public SocketWritabilityEventArgs(boolean writable, long pendingWriteBytes) {
+        this.writable = writable;
+        this.pendingWriteBytes = pendingWriteBytes;
+    }
+    //endregion
+}
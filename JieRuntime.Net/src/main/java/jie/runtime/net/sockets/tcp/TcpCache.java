@@ -1,25 +1,78 @@
 package jie.runtime.net.sockets.tcp;
 
-import jie.runtime.BinaryConvert;
-import jie.runtime.utils.ArrayUtils;
-
-import java.util.Arrays;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 提供 TCP 协议网络客户端使用的缓冲区
+ * <p>缓冲区由可增长的字节数组和读写索引构成, 封包头直接在缓冲区中读取, 拉取封包时仅移动读索引,
+ * 只有在尾部空间不足时才会将未读取的数据 (最多一个不完整的封包) 移动到缓冲区头部.
+ * 通过 {@link #pullAll()} 拉取的封包是直接引用缓冲区的只读视图, 视图通过 {@link Lease} 引用缓冲区,
+ * 在租约释放之前缓冲区不会再覆盖这些区域, 尾部空间不足时改为将未读取的数据移动到新的缓冲区中.
+ * 分发结束后释放租约即可继续复用缓冲区, 只有视图在分发之后仍被保留时才需要分配新的缓冲区.
+ * 封包可以跨越多次读取, 缓冲区在读到封包头之后才按封包的长度一次性扩容, 超过上限的封包将被视为无效数据</p>
  *
  * @author jiegg
  */
 class TcpCache {
 
+    //region --常量--
+    /**
+     * 获取缓冲区的默认初始容量
+     */
+    private static final int DEFAULT_CAPACITY = 4096;
+
+    /**
+     * 缓冲区清空后可以保留的最大容量, 接收大封包后超过该容量的缓冲区将被释放
+     */
+    private static final int MAX_RETAINED_CAPACITY = 256 * 1024;
+    //endregion
+
     //region --字段--
-    private final CacheList data;
-    private byte packetHeaderLength;
+    private byte[] buffer;
+    private int readIndex;
+    private int writeIndex;
+    private BufferState state;
+    private int headerLength;
+    private int maxPacketLength;
+    private TcpFrameCodec frameCodec;
     //endregion
 
     //region --属性--
-    public void setPacketHeaderLength(byte packetHeaderLength) {
-        this.packetHeaderLength = packetHeaderLength;
+
+    /**
+     * 设置解析封包头使用的编解码器
+     *
+     * @param frameCodec 一个 {@link TcpFrameCodec}
+     */
+    public void setFrameCodec(TcpFrameCodec frameCodec) {
+        if (frameCodec == null) {
+            throw new NullPointerException("参数: frameCodec 是 null");
+        }
+        this.frameCodec = frameCodec;
+    }
+
+    /**
+     * 设置封包 (包含封包头) 的最大长度, 封包头描述的长度超过该值时视为无效数据
+     *
+     * @param maxPacketLength 封包的最大长度
+     */
+    public void setMaxPacketLength(int maxPacketLength) {
+        if (maxPacketLength < 1) {
+            throw new IllegalArgumentException("参数: maxPacketLength, 值不能小于 1");
+        }
+        this.maxPacketLength = maxPacketLength;
+    }
+
+    /**
+     * 获取缓冲区中尚未拉取的数据长度
+     */
+    public int size() {
+        return this.writeIndex - this.readIndex;
     }
     //endregion
 
@@ -27,10 +80,13 @@ class TcpCache {
 
     /**
      * 初始化 {@link TcpCache} 类的新实例
+     *
+     * @param frameCodec 解析封包头使用的编解码器
      */
-    public TcpCache(byte packetHeaderLength) {
-        this.packetHeaderLength = packetHeaderLength;
-        this.data = new CacheList();
+    public TcpCache(TcpFrameCodec frameCodec) {
+        this.setFrameCodec(frameCodec);
+        this.maxPacketLength = Integer.MAX_VALUE;
+        this.buffer = new byte[DEFAULT_CAPACITY];
     }
     //endregion
 
@@ -42,7 +98,29 @@ class TcpCache {
      * @param data 要推入的数据
      */
     public void push(byte[] data) {
-        this.data.addAll(Arrays.asList(ArrayUtils.toObject(data)));
+        if (data == null) {
+            throw new NullPointerException("参数: data 是 null");
+        }
+
+        this.ensureWritable(data.length);
+        System.arraycopy(data, 0, this.buffer, this.writeIndex, data.length);
+        this.writeIndex += data.length;
+    }
+
+    /**
+     * 将 {@link ByteBuffer} 中剩余的数据推入缓冲区
+     *
+     * @param data 要推入的数据, 推入后其位置将移动到上限处
+     */
+    public void push(ByteBuffer data) {
+        if (data == null) {
+            throw new NullPointerException("参数: data 是 null");
+        }
+
+        int len = data.remaining();
+        this.ensureWritable(len);
+        data.get(this.buffer, this.writeIndex, len);
+        this.writeIndex += len;
     }
 
     /**
@@ -51,45 +129,206 @@ class TcpCache {
      * @return 如果缓冲区中的数据可以形成完整数据包, 则为 <code>true</code>, 否则为 <code>false</code>
      */
     public boolean isPull() {
-        return this.getPacketLength() <= this.data.size();
+        int packetLength = this.getPacketLength();
+        return packetLength >= 0 && packetLength <= this.size();
     }
 
     /**
      * 拉取缓冲区中的完整数据包
      *
-     * @return 拉取的完整数据包
+     * @return 拉取的完整数据包, 如果缓冲区中的数据不足以形成完整数据包则为 <code>null</code>
      */
     public byte[] pull() {
         int packetLength = this.getPacketLength();
-        if (packetLength >= 0) {
-            // 读取数据
-            byte[] src = ArrayUtils.toPrimitive(this.data.stream().limit(packetLength).toArray(Byte[]::new));
-
+        if (packetLength >= 0 && packetLength <= this.size()) {
             // 拆分数据包
-            byte[] dest = new byte[packetLength - this.packetHeaderLength];
-            System.arraycopy(src, this.packetHeaderLength, dest, 0, dest.length);
-
-            // 清理缓冲区
-            this.data.removeRange(0, packetLength);
+            byte[] dest = new byte[packetLength - this.headerLength];
+            System.arraycopy(this.buffer, this.readIndex + this.headerLength, dest, 0, dest.length);
 
+            // 移动读索引
+            this.skip(packetLength);
             return dest;
         }
         return null;
     }
+
+    /**
+     * 拉取缓冲区中所有的完整数据包, 数据包以只读视图的形式返回, 不会复制数据
+     * <p>返回的租约释放之前缓冲区不会覆盖视图引用的区域, 使用视图结束后必须调用 {@link Lease#release()}</p>
+     *
+     * @return 包含按接收顺序排列的完整数据包视图的 {@link Lease}, 如果缓冲区中没有完整数据包则为 <code>null</code>
+     */
+    public Lease pullAll() {
+        if (!this.isPull()) {
+            return null;
+        }
+
+        // 同一个缓冲区的所有租约共享一个引用计数
+        if (this.state == null) {
+            this.state = new BufferState();
+        }
+        this.state.leaseCount.incrementAndGet();
+
+        List<ByteBuffer> packets = new ArrayList<>();
+        do {
+            int packetLength = this.getPacketLength();
+            packets.add(ByteBuffer.wrap(this.buffer, this.readIndex + this.headerLength, packetLength - this.headerLength)
+                    .slice()
+                    .asReadOnlyBuffer());
+            this.skip(packetLength);
+        } while (this.isPull());
+
+        return new Lease(Collections.unmodifiableList(packets), this.state);
+    }
+
+    /**
+     * 清空缓冲区中的所有数据
+     */
+    public void clear() {
+        if (this.isShared() || this.buffer.length > MAX_RETAINED_CAPACITY) {
+            this.buffer = new byte[DEFAULT_CAPACITY];
+            this.state = null;
+        }
+        this.readIndex = 0;
+        this.writeIndex = 0;
+    }
     //endregion
 
     //region --私有方法--
     private int getPacketLength() {
-        if (this.data.size() >= this.packetHeaderLength) {
+        // 直接在缓冲区中解析封包头
+        int len = this.frameCodec.readHeaderLength(this.buffer, this.readIndex, this.size());
+        if (len < 0) {
+            return -1;
+        }
+
+        int payloadLength = this.frameCodec.readPayloadLength(this.buffer, this.readIndex, len);
+        if (payloadLength > this.maxPacketLength - len) {
+            throw new IllegalStateException("封包长度超过了上限: " + ((long) payloadLength + len) + " > " + this.maxPacketLength);
+        }
+        this.headerLength = len;
+        return len + payloadLength;
+    }
+
+    private boolean isShared() {
+        return this.state != null && this.state.isShared();
+    }
+
+    private void skip(int len) {
+        this.readIndex += len;
+        if (this.readIndex == this.writeIndex && !this.isShared()) {
+            this.readIndex = 0;
+            this.writeIndex = 0;
+
+            // 释放接收大封包时扩容的缓冲区
+            if (this.buffer.length > MAX_RETAINED_CAPACITY) {
+                this.buffer = new byte[DEFAULT_CAPACITY];
+            }
+        }
+    }
+
+    private void ensureWritable(int len) {
+        if (this.buffer.length - this.writeIndex >= len) {
+            return;
+        }
+
+        int readable = this.size();
+        int required = readable + len;
+
+        // 已经读到封包头时, 按封包的长度一次性预留空间
+        int packetLength = this.getPacketLength();
+        if (packetLength > required) {
+            required = packetLength;
+        }
+
+        if (!this.isShared() && required <= this.buffer.length) {
+            // 视图都已释放, 将未读取的数据移动到缓冲区头部
+            System.arraycopy(this.buffer, this.readIndex, this.buffer, 0, readable);
+        } else {
+            // 扩容缓冲区, 缓冲区仍被封包视图引用时也需要将未读取的数据移动到新的缓冲区
+            int capacity = required;
+            if (capacity < MAX_RETAINED_CAPACITY) {
+                capacity = Math.max(capacity, Math.min(this.buffer.length << 1, MAX_RETAINED_CAPACITY));
+            }
+            byte[] newBuffer = new byte[capacity];
+            System.arraycopy(this.buffer, this.readIndex, newBuffer, 0, readable);
+            this.buffer = newBuffer;
+            this.state = null;
+        }
+        this.readIndex = 0;
+        this.writeIndex = readable;
+    }
+    //endregion
+
+    //region --内部类--
+
+    /**
+     * 表示一次拉取的封包视图对缓冲区的租约
+     * <p>分发结束后调用 {@link #release()} 释放租约, 缓冲区即可被后续接收的数据覆盖.
+     * 如果视图需要在分发结束后继续使用, 应在释放之前调用 {@link #retain()}, 此后该缓冲区不会再被覆盖</p>
+     */
+    static class Lease {
+
+        //region --字段--
+        private final List<ByteBuffer> frames;
+        private final BufferState state;
+        private final AtomicBoolean isReleased;
+        //endregion
+
+        //region --属性--
 
-            // 读取封包长度
-            byte[] lenBytes = new byte[this.packetHeaderLength];
-            for (int i = 0; i < lenBytes.length; i++) {
-                lenBytes[i] = this.data.get(i);
+        /**
+         * 获取按接收顺序排列的封包视图
+         */
+        public List<ByteBuffer> getFrames() {
+            return this.frames;
+        }
+        //endregion
+
+        //region --构造函数--
+        Lease(List<ByteBuffer> frames, BufferState state) {
+            this.frames = frames;
+            this.state = state;
+            this.isReleased = new AtomicBoolean();
+        }
+        //endregion
+
+        //region --公开方法--
+
+        /**
+         * 保留视图引用的缓冲区, 缓冲区将不再被覆盖, 必须在 {@link #release()} 之前调用
+         */
+        public void retain() {
+            this.state.isRetained = true;
+        }
+
+        /**
+         * 释放租约, 重复调用将被忽略
+         */
+        public void release() {
+            if (this.isReleased.compareAndSet(false, true)) {
+                this.state.leaseCount.decrementAndGet();
             }
-            return BinaryConvert.toInt32(lenBytes, true);
         }
-        return -1;
+        //endregion
+    }
+
+    /**
+     * 缓冲区的引用状态, 缓冲区被替换时一并替换
+     */
+    private static class BufferState {
+
+        //region --字段--
+        private final AtomicInteger leaseCount = new AtomicInteger();
+        private volatile boolean isRetained;
+        //endregion
+
+        //region --公开方法--
+        public boolean isShared() {
+            // 先保留后释放, 读取到租约全部释放时一定能读取到保留标志
+            return this.leaseCount.get() > 0 || this.isRetained;
+        }
+        //endregion
     }
     //endregion
 }
@@ -1,18 +1,23 @@
 package jie.runtime.net.sockets.tcp;
 
 
-import jie.runtime.BinaryConvert;
+import jie.runtime.net.buffer.ByteBufferPool;
+import jie.runtime.net.sockets.IOrderedExecutorHandler;
 import jie.runtime.net.sockets.SocketClient;
-import jie.runtime.utils.ArrayUtils;
+import jie.runtime.net.sockets.SocketDispatcher;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousChannelGroup;
 import java.nio.channels.AsynchronousSocketChannel;
 import java.nio.channels.CompletionHandler;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 提供基于 TCP 协议的网络客户端
@@ -26,6 +31,16 @@ public class TcpClient extends SocketClient<AsynchronousSocketChannel> {
      * 获取 TCP 协议网络客户端默认封包大小
      */
     public static final int DEFAULT_PACKET_SIZE = 65535;
+
+    /**
+     * 获取 TCP 协议网络客户端每次从套接字读取数据时默认使用的缓冲区大小
+     */
+    public static final int DEFAULT_RECEIVE_BUFFER_SIZE = 65536;
+
+    /**
+     * 获取等待分发的封包数量的默认上限, 超过后将自动暂停接收数据
+     */
+    public static final int DEFAULT_MAX_PENDING_RECEIVE_COUNT = 65536;
     //endregion
 
     //region --字段--
@@ -34,13 +49,26 @@ public class TcpClient extends SocketClient<AsynchronousSocketChannel> {
     private final ReceiveDataHandler clientReceiveHandler;
     private final SendDataHandler clientSendHandler;
     private final TcpCache cache;
-    private final ExecutorService threadPool;
+    private final TcpSendQueue sendQueue;
+    private final AsynchronousChannelGroup channelGroup;
+    private final SocketDispatcher dispatcher;
+    private final Executor receiveExecutor;
+    private final AtomicInteger pendingReceiveCount;
+    private final AtomicBoolean isReceiveParked;
+    private volatile ByteBuffer parkedReceiveBuffer;
+    private volatile boolean isReceivePaused;
+    private volatile boolean isDispatchRejected;
+    private volatile int maxPendingReceiveCount;
+    private ByteBufferPool bufferPool;
     private InetSocketAddress localAddress;
     private InetSocketAddress remoteAddress;
     private boolean isRunning;
     private boolean isConnected;
     private int packetSize;
+    private int receiveBufferSize;
     private byte packetHeaderLength;
+    private TcpFrameCodec frameCodec;
+    private boolean isCustomFrameCodec;
     //endregion
 
     //region --属性--
@@ -53,6 +81,78 @@ public class TcpClient extends SocketClient<AsynchronousSocketChannel> {
         return this.client;
     }
 
+    /**
+     * 获取当前客户端使用的异步通道组, 如果使用系统默认的通道组则为 <code>null</code>
+     */
+    public AsynchronousChannelGroup getChannelGroup() {
+        return this.channelGroup;
+    }
+
+    /**
+     * 获取当前客户端用于分发事件的 {@link SocketDispatcher}
+     */
+    public SocketDispatcher getDispatcher() {
+        return this.dispatcher;
+    }
+
+    /**
+     * 获取当前客户端读写数据时使用的缓冲池
+     */
+    public ByteBufferPool getBufferPool() {
+        return this.bufferPool;
+    }
+
+    /**
+     * 设置当前客户端读写数据时使用的缓冲池, 只能在客户端运行之前设置
+     *
+     * @param value 一个 {@link ByteBufferPool}
+     */
+    public void setBufferPool(ByteBufferPool value) {
+        if (value == null) {
+            throw new NullPointerException("参数: value 是 null");
+        }
+
+        if (this.isRunning()) {
+            throw new IllegalStateException("无法设置缓冲池, 因为客户端正在运行");
+        }
+        this.bufferPool = value;
+    }
+
+    /**
+     * 获取当前客户端已收到但尚未分发完成的封包数量
+     */
+    public int getPendingReceiveCount() {
+        return this.pendingReceiveCount.get();
+    }
+
+    /**
+     * 获取等待分发的封包数量上限, 达到上限后将停止从套接字读取数据, 直到分发回落到上限的一半
+     */
+    public int getMaxPendingReceiveCount() {
+        return this.maxPendingReceiveCount;
+    }
+
+    /**
+     * 设置等待分发的封包数量上限
+     *
+     * @param value 一个 32 位整数, 为 0 时不自动暂停接收
+     */
+    public void setMaxPendingReceiveCount(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("参数: value, 值不能为负数");
+        }
+        this.maxPendingReceiveCount = value;
+        this.tryResumeReceive();
+    }
+
+    /**
+     * 获取当前客户端是否已暂停接收数据
+     */
+    @Override
+    public boolean isReceivePaused() {
+        return this.isReceivePaused;
+    }
+
     /**
      * 获取当前网络客户端的本地 IP 地址
      */
@@ -86,7 +186,7 @@ public class TcpClient extends SocketClient<AsynchronousSocketChannel> {
     }
 
     /**
-     * 获取当前客户端接收或发送数据时的封包大小
+     * 获取当前客户端接收或发送数据时的封包大小, 即单个封包 (包含封包头) 允许的最大长度
      */
     @Override
     public int getPacketSize() {
@@ -94,7 +194,9 @@ public class TcpClient extends SocketClient<AsynchronousSocketChannel> {
     }
 
     /**
-     * 设置当前客户端接收或发送数据时的封包大小
+     * 设置当前客户端接收或发送数据时的封包大小, 即单个封包 (包含封包头) 允许的最大长度
+     * <p>封包可以跨越多次读取, 接收时只会在读到封包头之后按实际长度分配空间, 因此该值只是安全上限, 不会预先分配.
+     * 使用默认的封包格式时, 封包头的宽度由该值决定</p>
      *
      * @param value 一个 32 位整数, 指定封包大小
      */
@@ -104,6 +206,9 @@ public class TcpClient extends SocketClient<AsynchronousSocketChannel> {
             throw new IllegalArgumentException("参数: value, 封包大小不能小于 1");
         }
         this.packetSize = value;
+        if (this.cache != null) {
+            this.cache.setMaxPacketLength(value);
+        }
         long len = this.packetSize;
         byte size = 0;
         do {
@@ -111,44 +216,129 @@ public class TcpClient extends SocketClient<AsynchronousSocketChannel> {
             size++;
         } while (len > 0);
         this.packetHeaderLength = size;
-        if (this.cache != null) {
-            this.cache.setPacketHeaderLength(this.packetHeaderLength);
+
+        // 默认的封包头宽度由封包大小决定
+        if (!this.isCustomFrameCodec) {
+            this.frameCodec = new TcpFixedLengthFrameCodec(this.packetHeaderLength);
+            if (this.cache != null) {
+                this.cache.setFrameCodec(this.frameCodec);
+            }
         }
     }
 
     /**
-     * 获取当前客户端接收或发送数据时的封包头占用字节数
+     * 获取当前客户端接收或发送数据时的封包头占用字节数, 使用变长封包头时为最大封包的封包头占用的字节数
      */
     @Override
     public byte getPacketHeaderLength() {
+        if (this.isCustomFrameCodec) {
+            return (byte) this.frameCodec.getHeaderLength(this.packetSize);
+        }
         return this.packetHeaderLength;
     }
+
+    /**
+     * 获取当前客户端每次从套接字读取数据时使用的缓冲区大小
+     */
+    public int getReceiveBufferSize() {
+        return this.receiveBufferSize;
+    }
+
+    /**
+     * 设置当前客户端每次从套接字读取数据时使用的缓冲区大小, 该值与封包大小无关, 在下一次开始接收时生效
+     *
+     * @param value 一个 32 位整数, 指定缓冲区大小
+     */
+    public void setReceiveBufferSize(int value) {
+        if (value < 1) {
+            throw new IllegalArgumentException("参数: value, 缓冲区大小不能小于 1");
+        }
+        this.receiveBufferSize = value;
+    }
+
+    /**
+     * 获取当前客户端使用的封包头编解码器
+     */
+    public TcpFrameCodec getFrameCodec() {
+        return this.frameCodec;
+    }
+
+    /**
+     * 设置当前客户端使用的封包头编解码器, 只能在客户端运行之前设置, 通信双方必须使用相同的封包格式
+     *
+     * @param value 一个 {@link TcpFrameCodec}, 为 <code>null</code> 时使用由封包大小决定宽度的 {@link TcpFixedLengthFrameCodec}
+     */
+    public void setFrameCodec(TcpFrameCodec value) {
+        if (this.isRunning()) {
+            throw new IllegalStateException("无法设置封包头编解码器, 因为客户端正在运行");
+        }
+
+        if (value == null) {
+            this.isCustomFrameCodec = false;
+            this.frameCodec = new TcpFixedLengthFrameCodec(this.packetHeaderLength);
+        } else {
+            this.isCustomFrameCodec = true;
+            this.frameCodec = value;
+        }
+        this.cache.setFrameCodec(this.frameCodec);
+    }
     //endregion
 
     //region --构造函数--
 
     /**
-     * 初始化 {@link TcpClient} 类的新实例
+     * 初始化 {@link TcpClient} 类的新实例, 使用系统默认的异步通道组和默认的 {@link SocketDispatcher}
      */
     public TcpClient() {
+        this(null, SocketDispatcher.getDefault());
+    }
+
+    /**
+     * 使用共享的异步通道组和事件分发器初始化 {@link TcpClient} 类的新实例
+     *
+     * @param channelGroup 客户端套接字绑定的异步通道组, 为 <code>null</code> 时使用系统默认的通道组
+     * @param dispatcher   用于分发客户端事件的 {@link SocketDispatcher}
+     */
+    public TcpClient(AsynchronousChannelGroup channelGroup, SocketDispatcher dispatcher) {
+        if (dispatcher == null) {
+            throw new NullPointerException("参数: dispatcher 是 null");
+        }
+
         this.clientConnectedHandler = new ConnectedHandler();
         this.clientReceiveHandler = new ReceiveDataHandler();
         this.clientSendHandler = new SendDataHandler();
 
         this.setPacketSize(DEFAULT_PACKET_SIZE);
-        this.cache = new TcpCache(this.getPacketHeaderLength());
-
-        // 初始化线程池
-        this.threadPool = Executors.newCachedThreadPool();
+        this.receiveBufferSize = DEFAULT_RECEIVE_BUFFER_SIZE;
+        this.cache = new TcpCache(this.frameCodec);
+        this.cache.setMaxPacketLength(this.packetSize);
+        this.sendQueue = new TcpSendQueue();
+
+        // 共享的通道组与分发器, 接收事件通过有序执行器保证同一连接的顺序
+        this.channelGroup = channelGroup;
+        this.dispatcher = dispatcher;
+        this.receiveExecutor = dispatcher.createOrderedExecutor(new ReceiveDispatchHandler());
+        this.bufferPool = ByteBufferPool.getDefault();
+
+        // 接收流量控制
+        this.pendingReceiveCount = new AtomicInteger();
+        this.isReceiveParked = new AtomicBoolean();
+        this.maxPendingReceiveCount = DEFAULT_MAX_PENDING_RECEIVE_COUNT;
     }
 
     /**
      * 使用已初始化的 {@link  AsynchronousSocketChannel} 来初始化 {@link TcpClient} 类的新实例
      *
-     * @param socket 已初始化的 {@link AsynchronousSocketChannel}
+     * @param socket       已初始化的 {@link AsynchronousSocketChannel}
+     * @param channelGroup 套接字所属的异步通道组
+     * @param dispatcher   用于分发客户端事件的 {@link SocketDispatcher}
+     * @param bufferPool   读写数据时使用的缓冲池
+     * @param frameCodec   封包头编解码器, 为 <code>null</code> 时使用默认的封包格式
      */
-    TcpClient(AsynchronousSocketChannel socket) {
-        this();
+    TcpClient(AsynchronousSocketChannel socket, AsynchronousChannelGroup channelGroup, SocketDispatcher dispatcher, ByteBufferPool bufferPool, TcpFrameCodec frameCodec) {
+        this(channelGroup, dispatcher);
+        this.setBufferPool(bufferPool);
+        this.setFrameCodec(frameCodec);
 
         if (socket == null) {
             throw new NullPointerException("参数: socket 是 null");
@@ -171,8 +361,7 @@ public class TcpClient extends SocketClient<AsynchronousSocketChannel> {
                 }
 
                 // 开始接收数据
-                ByteBuffer buffer = ByteBuffer.allocate(this.getPacketSize());
-                this.getClient().read(buffer, buffer, this.clientReceiveHandler);
+                this.beginReceive();
             } catch (IOException e) {
                 this.invokeExceptionEvent(e);
             }
@@ -198,7 +387,7 @@ public class TcpClient extends SocketClient<AsynchronousSocketChannel> {
             try {
                 // 如果有必要, 初始化客户端
                 if (this.client == null) {
-                    this.client = AsynchronousSocketChannel.open();
+                    this.client = AsynchronousSocketChannel.open(this.channelGroup);
                 }
                 // 开始连接远程客户端
                 this.client.connect(remoteAddr, null, this.clientConnectedHandler);
@@ -224,6 +413,13 @@ public class TcpClient extends SocketClient<AsynchronousSocketChannel> {
                 }
                 // 设置客户端状态
                 this.isConnected = false;
+                // 丢弃尚未发送的数据
+                this.releaseEntries(this.sendQueue.clear());
+                // 归还暂停接收时保留的接收缓冲区
+                if (this.isReceiveParked.compareAndSet(true, false)) {
+                    this.bufferPool.release(this.parkedReceiveBuffer);
+                    this.parkedReceiveBuffer = null;
+                }
                 // 触发客户端断开事件
                 this.invokeDisconnectedEvent();
             } catch (IOException e) {
@@ -238,6 +434,7 @@ public class TcpClient extends SocketClient<AsynchronousSocketChannel> {
 
     /**
      * 发送数据到远程客户端
+     * <p>超过缓冲池最大缓冲区大小的数据不会被复制, 在触发数据发送事件之前不能修改其内容</p>
      *
      * @param data 要发送的数据
      */
@@ -248,29 +445,115 @@ public class TcpClient extends SocketClient<AsynchronousSocketChannel> {
                 throw new NullPointerException("参数: data 为 null");
             }
 
-            if (data.length > (this.getPacketSize() - this.getPacketHeaderLength())) {
-                throw new IllegalArgumentException("参数: data, 要发送的数据包大小超过了上限: " + (this.getPacketSize() - this.getPacketHeaderLength()));
+            TcpFrameCodec codec = this.frameCodec;
+            int headerLength = codec.getHeaderLength(data.length);
+            if (data.length > (this.getPacketSize() - headerLength)) {
+                throw new IllegalArgumentException("参数: data, 要发送的数据包大小超过了上限: " + (this.getPacketSize() - headerLength));
+            }
+
+            try {
+                TcpSendQueue.Entry entry;
+                if (headerLength + data.length > this.bufferPool.getMaxBufferSize()) {
+                    // 大封包不复制数据, 封包头与数据通过聚集写入一起发送
+                    ByteBuffer header = this.bufferPool.acquire(headerLength);
+                    codec.writeHeader(header, data.length);
+                    header.flip();
+                    entry = new TcpSendQueue.Entry(data, 1, header, ByteBuffer.wrap(data));
+                } else {
+                    // 填充包头
+                    ByteBuffer buffer = this.bufferPool.acquire(headerLength + data.length);
+                    codec.writeHeader(buffer, data.length);
+                    buffer.put(data);
+                    buffer.flip();
+                    entry = new TcpSendQueue.Entry(data, 1, buffer);
+                }
+
+                this.offer(entry);
+            } catch (Exception e) {
+                this.invokeExceptionEvent(e);
+            }
+        }
+    }
+
+    /**
+     * 将多个缓冲区中剩余的数据按顺序组成一个封包发送到远程客户端, 不会改变这些缓冲区的位置
+     * <p>封包能放入缓冲池的缓冲区时数据复制一次, 否则封包头与各个缓冲区通过聚集写入一起发送, 不复制数据.
+     * 在触发数据发送事件之前不能修改缓冲区的内容</p>
+     *
+     * @param buffers 组成封包数据的缓冲区
+     */
+    public void send(ByteBuffer... buffers) {
+        if (this.isRunning() && this.isConnected()) {
+            if (buffers == null) {
+                throw new NullPointerException("参数: buffers 为 null");
+            }
+
+            // 使用只读视图, 发送过程不会影响调用方缓冲区的位置
+            ByteBuffer[] payload = new ByteBuffer[buffers.length];
+            long len = 0;
+            for (int i = 0; i < buffers.length; i++) {
+                if (buffers[i] == null) {
+                    throw new NullPointerException("参数: buffers[" + i + "] 为 null");
+                }
+                payload[i] = buffers[i].asReadOnlyBuffer();
+                len += payload[i].remaining();
+            }
+
+            TcpFrameCodec codec = this.frameCodec;
+            int headerLength = codec.getHeaderLength((int) Math.min(len, Integer.MAX_VALUE));
+            if (len > (this.getPacketSize() - headerLength)) {
+                throw new IllegalArgumentException("参数: buffers, 要发送的数据包大小超过了上限: " + (this.getPacketSize() - headerLength));
             }
 
             try {
-                // 计算封包包头
-                int len = data.length + this.getPacketHeaderLength();
-                byte[] lenBytes = BinaryConvert.getBytes(len, true);
-
-                // 填充包头
-                ByteBuffer buffer = ByteBuffer.allocate(len);
-                buffer.put(ArrayUtils.right(lenBytes, this.getPacketHeaderLength()));
-                buffer.put(data);
-                buffer.flip();
-
-                // 发送数据
-                this.client.write(buffer, buffer, this.clientSendHandler);
+                TcpSendQueue.Entry entry;
+                if (headerLength + len > this.bufferPool.getMaxBufferSize()) {
+                    // 大封包不复制数据, 封包头与各个视图通过聚集写入一起发送
+                    ByteBuffer header = this.bufferPool.acquire(headerLength);
+                    codec.writeHeader(header, (int) len);
+                    header.flip();
+
+                    ByteBuffer[] gather = new ByteBuffer[payload.length + 1];
+                    gather[0] = header;
+                    for (int i = 0; i < payload.length; i++) {
+                        gather[i + 1] = payload[i].duplicate();
+                    }
+                    entry = new TcpSendQueue.Entry(payload, 1, gather);
+                } else {
+                    // 填充包头, 并将各个视图复制到同一个缓冲区
+                    ByteBuffer buffer = this.bufferPool.acquire(headerLength + (int) len);
+                    codec.writeHeader(buffer, (int) len);
+                    for (ByteBuffer item : payload) {
+                        buffer.put(item.duplicate());
+                    }
+                    buffer.flip();
+                    entry = new TcpSendQueue.Entry(payload, 1, buffer);
+                }
+
+                this.offer(entry);
             } catch (Exception e) {
                 this.invokeExceptionEvent(e);
             }
         }
     }
 
+    /**
+     * 暂停接收数据, 已经收到的数据仍会继续分发, 但不再从套接字读取新的数据, 使对端的发送受到 TCP 流量控制的约束
+     */
+    @Override
+    public void pauseReceive() {
+        this.isReceivePaused = true;
+    }
+
+    /**
+     * 恢复接收数据
+     */
+    @Override
+    public void resumeReceive() {
+        this.isReceivePaused = false;
+        this.tryResumeReceive();
+    }
+
     /**
      * 释放当前实例所占用的资源
      */
@@ -283,6 +566,104 @@ public class TcpClient extends SocketClient<AsynchronousSocketChannel> {
     }
     //endregion
 
+    //region --私有方法--
+    private void beginReceive() {
+        ByteBuffer buffer = this.bufferPool.acquire(this.receiveBufferSize);
+        try {
+            this.receive(buffer);
+        } catch (RuntimeException e) {
+            this.bufferPool.release(buffer);
+            throw e;
+        }
+    }
+
+    private void receive(ByteBuffer buffer) {
+        if (this.shouldPauseReceive()) {
+            // 保留接收缓冲区, 暂停期间不再读取套接字
+            this.parkedReceiveBuffer = buffer;
+            this.isReceiveParked.set(true);
+
+            // 暂停的同时可能已经满足了恢复条件
+            this.tryResumeReceive();
+        } else {
+            buffer.clear();
+            this.client.read(buffer, buffer, this.clientReceiveHandler);
+        }
+    }
+
+    private boolean shouldPauseReceive() {
+        int max = this.maxPendingReceiveCount;
+        return this.isReceivePaused || this.isDispatchRejected || (max > 0 && this.pendingReceiveCount.get() >= max);
+    }
+
+    private void tryResumeReceive() {
+        if (!this.shouldPauseReceive() && this.isReceiveParked.compareAndSet(true, false)) {
+            ByteBuffer buffer = this.parkedReceiveBuffer;
+            this.parkedReceiveBuffer = null;
+            if (this.isRunning() && this.isConnected()) {
+                try {
+                    this.receive(buffer);
+                } catch (RuntimeException e) {
+                    this.bufferPool.release(buffer);
+                    this.invokeExceptionEvent(e);
+                }
+            } else {
+                this.bufferPool.release(buffer);
+            }
+        }
+    }
+
+    private void dispatchReceiveDataEvent(TcpCache.Lease lease) {
+        this.pendingReceiveCount.addAndGet(lease.getFrames().size());
+        this.receiveExecutor.execute(new ReceiveTask(lease));
+    }
+
+    private void offer(TcpSendQueue.Entry entry) {
+        // 加入发送队列, 由持有发送权的一方按顺序写出
+        this.incrementPendingWriteBytes(entry.getLength());
+        this.sendQueue.offer(entry);
+        this.flushSendQueue();
+    }
+
+    private void releaseEntries(Iterable<TcpSendQueue.Entry> entries) {
+        long len = 0;
+        for (TcpSendQueue.Entry entry : entries) {
+            for (int i = 0; i < entry.getPooledCount(); i++) {
+                this.bufferPool.release(entry.getBuffers()[i]);
+            }
+            len += entry.getLength();
+        }
+
+        if (len > 0) {
+            this.decrementPendingWriteBytes(len);
+        }
+    }
+
+    private void flushSendQueue() {
+        while (this.sendQueue.tryAcquire()) {
+            TcpSendQueue.Batch batch = this.sendQueue.poll();
+            if (batch != null) {
+                // 写入完成后由发送处理器继续发送队列中剩余的数据
+                this.writeBatch(batch);
+                return;
+            }
+
+            // 释放发送权后如果又有新的数据入队, 则重新尝试获取发送权
+            if (!this.sendQueue.release()) {
+                return;
+            }
+        }
+    }
+
+    private void writeBatch(TcpSendQueue.Batch batch) {
+        try {
+            this.client.write(batch.getBuffers(), batch.getOffset(), batch.getRemainingCount(), 0L, TimeUnit.MILLISECONDS, batch, this.clientSendHandler);
+        } catch (RuntimeException e) {
+            this.clientSendHandler.failed(e, batch);
+        }
+    }
+    //endregion
+
     //region --内部类--
     private class ConnectedHandler implements CompletionHandler<Void, Void> {
 
@@ -306,8 +687,7 @@ public class TcpClient extends SocketClient<AsynchronousSocketChannel> {
 
                 // 开始接收数据
                 if (TcpClient.this.isRunning() && TcpClient.this.isConnected()) {
-                    ByteBuffer buffer = ByteBuffer.allocate(TcpClient.this.getPacketSize());
-                    TcpClient.this.getClient().read(buffer, buffer, TcpClient.this.clientReceiveHandler);
+                    TcpClient.this.beginReceive();
                 }
 
             } catch (IOException e) {
@@ -326,32 +706,37 @@ public class TcpClient extends SocketClient<AsynchronousSocketChannel> {
 
         @Override
         public void completed(Integer result, ByteBuffer attachment) {
-            if (TcpClient.this.isRunning() && TcpClient.this.isConnected() && result != null && result > 0) {
+            if (!(TcpClient.this.isRunning() && TcpClient.this.isConnected() && result != null && result > 0)) {
+                // 不再继续接收, 归还接收缓冲区
+                TcpClient.this.bufferPool.release(attachment);
+            } else {
 
                 try {
-                    // 获取远端数据
-                    byte[] data = new byte[result];
+                    // 将远端数据推入缓冲区
                     attachment.flip();
-                    attachment.get(data, 0, data.length);
+                    TcpClient.this.cache.push(attachment);
 
-                    // 封包处理
-                    TcpClient.this.cache.push(data);
-                    if (TcpClient.this.cache.isPull()) {
+                    // 拉取本次读取后形成的所有完整封包, 封包是接收缓冲区的只读视图
+                    TcpCache.Lease lease = TcpClient.this.cache.pullAll();
+                    if (lease != null) {
 
                         // 异步启动调用数据接收事件
-                        byte[] finalData = TcpClient.this.cache.pull();
-                        TcpClient.this.threadPool.submit(() -> TcpClient.this.invokeReceiveDataEvent(finalData));
+                        TcpClient.this.dispatchReceiveDataEvent(lease);
                     }
 
+                } catch (IllegalStateException e) {
+                    // 封包头无效, 数据流已无法继续解析
+                    TcpClient.this.cache.clear();
+                    TcpClient.this.invokeExceptionEvent(e);
+                    TcpClient.this.disconnect(true);
                 } catch (Exception e) {
                     TcpClient.this.invokeExceptionEvent(e);
                 } finally {
-                    // 继续接收
+                    // 继续接收, 等待分发的封包过多或已暂停接收时不再读取套接字
                     if (TcpClient.this.isRunning() && TcpClient.this.isConnected()) {
-
-                        attachment.clear();
-                        TcpClient.this.getClient().read(attachment, attachment, TcpClient.this.clientReceiveHandler);
+                        TcpClient.this.receive(attachment);
                     } else {
+                        TcpClient.this.bufferPool.release(attachment);
                         TcpClient.this.disconnect(true);
                     }
                 }
@@ -360,33 +745,120 @@ public class TcpClient extends SocketClient<AsynchronousSocketChannel> {
 
         @Override
         public void failed(Throwable exc, ByteBuffer attachment) {
+            TcpClient.this.bufferPool.release(attachment);
             TcpClient.this.invokeExceptionEvent(exc);
         }
     }
 
-    private class SendDataHandler implements CompletionHandler<Integer, ByteBuffer> {
+    private class ReceiveDispatchHandler implements IOrderedExecutorHandler {
 
         @Override
-        public void completed(Integer result, ByteBuffer attachment) {
-            if (TcpClient.this.isRunning() && TcpClient.this.isConnected()) {
-                try {
-                    // 获取发送的数据
-                    byte[] data = attachment.array();
+        public void onTaskException(Throwable e) {
+            TcpClient.this.invokeExceptionEvent(e);
+        }
 
-                    // 处理发送结果
-                    if (result != null && result > 0) {
-                        // 触发数据送达事件
-                        TcpClient.this.invokeSendDataEvent(data);
-                    }
+        @Override
+        public void onRejected(RejectedExecutionException e, boolean shutdown) {
+            // 分发器繁忙时暂停接收, 封包仍在有序执行器中等待, 重新排队并执行后自动恢复
+            TcpClient.this.isDispatchRejected = true;
+            TcpClient.this.invokeExceptionEvent(e);
+
+            // 分发器已关闭时不会再恢复, 断开连接而不是一直暂停接收
+            if (shutdown) {
+                TcpClient.this.disconnect(false);
+            }
+        }
 
-                } catch (Exception e) {
-                    TcpClient.this.invokeExceptionEvent(e);
+        @Override
+        public void onDiscarded(Runnable task) {
+            if (task instanceof ReceiveTask) {
+                ((ReceiveTask) task).discard();
+            }
+        }
+    }
+
+    /**
+     * 在有序执行器中分发一次读取得到的封包的任务
+     */
+    private class ReceiveTask implements Runnable {
+
+        private final TcpCache.Lease lease;
+
+        ReceiveTask(TcpCache.Lease lease) {
+            this.lease = lease;
+        }
+
+        @Override
+        public void run() {
+            // 任务开始执行说明分发器已重新接纳当前连接
+            TcpClient.this.isDispatchRejected = false;
+            try {
+                TcpClient.this.invokeReceiveDataEvent(this.lease.getFrames(), this.lease::retain);
+            } finally {
+                this.complete(true);
+            }
+        }
+
+        /**
+         * 丢弃尚未分发的封包, 释放其占用的接收缓冲区
+         */
+        void discard() {
+            this.complete(false);
+        }
+
+        private void complete(boolean canResume) {
+            // 监听者没有保留视图时, 接收缓冲区可以继续复用
+            this.lease.release();
+
+            // 分发回落到上限的一半时恢复接收
+            int remaining = TcpClient.this.pendingReceiveCount.addAndGet(-this.lease.getFrames().size());
+            if (canResume && TcpClient.this.isReceiveParked.get() && remaining <= TcpClient.this.maxPendingReceiveCount / 2) {
+                TcpClient.this.tryResumeReceive();
+            }
+        }
+    }
+
+    private class SendDataHandler implements CompletionHandler<Long, TcpSendQueue.Batch> {
+
+        @Override
+        public void completed(Long result, TcpSendQueue.Batch attachment) {
+            try {
+                // 部分写入时继续写出剩余的数据
+                if (!attachment.advance()) {
+                    TcpClient.this.writeBatch(attachment);
+                    return;
+                }
+
+                // 归还缓冲区并触发数据送达事件
+                TcpClient.this.releaseEntries(attachment.getEntries());
+                if (TcpClient.this.isRunning() && TcpClient.this.isConnected()) {
+                    for (TcpSendQueue.Entry entry : attachment.getEntries()) {
+                        if (entry.getPayload() != null) {
+                            TcpClient.this.invokeSendDataEvent(entry.getPayload());
+                        } else {
+                            TcpClient.this.invokeSendDataEvent(entry.getData());
+                        }
+                    }
                 }
+            } catch (Exception e) {
+                TcpClient.this.invokeExceptionEvent(e);
+            }
+
+            // 继续发送队列中的下一批数据
+            TcpSendQueue.Batch batch = TcpClient.this.sendQueue.poll();
+            if (batch != null) {
+                TcpClient.this.writeBatch(batch);
+            } else if (TcpClient.this.sendQueue.release()) {
+                TcpClient.this.flushSendQueue();
             }
         }
 
         @Override
-        public void failed(Throwable exc, ByteBuffer attachment) {
+        public void failed(Throwable exc, TcpSendQueue.Batch attachment) {
+            // 连接已无法继续写入, 丢弃尚未发送的数据
+            TcpClient.this.releaseEntries(attachment.getEntries());
+            TcpClient.this.releaseEntries(TcpClient.this.sendQueue.clear());
+            TcpClient.this.sendQueue.release();
             TcpClient.this.invokeExceptionEvent(exc);
         }
     }
@@ -0,0 +1,82 @@
+package jie.runtime.net.sockets.tcp;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 提供固定长度封包头的编解码服务
+ * <p>封包头以大端序保存封包的总长度 (包含封包头自身), 这是 {@link TcpClient} 默认使用的封包格式</p>
+ *
+ * @author jiegg
+ */
+public class TcpFixedLengthFrameCodec implements TcpFrameCodec {
+
+    //region --字段--
+    private final int headerLength;
+    private final long maxFrameLength;
+    //endregion
+
+    //region --属性--
+
+    /**
+     * 获取封包头占用的字节数
+     */
+    public int getHeaderLength() {
+        return this.headerLength;
+    }
+    //endregion
+
+    //region --构造函数--
+
+    /**
+     * 初始化 {@link TcpFixedLengthFrameCodec} 类的新实例
+     *
+     * @param headerLength 封包头占用的字节数, 取值范围为 1 到 4
+     */
+    public TcpFixedLengthFrameCodec(int headerLength) {
+        if (headerLength < 1 || headerLength > Integer.BYTES) {
+            throw new IllegalArgumentException("参数: headerLength, 封包头长度必须在 1 到 4 之间");
+        }
+        this.headerLength = headerLength;
+        this.maxFrameLength = headerLength == Integer.BYTES ? Integer.MAX_VALUE : (1L << (headerLength * 8)) - 1;
+    }
+    //endregion
+
+    //region --公开方法--
+    @Override
+    public int getHeaderLength(int payloadLength) {
+        return this.headerLength;
+    }
+
+    @Override
+    public void writeHeader(ByteBuffer dest, int payloadLength) {
+        long len = (long) payloadLength + this.headerLength;
+        if (payloadLength < 0 || len > this.maxFrameLength) {
+            throw new IllegalArgumentException("参数: payloadLength, 封包长度超过了封包头可以表示的范围: " + this.maxFrameLength);
+        }
+
+        // 以大端序写入封包长度
+        for (int i = this.headerLength - 1; i >= 0; i--) {
+            dest.put((byte) (len >>> (i * 8)));
+        }
+    }
+
+    @Override
+    public int readHeaderLength(byte[] src, int offset, int length) {
+        return length >= this.headerLength ? this.headerLength : -1;
+    }
+
+    @Override
+    public int readPayloadLength(byte[] src, int offset, int headerLength) {
+        // 以大端序读取封包长度
+        long len = 0;
+        for (int i = 0; i < this.headerLength; i++) {
+            len = (len << 8) | (src[offset + i] & 0xff);
+        }
+
+        if (len < this.headerLength || len > Integer.MAX_VALUE) {
+            throw new IllegalStateException("封包长度无效: " + len);
+        }
+        return (int) len - this.headerLength;
+    }
+    //endregion
+}
@@ -0,0 +1,51 @@
+package jie.runtime.net.sockets.tcp;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 提供 TCP 协议网络客户端封包头编解码服务的接口
+ * <p>封包由封包头和数据组成, 封包头描述数据的长度. 实现必须是无状态的, 以便多个客户端共享同一个实例</p>
+ *
+ * @author jiegg
+ */
+public interface TcpFrameCodec {
+
+    /**
+     * 获取指定长度的数据需要的封包头长度
+     *
+     * @param payloadLength 数据的长度
+     * @return 封包头占用的字节数
+     */
+    int getHeaderLength(int payloadLength);
+
+    /**
+     * 将封包头写入缓冲区
+     *
+     * @param dest          要写入的缓冲区, 写入后其位置将移动到封包头之后
+     * @param payloadLength 数据的长度
+     * @throws IllegalArgumentException 数据的长度超过了封包头可以表示的范围
+     */
+    void writeHeader(ByteBuffer dest, int payloadLength);
+
+    /**
+     * 从字节数组的指定位置读取封包头的长度
+     *
+     * @param src    包含封包头的字节数组
+     * @param offset 封包头的起始位置
+     * @param length 从起始位置开始可以读取的字节数
+     * @return 封包头占用的字节数, 如果可以读取的字节数不足以确定封包头则为 -1
+     * @throws IllegalStateException 封包头无效
+     */
+    int readHeaderLength(byte[] src, int offset, int length);
+
+    /**
+     * 从字节数组的指定位置读取封包头描述的数据长度
+     *
+     * @param src          包含封包头的字节数组
+     * @param offset       封包头的起始位置
+     * @param headerLength 通过 {@link #readHeaderLength(byte[], int, int)} 得到的封包头长度
+     * @return 数据的长度, 不包含封包头
+     * @throws IllegalStateException 封包头描述的长度无效
+     */
+    int readPayloadLength(byte[] src, int offset, int headerLength);
+}
@@ -0,0 +1,295 @@
+package jie.runtime.net.sockets.tcp;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 提供 TCP 协议网络客户端使用的发送队列
+ * <p>任意线程都可以无锁地将封包加入队列, 同一时刻只有获得发送权的一方会从队列中取出封包,
+ * 多个排队的封包会合并为一次聚集写入</p>
+ *
+ * @author jiegg
+ */
+class TcpSendQueue {
+
+    //region --常量--
+    /**
+     * 单次聚集写入最多包含的封包数量
+     */
+    private static final int MAX_BATCH_COUNT = 64;
+
+    /**
+     * 单次聚集写入最多包含的字节数量, 超过后剩余的封包留到下一次写入
+     */
+    private static final int MAX_BATCH_BYTES = 1024 * 1024;
+    //endregion
+
+    //region --字段--
+    private final Queue<Entry> entries;
+    private final AtomicBoolean isSending;
+    //endregion
+
+    //region --构造函数--
+
+    /**
+     * 初始化 {@link TcpSendQueue} 类的新实例
+     */
+    public TcpSendQueue() {
+        this.entries = new ConcurrentLinkedQueue<>();
+        this.isSending = new AtomicBoolean();
+    }
+    //endregion
+
+    //region --公开方法--
+
+    /**
+     * 将封包加入发送队列
+     *
+     * @param entry 要发送的封包
+     */
+    public void offer(Entry entry) {
+        this.entries.add(entry);
+    }
+
+    /**
+     * 尝试获取发送权, 同一时刻只有一方可以获得发送权
+     *
+     * @return 如果成功获取发送权则为 <code>true</code>, 否则为 <code>false</code>
+     */
+    public boolean tryAcquire() {
+        return this.isSending.compareAndSet(false, true);
+    }
+
+    /**
+     * 释放发送权
+     *
+     * @return 如果释放后队列中仍有封包等待发送则为 <code>true</code>, 调用方应当重新尝试获取发送权
+     */
+    public boolean release() {
+        this.isSending.set(false);
+        return !this.entries.isEmpty();
+    }
+
+    /**
+     * 从队列中取出一批封包, 只有持有发送权的一方可以调用
+     *
+     * @return 一个 {@link Batch}, 如果队列为空则为 <code>null</code>
+     */
+    public Batch poll() {
+        Entry entry = this.entries.poll();
+        if (entry == null) {
+            return null;
+        }
+
+        List<Entry> batchEntries = new ArrayList<>();
+        int bufferCount = 0;
+        long bytes = 0;
+        do {
+            batchEntries.add(entry);
+            bufferCount += entry.getBuffers().length;
+            bytes += entry.getLength();
+            if (batchEntries.size() >= MAX_BATCH_COUNT || bytes >= MAX_BATCH_BYTES) {
+                break;
+            }
+            entry = this.entries.poll();
+        } while (entry != null);
+
+        // 展开为聚集写入使用的缓冲区数组
+        ByteBuffer[] buffers = new ByteBuffer[bufferCount];
+        int index = 0;
+        for (Entry item : batchEntries) {
+            for (ByteBuffer buffer : item.getBuffers()) {
+                buffers[index++] = buffer;
+            }
+        }
+        return new Batch(batchEntries, buffers);
+    }
+
+    /**
+     * 清空队列中所有等待发送的封包
+     *
+     * @return 被清除的封包
+     */
+    public List<Entry> clear() {
+        List<Entry> dropped = new ArrayList<>();
+        Entry entry;
+        while ((entry = this.entries.poll()) != null) {
+            dropped.add(entry);
+        }
+        return dropped;
+    }
+    //endregion
+
+    //region --内部类--
+
+    /**
+     * 表示一个等待发送的封包
+     */
+    static class Entry {
+
+        //region --字段--
+        private final byte[] data;
+        private final ByteBuffer[] payload;
+        private final ByteBuffer[] buffers;
+        private final int pooledCount;
+        private final int length;
+        //endregion
+
+        //region --属性--
+
+        /**
+         * 获取封包携带的原始数据, 用于触发数据发送事件. 以数据视图发送的封包为 <code>null</code>
+         */
+        public byte[] getData() {
+            return data;
+        }
+
+        /**
+         * 获取封包携带的数据视图, 用于触发数据发送事件. 以字节数组发送的封包为 <code>null</code>
+         */
+        public ByteBuffer[] getPayload() {
+            return payload;
+        }
+
+        /**
+         * 获取组成封包的缓冲区
+         */
+        public ByteBuffer[] getBuffers() {
+            return buffers;
+        }
+
+        /**
+         * 获取来自缓冲池的缓冲区数量, 组成封包的前 pooledCount 个缓冲区在发送完成后需要归还到缓冲池
+         */
+        public int getPooledCount() {
+            return pooledCount;
+        }
+
+        /**
+         * 获取封包的总长度
+         */
+        public int getLength() {
+            return length;
+        }
+        //endregion
+
+        //region --构造函数--
+
+        /**
+         * 初始化 {@link Entry} 类的新实例
+         *
+         * @param data        封包携带的原始数据
+         * @param pooledCount 来自缓冲池的缓冲区数量, 这些缓冲区必须位于 buffers 的开头
+         * @param buffers     组成封包的缓冲区, 包含封包头
+         */
+        public Entry(byte[] data, int pooledCount, ByteBuffer... buffers) {
+            this(data, null, pooledCount, buffers);
+        }
+
+        /**
+         * 初始化 {@link Entry} 类的新实例
+         *
+         * @param payload     封包携带的数据视图, 发送期间不会改变其位置
+         * @param pooledCount 来自缓冲池的缓冲区数量, 这些缓冲区必须位于 buffers 的开头
+         * @param buffers     组成封包的缓冲区, 包含封包头
+         */
+        public Entry(ByteBuffer[] payload, int pooledCount, ByteBuffer... buffers) {
+            this(null, payload, pooledCount, buffers);
+        }
+
+        private Entry(byte[] data, ByteBuffer[] payload, int pooledCount, ByteBuffer[] buffers) {
+            if (pooledCount < 0 || pooledCount > buffers.length) {
+                throw new IllegalArgumentException("参数: pooledCount, 超过了缓冲区数量的范围");
+            }
+
+            this.data = data;
+            this.payload = payload;
+            this.buffers = buffers;
+            this.pooledCount = pooledCount;
+            int len = 0;
+            for (ByteBuffer buffer : buffers) {
+                len += buffer.remaining();
+            }
+            this.length = len;
+        }
+        //endregion
+    }
+
+    /**
+     * 表示一次聚集写入的封包集合
+     */
+    static class Batch {
+
+        //region --字段--
+        private final List<Entry> entries;
+        private final ByteBuffer[] buffers;
+        private int offset;
+        //endregion
+
+        //region --属性--
+
+        /**
+         * 获取本批次包含的封包
+         */
+        public List<Entry> getEntries() {
+            return entries;
+        }
+
+        /**
+         * 获取本批次聚集写入的缓冲区
+         */
+        public ByteBuffer[] getBuffers() {
+            return buffers;
+        }
+
+        /**
+         * 获取第一个尚未写完的缓冲区索引
+         */
+        public int getOffset() {
+            return offset;
+        }
+
+        /**
+         * 获取尚未写完的缓冲区数量
+         */
+        public int getRemainingCount() {
+            return this.buffers.length - this.offset;
+        }
+        //endregion
+
+        //region --构造函数--
+
+        /**
+         * 初始化 {@link Batch} 类的新实例
+         *
+         * @param entries 本批次包含的封包
+         * @param buffers 本批次聚集写入的缓冲区
+         */
+        public Batch(List<Entry> entries, ByteBuffer[] buffers) {
+            this.entries = entries;
+            this.buffers = buffers;
+            this.offset = 0;
+        }
+        //endregion
+
+        //region --公开方法--
+
+        /**
+         * 跳过已经写完的缓冲区
+         *
+         * @return 如果本批次的所有缓冲区都已写完则为 <code>true</code>, 否则为 <code>false</code>
+         */
+        public boolean advance() {
+            while (this.offset < this.buffers.length && !this.buffers[this.offset].hasRemaining()) {
+                this.offset++;
+            }
+            return this.offset == this.buffers.length;
+        }
+        //endregion
+    }
+    //endregion
+}
@@ -1,5 +1,6 @@
 package jie.runtime.net.sockets.tcp;
 
+import jie.runtime.net.buffer.ByteBufferPool;
 import jie.runtime.net.sockets.*;
 import jie.runtime.net.sockets.event.ISocketClientEvent;
 import jie.runtime.net.sockets.event.SocketDataEventArgs;
@@ -11,6 +12,7 @@ import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.SocketException;
 import java.net.UnknownHostException;
+import java.nio.channels.AsynchronousChannelGroup;
 import java.nio.channels.AsynchronousServerSocketChannel;
 import java.nio.channels.AsynchronousSocketChannel;
 import java.nio.channels.CompletionHandler;
@@ -25,6 +27,10 @@ public class TcpServer extends SocketServer<AsynchronousServerSocketChannel, Soc
     //region --字段--
     private AsynchronousServerSocketChannel server;
     private final InetSocketAddress listenerAddress;
+    private final AsynchronousChannelGroup channelGroup;
+    private final SocketDispatcher dispatcher;
+    private ByteBufferPool bufferPool;
+    private TcpFrameCodec frameCodec;
     private int listenBacklog;
     private boolean isRunning;
 
@@ -42,6 +48,62 @@ public class TcpServer extends SocketServer<AsynchronousServerSocketChannel, Soc
         return this.server;
     }
 
+    /**
+     * 获取当前服务端及其客户端使用的异步通道组, 如果使用系统默认的通道组则为 <code>null</code>
+     */
+    public AsynchronousChannelGroup getChannelGroup() {
+        return this.channelGroup;
+    }
+
+    /**
+     * 获取当前服务端的客户端共享的 {@link SocketDispatcher}
+     */
+    public SocketDispatcher getDispatcher() {
+        return this.dispatcher;
+    }
+
+    /**
+     * 获取当前服务端的客户端读写数据时使用的缓冲池
+     */
+    public ByteBufferPool getBufferPool() {
+        return this.bufferPool;
+    }
+
+    /**
+     * 设置当前服务端的客户端读写数据时使用的缓冲池, 只能在服务端运行之前设置
+     *
+     * @param value 一个 {@link ByteBufferPool}
+     */
+    public void setBufferPool(ByteBufferPool value) {
+        if (value == null) {
+            throw new NullPointerException("参数: value 是 null");
+        }
+
+        if (this.isRunning()) {
+            throw new IllegalStateException("无法设置缓冲池, 因为服务正在运行");
+        }
+        this.bufferPool = value;
+    }
+
+    /**
+     * 获取当前服务端的客户端使用的封包头编解码器, 为 <code>null</code> 时客户端使用默认的封包格式
+     */
+    public TcpFrameCodec getFrameCodec() {
+        return this.frameCodec;
+    }
+
+    /**
+     * 设置当前服务端的客户端使用的封包头编解码器, 只能在服务端运行之前设置
+     *
+     * @param value 一个 {@link TcpFrameCodec}, 为 <code>null</code> 时客户端使用默认的封包格式
+     */
+    public void setFrameCodec(TcpFrameCodec value) {
+        if (this.isRunning()) {
+            throw new IllegalStateException("无法设置封包头编解码器, 因为服务正在运行");
+        }
+        this.frameCodec = value;
+    }
+
     /**
      * 获取当前网络服务端监听的 IP 地址
      */
@@ -98,14 +160,35 @@ public class TcpServer extends SocketServer<AsynchronousServerSocketChannel, Soc
      * @param port      服务端使用的端口号
      */
     public TcpServer(InetAddress localAddr, int port) {
+        this(localAddr, port, null, SocketDispatcher.getDefault());
+    }
+
+    /**
+     * 使用指定的 IP 地址和端口初始化 {@link TcpServer} 类的新实例, 所有接入的客户端共享指定的异步通道组和事件分发器
+     *
+     * @param localAddr    本地 IP 地址
+     * @param port         服务端使用的端口号
+     * @param channelGroup 服务端及其客户端绑定的异步通道组, 为 <code>null</code> 时使用系统默认的通道组
+     * @param dispatcher   所有接入的客户端共享的 {@link SocketDispatcher}
+     */
+    public TcpServer(InetAddress localAddr, int port, AsynchronousChannelGroup channelGroup, SocketDispatcher dispatcher) {
         if (localAddr == null) {
             throw new NullPointerException("参数: localAddr 为 null");
         }
 
+        if (dispatcher == null) {
+            throw new NullPointerException("参数: dispatcher 为 null");
+        }
+
         // 监听地址
         this.listenerAddress = new InetSocketAddress(localAddr, port);
         this.listenBacklog = Integer.MAX_VALUE;
 
+        // 共享资源
+        this.channelGroup = channelGroup;
+        this.dispatcher = dispatcher;
+        this.bufferPool = ByteBufferPool.getDefault();
+
         // 创建处理器
         this.acceptHandler = new AcceptHandler();
         this.clientEventHandler = new ClientEventHandler();
@@ -125,7 +208,7 @@ public class TcpServer extends SocketServer<AsynchronousServerSocketChannel, Soc
             try {
                 // 创建监听套接字
                 if (this.server == null) {
-                    this.server = AsynchronousServerSocketChannel.open();
+                    this.server = AsynchronousServerSocketChannel.open(this.channelGroup);
                 }
 
                 // 绑定监听地址
@@ -193,7 +276,7 @@ public class TcpServer extends SocketServer<AsynchronousServerSocketChannel, Soc
             if (TcpServer.this.isRunning() && result != null) {
                 try {
                     // 托管 socket 客户端
-                    TcpClient client = new TcpClient(result);
+                    TcpClient client = new TcpClient(result, TcpServer.this.channelGroup, TcpServer.this.dispatcher, TcpServer.this.bufferPool, TcpServer.this.frameCodec);
                     client.addListener(TcpServer.this.clientEventHandler);
 
                     // 加入托管队列
@@ -282,7 +365,7 @@ public class TcpServer extends SocketServer<AsynchronousServerSocketChannel, Soc
         public void onSendData(Object sender, SocketDataEventArgs args) {
             if (sender instanceof SocketClient<?>) {
                 SocketClient<?> client = (SocketClient<?>) sender;
-                TcpServer.this.invokeSendDataEvent(client, args.getData());
+                TcpServer.this.invokeSendDataEvent(client, args);
             }
         }
 
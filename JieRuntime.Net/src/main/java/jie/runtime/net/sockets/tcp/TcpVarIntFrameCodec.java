@@ -0,0 +1,81 @@
+package jie.runtime.net.sockets.tcp;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 提供变长封包头的编解码服务
+ * <p>封包头以 LEB128 变长整数保存数据的长度 (不包含封包头自身), 每个字节的低 7 位保存数据, 最高位表示后面是否还有字节.
+ * 小于 128 字节的数据只需要 1 字节的封包头, 最多使用 5 字节表示任意非负的 32 位长度</p>
+ *
+ * @author jiegg
+ */
+public class TcpVarIntFrameCodec implements TcpFrameCodec {
+
+    //region --常量--
+    /**
+     * 获取变长封包头最多占用的字节数
+     */
+    public static final int MAX_HEADER_LENGTH = 5;
+    //endregion
+
+    //region --公开方法--
+    @Override
+    public int getHeaderLength(int payloadLength) {
+        if ((payloadLength & (~0 << 7)) == 0) {
+            return 1;
+        }
+        if ((payloadLength & (~0 << 14)) == 0) {
+            return 2;
+        }
+        if ((payloadLength & (~0 << 21)) == 0) {
+            return 3;
+        }
+        if ((payloadLength & (~0 << 28)) == 0) {
+            return 4;
+        }
+        return MAX_HEADER_LENGTH;
+    }
+
+    @Override
+    public void writeHeader(ByteBuffer dest, int payloadLength) {
+        if (payloadLength < 0) {
+            throw new IllegalArgumentException("参数: payloadLength, 值不能为负数");
+        }
+
+        int value = payloadLength;
+        while ((value & ~0x7f) != 0) {
+            dest.put((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        dest.put((byte) value);
+    }
+
+    @Override
+    public int readHeaderLength(byte[] src, int offset, int length) {
+        int count = Math.min(length, MAX_HEADER_LENGTH);
+        for (int i = 0; i < count; i++) {
+            if ((src[offset + i] & 0x80) == 0) {
+                return i + 1;
+            }
+        }
+
+        if (length >= MAX_HEADER_LENGTH) {
+            throw new IllegalStateException("封包头无效: 变长整数超过了 " + MAX_HEADER_LENGTH + " 字节");
+        }
+        return -1;
+    }
+
+    @Override
+    public int readPayloadLength(byte[] src, int offset, int headerLength) {
+        long value = 0;
+        for (int i = 0; i < headerLength; i++) {
+            value |= (long) (src[offset + i] & 0x7f) << (i * 7);
+        }
+
+        if (value > Integer.MAX_VALUE) {
+            throw new IllegalStateException("封包长度无效: " + value);
+        }
+        return (int) value;
+    }
+    //endregion
+}
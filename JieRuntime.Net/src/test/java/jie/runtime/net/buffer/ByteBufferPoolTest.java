@@ -0,0 +1,70 @@
+package jie.runtime.net.buffer;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * {@link ByteBufferPool} 的单元测试
+ *
+ * @author jiegg
+ */
+public class ByteBufferPoolTest {
+
+    @Test
+    public void releasedBufferIsReused() {
+        ByteBufferPool pool = new ByteBufferPool(false, 4096, 4, 4);
+        ByteBuffer buffer = pool.acquire(300);
+        assertEquals(300, buffer.limit());
+        assertEquals(512, buffer.capacity());
+
+        pool.release(buffer);
+        assertSame(buffer, pool.acquire(400));
+        assertEquals(1, pool.getStatistics().getReleaseCount());
+    }
+
+    @Test
+    public void foreignBuffersAndViewsAreIgnored() {
+        ByteBufferPool pool = new ByteBufferPool(false, 4096, 4, 4);
+        ByteBuffer buffer = pool.acquire(1024);
+
+        // 容量与大小等级一致的外部缓冲区以及借出缓冲区的视图都不属于缓冲池
+        pool.release(ByteBuffer.allocate(1024));
+        pool.release(buffer.duplicate());
+        pool.release(buffer.slice());
+        assertEquals(0, pool.getStatistics().getReleaseCount());
+
+        pool.release(buffer);
+        assertEquals(1, pool.getStatistics().getReleaseCount());
+    }
+
+    @Test
+    public void doubleReleaseIsIgnored() {
+        ByteBufferPool pool = new ByteBufferPool(false, 4096, 4, 4);
+        ByteBuffer buffer = pool.acquire(256);
+
+        pool.release(buffer);
+        pool.release(buffer);
+        assertEquals(1, pool.getStatistics().getReleaseCount());
+
+        // 重复归还不会让同一个缓冲区被借出两次
+        ByteBuffer first = pool.acquire(256);
+        ByteBuffer second = pool.acquire(256);
+        assertSame(buffer, first);
+        assertNotSame(first, second);
+    }
+
+    @Test
+    public void unpooledBufferIsNotRetained() {
+        ByteBufferPool pool = new ByteBufferPool(false, 4096, 4, 4);
+        ByteBuffer buffer = pool.acquire(8192);
+        assertEquals(1, pool.getStatistics().getUnpooledCount());
+
+        pool.release(buffer);
+        assertEquals(0, pool.getStatistics().getReleaseCount());
+    }
+}
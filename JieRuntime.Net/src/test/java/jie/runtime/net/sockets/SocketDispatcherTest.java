@@ -0,0 +1,189 @@
+package jie.runtime.net.sockets;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link SocketDispatcher} 的单元测试
+ *
+ * @author jiegg
+ */
+public class SocketDispatcherTest {
+
+    @Test
+    public void orderedExecutorsKeepOrderWhenQueueIsFull() throws InterruptedException {
+        // 只有一个线程和一个队列位置, 大部分有序执行器都会被拒绝并延后重新排队
+        SocketDispatcher dispatcher = new SocketDispatcher(1, 1);
+        int executorCount = 20;
+        int taskCount = 100;
+        CountDownLatch done = new CountDownLatch(executorCount * taskCount);
+        AtomicInteger rejected = new AtomicInteger();
+        List<List<Integer>> results = new ArrayList<>();
+
+        for (int e = 0; e < executorCount; e++) {
+            List<Integer> result = Collections.synchronizedList(new ArrayList<>());
+            results.add(result);
+            Executor executor = dispatcher.createOrderedExecutor(new Handler() {
+                @Override
+                public void onRejected(RejectedExecutionException ex, boolean shutdown) {
+                    rejected.incrementAndGet();
+                }
+            });
+            for (int i = 0; i < taskCount; i++) {
+                int value = i;
+                executor.execute(() -> {
+                    result.add(value);
+                    done.countDown();
+                });
+            }
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertTrue(rejected.get() > 0);
+        for (List<Integer> result : results) {
+            for (int i = 0; i < taskCount; i++) {
+                assertEquals(i, (int) result.get(i));
+            }
+        }
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void rejectionIsReportedOnceUntilExecutorRunsAgain() throws InterruptedException {
+        SocketDispatcher dispatcher = new SocketDispatcher(1, 1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        dispatcher.execute(() -> {
+            blocked.countDown();
+            await(release);
+        });
+        blocked.await();
+        dispatcher.execute(() -> {
+        });
+
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(10);
+        Executor executor = dispatcher.createOrderedExecutor(new Handler() {
+            @Override
+            public void onRejected(RejectedExecutionException e, boolean shutdown) {
+                rejected.incrementAndGet();
+            }
+        });
+        for (int i = 0; i < 10; i++) {
+            executor.execute(done::countDown);
+        }
+        assertEquals(1, rejected.get());
+
+        // 队列出现空位后延后的任务自动执行
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void taskExceptionGoesToHandler() throws InterruptedException {
+        SocketDispatcher dispatcher = new SocketDispatcher(1, 16);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        Executor executor = dispatcher.createOrderedExecutor(new Handler() {
+            @Override
+            public void onTaskException(Throwable e) {
+                error.set(e);
+            }
+        });
+
+        RuntimeException thrown = new RuntimeException("test");
+        executor.execute(() -> {
+            throw thrown;
+        });
+        executor.execute(done::countDown);
+
+        // 异常不影响后续的任务
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertSame(thrown, error.get());
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void taskExceptionWithoutHandlerGoesToUncaughtHandler() throws InterruptedException {
+        SocketDispatcher dispatcher = new SocketDispatcher(1, 16);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        Executor executor = dispatcher.createOrderedExecutor();
+
+        RuntimeException thrown = new RuntimeException("test");
+        executor.execute(() -> Thread.currentThread().setUncaughtExceptionHandler((t, e) -> error.set(e)));
+        executor.execute(() -> {
+            throw thrown;
+        });
+        executor.execute(done::countDown);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertSame(thrown, error.get());
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void shutdownRejectionIsReported() {
+        SocketDispatcher dispatcher = new SocketDispatcher(1, 1);
+        dispatcher.shutdown();
+
+        AtomicReference<Boolean> shutdown = new AtomicReference<>();
+        List<Runnable> discarded = new ArrayList<>();
+        Executor executor = dispatcher.createOrderedExecutor(new Handler() {
+            @Override
+            public void onRejected(RejectedExecutionException e, boolean isShutdown) {
+                shutdown.set(isShutdown);
+            }
+
+            @Override
+            public void onDiscarded(Runnable task) {
+                discarded.add(task);
+            }
+        });
+        Runnable task = () -> {
+        };
+        executor.execute(task);
+        assertEquals(Boolean.TRUE, shutdown.get());
+
+        // 已关闭的分发器将未执行的任务交还给所属的连接
+        assertEquals(1, discarded.size());
+        assertSame(task, discarded.get(0));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class Handler implements IOrderedExecutorHandler {
+
+        @Override
+        public void onTaskException(Throwable e) {
+        }
+
+        @Override
+        public void onRejected(RejectedExecutionException e, boolean shutdown) {
+        }
+
+        @Override
+        public void onDiscarded(Runnable task) {
+        }
+    }
+}
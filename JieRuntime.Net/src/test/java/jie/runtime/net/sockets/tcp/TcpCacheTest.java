@@ -0,0 +1,196 @@
+package jie.runtime.net.sockets.tcp;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link TcpCache} 的单元测试
+ *
+ * @author jiegg
+ */
+public class TcpCacheTest {
+
+    private static final TcpFrameCodec CODEC = new TcpFixedLengthFrameCodec(4);
+
+    @Test
+    public void pullAllReturnsEveryCompleteFrame() {
+        TcpCache cache = new TcpCache(CODEC);
+        byte[] first = payload(10, 1);
+        byte[] second = payload(20, 2);
+        byte[] third = payload(30, 3);
+        byte[] data = concat(frame(first), frame(second), frame(third));
+
+        // 第三个封包只推入一部分
+        cache.push(Arrays.copyOf(data, data.length - 5));
+        TcpCache.Lease lease = cache.pullAll();
+        List<ByteBuffer> frames = lease.getFrames();
+        assertEquals(2, frames.size());
+        assertArrayEquals(first, bytes(frames.get(0)));
+        assertArrayEquals(second, bytes(frames.get(1)));
+        assertEquals(4 + 30 - 5, cache.size());
+        lease.release();
+
+        cache.push(Arrays.copyOfRange(data, data.length - 5, data.length));
+        lease = cache.pullAll();
+        assertEquals(1, lease.getFrames().size());
+        assertArrayEquals(third, bytes(lease.getFrames().get(0)));
+        assertEquals(0, cache.size());
+        assertNull(cache.pullAll());
+    }
+
+    @Test
+    public void framesAreReadOnlyViews() {
+        TcpCache cache = new TcpCache(CODEC);
+        cache.push(frame(payload(8, 1)));
+        ByteBuffer view = cache.pullAll().getFrames().get(0);
+        assertTrue(view.isReadOnly());
+        assertEquals(8, view.remaining());
+    }
+
+    @Test
+    public void outstandingLeaseKeepsViewsIntact() {
+        TcpCache cache = new TcpCache(CODEC);
+        byte[] first = payload(3000, 1);
+        cache.push(concat(frame(first), partialFrame(1000, 7, 500)));
+        TcpCache.Lease lease = cache.pullAll();
+        ByteBuffer view = lease.getFrames().get(0);
+
+        // 尾部空间不足, 租约尚未释放时未读取的数据必须移动到新的缓冲区
+        cache.push(payload(1000, 7));
+        assertArrayEquals(first, bytes(view));
+        lease.release();
+    }
+
+    @Test
+    public void releasedLeaseLetsBufferBeCompactedInPlace() {
+        TcpCache cache = new TcpCache(CODEC);
+        byte[] first = payload(3000, 1);
+        cache.push(concat(frame(first), partialFrame(1000, 7, 500)));
+        TcpCache.Lease lease = cache.pullAll();
+        ByteBuffer view = lease.getFrames().get(0);
+        lease.release();
+
+        // 租约释放后缓冲区被复用, 未读取的数据移动到头部并覆盖旧视图引用的区域
+        cache.push(payload(600, 7));
+        assertFalse(Arrays.equals(first, bytes(view)));
+
+        TcpCache.Lease next = cache.pullAll();
+        assertArrayEquals(payload(1000, 7), bytes(next.getFrames().get(0)));
+        next.release();
+    }
+
+    @Test
+    public void retainedLeaseKeepsBufferAfterRelease() {
+        TcpCache cache = new TcpCache(CODEC);
+        byte[] first = payload(3000, 1);
+        cache.push(concat(frame(first), partialFrame(1000, 7, 500)));
+        TcpCache.Lease lease = cache.pullAll();
+        ByteBuffer view = lease.getFrames().get(0);
+        lease.retain();
+        lease.release();
+
+        cache.push(payload(600, 7));
+        assertArrayEquals(first, bytes(view));
+    }
+
+    @Test
+    public void releaseIsIdempotent() {
+        TcpCache cache = new TcpCache(CODEC);
+        cache.push(frame(payload(10, 1)));
+        TcpCache.Lease first = cache.pullAll();
+        cache.push(frame(payload(10, 2)));
+        TcpCache.Lease second = cache.pullAll();
+        ByteBuffer view = second.getFrames().get(0);
+
+        // 重复释放第一个租约不能抵消第二个租约
+        first.release();
+        first.release();
+        cache.push(payload(4090, 9));
+        assertArrayEquals(payload(10, 2), bytes(view));
+        second.release();
+    }
+
+    @Test
+    public void frameLargerThanBufferIsReassembled() {
+        TcpCache cache = new TcpCache(CODEC);
+        byte[] large = payload(100000, 5);
+        byte[] data = frame(large);
+        for (int offset = 0; offset < data.length; offset += 1500) {
+            cache.push(Arrays.copyOfRange(data, offset, Math.min(offset + 1500, data.length)));
+            if (offset + 1500 < data.length) {
+                assertNull(cache.pullAll());
+            }
+        }
+        assertArrayEquals(large, bytes(cache.pullAll().getFrames().get(0)));
+    }
+
+    @Test
+    public void frameOverMaxLengthIsInvalid() {
+        TcpCache cache = new TcpCache(CODEC);
+        cache.setMaxPacketLength(100);
+        cache.push(frame(payload(96, 1)));
+        cache.pullAll().release();
+
+        cache.push(frame(payload(97, 1)));
+        try {
+            cache.pullAll();
+            fail();
+        } catch (IllegalStateException ignored) {
+        }
+    }
+
+    @Test
+    public void pullCopiesSingleFrame() {
+        TcpCache cache = new TcpCache(new TcpVarIntFrameCodec());
+        ByteBuffer dest = ByteBuffer.allocate(3);
+        new TcpVarIntFrameCodec().writeHeader(dest, 2);
+        cache.push(concat(Arrays.copyOf(dest.array(), dest.position()), new byte[]{4, 2}));
+        assertArrayEquals(new byte[]{4, 2}, cache.pull());
+        assertNull(cache.pull());
+    }
+
+    private static byte[] frame(byte[] payload) {
+        ByteBuffer dest = ByteBuffer.allocate(4 + payload.length);
+        CODEC.writeHeader(dest, payload.length);
+        dest.put(payload);
+        return dest.array();
+    }
+
+    private static byte[] partialFrame(int payloadLength, int value, int pushed) {
+        return Arrays.copyOf(frame(payload(payloadLength, value)), 4 + pushed);
+    }
+
+    private static byte[] payload(int length, int value) {
+        byte[] data = new byte[length];
+        Arrays.fill(data, (byte) value);
+        return data;
+    }
+
+    private static byte[] concat(byte[]... arrays) {
+        int len = 0;
+        for (byte[] array : arrays) {
+            len += array.length;
+        }
+        ByteBuffer dest = ByteBuffer.allocate(len);
+        for (byte[] array : arrays) {
+            dest.put(array);
+        }
+        return dest.array();
+    }
+
+    private static byte[] bytes(ByteBuffer view) {
+        byte[] dest = new byte[view.remaining()];
+        view.duplicate().get(dest);
+        return dest;
+    }
+}
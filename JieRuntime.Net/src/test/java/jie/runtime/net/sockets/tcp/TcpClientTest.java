@@ -0,0 +1,133 @@
+package jie.runtime.net.sockets.tcp;
+
+import jie.runtime.net.sockets.SocketClient;
+import jie.runtime.net.sockets.SocketDispatcher;
+import jie.runtime.net.sockets.event.ISocketClientEvent;
+import jie.runtime.net.sockets.event.ISocketServerEvent;
+import jie.runtime.net.sockets.event.SocketClientInfoEventArgs;
+import jie.runtime.net.sockets.event.SocketDataEventArgs;
+import jie.runtime.net.sockets.event.SocketEventArgs;
+import jie.runtime.net.sockets.event.SocketExceptionEventArgs;
+import jie.runtime.net.sockets.event.SocketServerDataEventArgs;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link TcpClient} 的单元测试, 通过本机回环地址连接
+ *
+ * @author jiegg
+ */
+public class TcpClientTest {
+
+    private TcpServer server;
+    private final AtomicReference<SocketClient<?>> accepted = new AtomicReference<>();
+    private final CountDownLatch acceptedLatch = new CountDownLatch(1);
+
+    @Before
+    public void setUp() {
+        this.server = new TcpServer(InetAddress.getLoopbackAddress(), 0);
+        this.server.addListener(new ISocketServerEvent() {
+            @Override
+            public void onStarted(Object sender, SocketEventArgs args) {
+            }
+
+            @Override
+            public void onStopped(Object sender, SocketEventArgs args) {
+            }
+
+            @Override
+            public void onReceiveData(Object sender, SocketServerDataEventArgs args) {
+            }
+
+            @Override
+            public void onSendData(Object sender, SocketServerDataEventArgs args) {
+            }
+
+            @Override
+            public void onException(Object sender, SocketExceptionEventArgs args) {
+            }
+
+            @Override
+            public void onClientConnected(Object sender, SocketClientInfoEventArgs args) {
+                accepted.set(args.getClient());
+                acceptedLatch.countDown();
+            }
+
+            @Override
+            public void onClientDisconnected(Object sender, SocketClientInfoEventArgs args) {
+            }
+        });
+        this.server.start();
+    }
+
+    @After
+    public void tearDown() {
+        this.server.stop();
+    }
+
+    @Test
+    public void disconnectsWhenDispatcherIsShutdown() throws IOException, InterruptedException {
+        SocketDispatcher dispatcher = new SocketDispatcher(1, 16);
+        TcpClient client = new TcpClient(null, dispatcher);
+        CountDownLatch connected = new CountDownLatch(1);
+        CountDownLatch disconnected = new CountDownLatch(1);
+        client.addListener(new ClientListener() {
+            @Override
+            public void onConnected(Object sender, SocketEventArgs args) {
+                connected.countDown();
+            }
+
+            @Override
+            public void onDisconnected(Object sender, SocketEventArgs args) {
+                disconnected.countDown();
+            }
+        });
+
+        InetSocketAddress address = (InetSocketAddress) this.server.getServer().getLocalAddress();
+        client.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), address.getPort()));
+        assertTrue(connected.await(5, TimeUnit.SECONDS));
+        assertTrue(this.acceptedLatch.await(5, TimeUnit.SECONDS));
+
+        // 分发器关闭后收到的封包无法分发, 连接不能一直暂停接收
+        dispatcher.shutdown();
+        this.accepted.get().send(new byte[]{1, 2, 3});
+
+        assertTrue(disconnected.await(5, TimeUnit.SECONDS));
+        assertFalse(client.isConnected());
+        assertEquals(0, client.getPendingReceiveCount());
+    }
+
+    private static class ClientListener implements ISocketClientEvent {
+        @Override
+        public void onConnected(Object sender, SocketEventArgs args) {
+        }
+
+        @Override
+        public void onDisconnected(Object sender, SocketEventArgs args) {
+        }
+
+        @Override
+        public void onReceiveData(Object sender, SocketDataEventArgs args) {
+        }
+
+        @Override
+        public void onSendData(Object sender, SocketDataEventArgs args) {
+        }
+
+        @Override
+        public void onException(Object sender, SocketExceptionEventArgs args) {
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package jie.runtime.net.sockets.tcp;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link TcpFixedLengthFrameCodec} 和 {@link TcpVarIntFrameCodec} 的单元测试
+ *
+ * @author jiegg
+ */
+public class TcpFrameCodecTest {
+
+    private static final int[] LENGTHS = {0, 1, 127, 128, 255, 256, 16383, 16384, 65531, 2097151, 2097152, 268435455, 268435456, Integer.MAX_VALUE - 4};
+
+    @Test
+    public void fixedLengthRoundTrip() {
+        TcpFixedLengthFrameCodec codec = new TcpFixedLengthFrameCodec(4);
+        for (int len : LENGTHS) {
+            assertRoundTrip(codec, len, 4);
+        }
+    }
+
+    @Test
+    public void fixedLengthIncludesHeaderInLength() {
+        // 封包头描述的长度包含封包头本身, 以大端序保存
+        ByteBuffer dest = ByteBuffer.allocate(2);
+        new TcpFixedLengthFrameCodec(2).writeHeader(dest, 10);
+        assertEquals(0, dest.get(0));
+        assertEquals(12, dest.get(1));
+    }
+
+    @Test
+    public void fixedLengthRejectsLengthOutOfRange() {
+        TcpFixedLengthFrameCodec codec = new TcpFixedLengthFrameCodec(2);
+        codec.writeHeader(ByteBuffer.allocate(2), 65533);
+        try {
+            codec.writeHeader(ByteBuffer.allocate(2), 65534);
+            fail();
+        } catch (IllegalArgumentException ignored) {
+        }
+
+        // 描述的长度小于封包头长度的封包头无效
+        try {
+            codec.readPayloadLength(new byte[]{0, 1}, 0, 2);
+            fail();
+        } catch (IllegalStateException ignored) {
+        }
+    }
+
+    @Test
+    public void fixedLengthNeedsWholeHeader() {
+        TcpFixedLengthFrameCodec codec = new TcpFixedLengthFrameCodec(4);
+        assertEquals(-1, codec.readHeaderLength(new byte[3], 0, 3));
+        assertEquals(4, codec.readHeaderLength(new byte[4], 0, 4));
+    }
+
+    @Test
+    public void varIntRoundTrip() {
+        TcpVarIntFrameCodec codec = new TcpVarIntFrameCodec();
+        int[] expectedHeaderLengths = {1, 1, 1, 2, 2, 2, 2, 3, 3, 3, 4, 4, 5, 5};
+        for (int i = 0; i < LENGTHS.length; i++) {
+            assertRoundTrip(codec, LENGTHS[i], expectedHeaderLengths[i]);
+        }
+    }
+
+    @Test
+    public void varIntNeedsWholeHeader() {
+        // 最高位为 1 的字节表示后面还有字节
+        TcpVarIntFrameCodec codec = new TcpVarIntFrameCodec();
+        byte[] src = {(byte) 0x80, (byte) 0x80, 0x01};
+        assertEquals(-1, codec.readHeaderLength(src, 0, 2));
+        assertEquals(3, codec.readHeaderLength(src, 0, 3));
+        assertEquals(16384, codec.readPayloadLength(src, 0, 3));
+    }
+
+    @Test
+    public void varIntRejectsInvalidHeader() {
+        TcpVarIntFrameCodec codec = new TcpVarIntFrameCodec();
+        byte[] tooLong = {(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80};
+        try {
+            codec.readHeaderLength(tooLong, 0, tooLong.length);
+            fail();
+        } catch (IllegalStateException ignored) {
+        }
+
+        byte[] overflow = {(byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x0f};
+        try {
+            codec.readPayloadLength(overflow, 0, overflow.length);
+            fail();
+        } catch (IllegalStateException ignored) {
+        }
+
+        try {
+            codec.writeHeader(ByteBuffer.allocate(5), -1);
+            fail();
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+
+    private static void assertRoundTrip(TcpFrameCodec codec, int payloadLength, int expectedHeaderLength) {
+        assertEquals(expectedHeaderLength, codec.getHeaderLength(payloadLength));
+
+        // 封包头写在缓冲区的中间, 读取时使用偏移
+        ByteBuffer dest = ByteBuffer.allocate(expectedHeaderLength + 3);
+        dest.put((byte) 0x55);
+        codec.writeHeader(dest, payloadLength);
+        assertEquals(1 + expectedHeaderLength, dest.position());
+
+        byte[] src = dest.array();
+        assertEquals(expectedHeaderLength, codec.readHeaderLength(src, 1, src.length - 1));
+        assertEquals(payloadLength, codec.readPayloadLength(src, 1, expectedHeaderLength));
+    }
+}
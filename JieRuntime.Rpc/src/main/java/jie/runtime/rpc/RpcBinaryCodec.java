@@ -0,0 +1,680 @@
+package jie.runtime.rpc;
+
+import jie.runtime.io.BufferReader;
+import jie.runtime.io.BufferWriter;
+import jie.runtime.rpc.util.BufferUtils;
+import jie.runtime.rpc.util.JsonUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 表示以紧凑的二进制格式编码参数和返回值的编码器
+ * <p>编码由声明的类型决定, 流中不保存类型信息: 基础类型按大端序写入固定长度, 引用类型先写入 1 字节的空值标记,
+ * 字符串和字节数组以 32 位长度开头, 数组和集合写入元素个数后依次写入元素, 枚举写入名称,
+ * 普通对象按类层次从父类到子类, 同一个类中按字段名称的顺序写入所有非静态非瞬态字段</p>
+ * <p>声明为 {@link Object} 的值额外写入 1 字节的种类标记, 接口, 抽象类, <code>java.</code> 包中的其他类型,
+ * 以及没有无参构造函数的类以 Json 令牌写入. 对象图中不能存在循环引用</p>
+ * <p>字段按位置编码, 流中不包含字段名称和版本信息, 也不识别 fastjson 的注解和自定义序列化器,
+ * 因此连接双方必须使用结构完全相同的类, 否则读取的数据将错位. 该编码器需要显式启用</p>
+ *
+ * @author jiegg
+ */
+public class RpcBinaryCodec extends RpcCodec {
+
+    //region --常量--
+    /**
+     * 获取编码器的名称
+     */
+    public static final String NAME = "binary";
+
+    private static final byte NULL = 0;
+    private static final byte PRESENT = 1;
+
+    private static final byte KIND_BOOLEAN = 1;
+    private static final byte KIND_BYTE = 2;
+    private static final byte KIND_CHAR = 3;
+    private static final byte KIND_SHORT = 4;
+    private static final byte KIND_INT = 5;
+    private static final byte KIND_LONG = 6;
+    private static final byte KIND_FLOAT = 7;
+    private static final byte KIND_DOUBLE = 8;
+    private static final byte KIND_STRING = 9;
+    private static final byte KIND_BYTES = 10;
+    private static final byte KIND_JSON = 11;
+
+    private static final int TYPE_OBJECT = 0;
+    private static final int TYPE_PRIMITIVE = 1;
+    private static final int TYPE_STRING = 2;
+    private static final int TYPE_BYTES = 3;
+    private static final int TYPE_PRIMITIVE_ARRAY = 4;
+    private static final int TYPE_ARRAY = 5;
+    private static final int TYPE_ENUM = 6;
+    private static final int TYPE_COLLECTION = 7;
+    private static final int TYPE_MAP = 8;
+    private static final int TYPE_FIELDS = 9;
+    private static final int TYPE_JSON = 10;
+
+    private static final ClassValue<ClassSchema> SCHEMAS = new ClassValue<ClassSchema>() {
+        @Override
+        protected ClassSchema computeValue(Class<?> type) {
+            return createSchema(type);
+        }
+    };
+    //endregion
+
+    //region --属性--
+
+    /**
+     * 获取编码器的名称, 连接双方以此名称协商使用的编码器
+     */
+    @Override
+    public String getName() {
+        return NAME;
+    }
+    //endregion
+
+    //region --公开方法--
+
+    /**
+     * 将指定的值按声明的类型写入流
+     *
+     * @param writer 要写入的流
+     * @param value  要写入的值, 可以为 <code>null</code>
+     * @param type   值声明的类型, 读取时将使用相同的类型
+     * @throws IOException I/O错误
+     */
+    @Override
+    public void write(BufferWriter writer, Object value, Type type) throws IOException {
+        Class<?> raw = getRawType(type);
+        if (raw.isPrimitive()) {
+            if (value == null) {
+                throw new IllegalArgumentException("参数: value, 基础类型 (" + raw.getName() + ") 的值不能是 null");
+            }
+            this.writePrimitive(writer, value, raw);
+            return;
+        }
+
+        if (value == null) {
+            writer.write(NULL);
+            return;
+        }
+        writer.write(PRESENT);
+        this.writeValue(writer, value, type, SCHEMAS.get(raw));
+    }
+
+    /**
+     * 从流中按声明的类型读取一个值
+     *
+     * @param reader 要读取的流
+     * @param type   值声明的类型, 与写入时使用的类型一致
+     * @return 读取的值, 可能为 <code>null</code>
+     * @throws IOException I/O错误
+     */
+    @Override
+    public Object read(BufferReader reader, Type type) throws IOException {
+        Class<?> raw = getRawType(type);
+        if (raw.isPrimitive()) {
+            return this.readPrimitive(reader, raw);
+        }
+
+        if (reader.readByte() == NULL) {
+            return null;
+        }
+        return this.readValue(reader, type, SCHEMAS.get(raw));
+    }
+    //endregion
+
+    //region --私有方法--
+    private void writeValue(BufferWriter writer, Object value, Type type, ClassSchema schema) throws IOException {
+        switch (schema.kind) {
+            case TYPE_OBJECT:
+                this.writeDynamic(writer, value);
+                break;
+            case TYPE_PRIMITIVE:
+                this.writePrimitive(writer, value, schema.primitive);
+                break;
+            case TYPE_STRING:
+                BufferUtils.writeString(writer, (String) value);
+                break;
+            case TYPE_BYTES:
+                BufferUtils.writeToken(writer, (byte[]) value);
+                break;
+            case TYPE_PRIMITIVE_ARRAY:
+                this.writePrimitiveArray(writer, value, schema.primitive);
+                break;
+            case TYPE_ARRAY: {
+                Type componentType = type instanceof GenericArrayType ? ((GenericArrayType) type).getGenericComponentType() : schema.type.getComponentType();
+                Object[] array = (Object[]) value;
+                writer.write(array.length, true);
+                for (Object element : array) {
+                    this.write(writer, element, componentType);
+                }
+                break;
+            }
+            case TYPE_ENUM:
+                BufferUtils.writeString(writer, ((Enum<?>) value).name());
+                break;
+            case TYPE_COLLECTION: {
+                Type elementType = getTypeArgument(type, 0);
+                Collection<?> collection = (Collection<?>) value;
+                writer.write(collection.size(), true);
+                for (Object element : collection) {
+                    this.write(writer, element, elementType);
+                }
+                break;
+            }
+            case TYPE_MAP: {
+                Type keyType = getTypeArgument(type, 0);
+                Type valueType = getTypeArgument(type, 1);
+                Map<?, ?> map = (Map<?, ?>) value;
+                writer.write(map.size(), true);
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    this.write(writer, entry.getKey(), keyType);
+                    this.write(writer, entry.getValue(), valueType);
+                }
+                break;
+            }
+            case TYPE_FIELDS:
+                try {
+                    for (FieldSchema field : schema.fields) {
+                        this.write(writer, field.field.get(value), field.type);
+                    }
+                } catch (IllegalAccessException e) {
+                    throw new IOException("无法读取类型 (" + schema.type.getName() + ") 的字段", e);
+                }
+                break;
+            default:
+                BufferUtils.writeToken(writer, JsonUtils.serializeToUtf8Bytes(value));
+                break;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object readValue(BufferReader reader, Type type, ClassSchema schema) throws IOException {
+        switch (schema.kind) {
+            case TYPE_OBJECT:
+                return this.readDynamic(reader);
+            case TYPE_PRIMITIVE:
+                return this.readPrimitive(reader, schema.primitive);
+            case TYPE_STRING:
+                return BufferUtils.readString(reader);
+            case TYPE_BYTES:
+                return BufferUtils.readToken(reader);
+            case TYPE_PRIMITIVE_ARRAY:
+                return this.readPrimitiveArray(reader, schema.primitive);
+            case TYPE_ARRAY: {
+                Type componentType = type instanceof GenericArrayType ? ((GenericArrayType) type).getGenericComponentType() : schema.type.getComponentType();
+                int length = readLength(reader);
+                Object[] array = (Object[]) Array.newInstance(schema.type.getComponentType(), length);
+                for (int i = 0; i < length; i++) {
+                    array[i] = this.read(reader, componentType);
+                }
+                return array;
+            }
+            case TYPE_ENUM: {
+                String name = BufferUtils.readString(reader);
+                Object constant = schema.constants.get(name);
+                if (constant == null) {
+                    throw new IOException("类型 (" + schema.type.getName() + ") 中不存在枚举值: " + name);
+                }
+                return constant;
+            }
+            case TYPE_COLLECTION: {
+                Type elementType = getTypeArgument(type, 0);
+                int size = readLength(reader);
+                Collection<Object> collection = (Collection<Object>) createCollection(schema.type, size);
+                for (int i = 0; i < size; i++) {
+                    collection.add(this.read(reader, elementType));
+                }
+                return collection;
+            }
+            case TYPE_MAP: {
+                Type keyType = getTypeArgument(type, 0);
+                Type valueType = getTypeArgument(type, 1);
+                int size = readLength(reader);
+                Map<Object, Object> map = (Map<Object, Object>) createMap(schema.type, size);
+                for (int i = 0; i < size; i++) {
+                    Object key = this.read(reader, keyType);
+                    map.put(key, this.read(reader, valueType));
+                }
+                return map;
+            }
+            case TYPE_FIELDS:
+                try {
+                    Object value = schema.constructor.newInstance();
+                    for (FieldSchema field : schema.fields) {
+                        field.field.set(value, this.read(reader, field.type));
+                    }
+                    return value;
+                } catch (ReflectiveOperationException e) {
+                    throw new IOException("无法创建类型 (" + schema.type.getName() + ") 的实例", e);
+                }
+            default:
+                byte[] json = BufferUtils.readToken(reader);
+                return json == null ? null : JsonUtils.deserialize(json, 0, json.length, type);
+        }
+    }
+
+    private void writePrimitiveArray(BufferWriter writer, Object value, Class<?> type) throws IOException {
+        int length = Array.getLength(value);
+        writer.write(length, true);
+        if (type == int.class) {
+            for (int element : (int[]) value) {
+                writer.write(element, true);
+            }
+        } else if (type == long.class) {
+            for (long element : (long[]) value) {
+                writer.write(element);
+            }
+        } else if (type == double.class) {
+            for (double element : (double[]) value) {
+                writer.write(element);
+            }
+        } else if (type == float.class) {
+            for (float element : (float[]) value) {
+                writer.write(element);
+            }
+        } else if (type == short.class) {
+            for (short element : (short[]) value) {
+                writer.write(element);
+            }
+        } else if (type == char.class) {
+            for (char element : (char[]) value) {
+                writer.write(element);
+            }
+        } else {
+            for (boolean element : (boolean[]) value) {
+                writer.write(element);
+            }
+        }
+    }
+
+    private Object readPrimitiveArray(BufferReader reader, Class<?> type) {
+        int length = readLength(reader);
+        if (type == int.class) {
+            int[] array = new int[length];
+            for (int i = 0; i < length; i++) {
+                array[i] = reader.readInt32();
+            }
+            return array;
+        } else if (type == long.class) {
+            long[] array = new long[length];
+            for (int i = 0; i < length; i++) {
+                array[i] = reader.readInt64();
+            }
+            return array;
+        } else if (type == double.class) {
+            double[] array = new double[length];
+            for (int i = 0; i < length; i++) {
+                array[i] = reader.readDouble();
+            }
+            return array;
+        } else if (type == float.class) {
+            float[] array = new float[length];
+            for (int i = 0; i < length; i++) {
+                array[i] = reader.readSingle();
+            }
+            return array;
+        } else if (type == short.class) {
+            short[] array = new short[length];
+            for (int i = 0; i < length; i++) {
+                array[i] = reader.readInt16();
+            }
+            return array;
+        } else if (type == char.class) {
+            char[] array = new char[length];
+            for (int i = 0; i < length; i++) {
+                array[i] = reader.readChar();
+            }
+            return array;
+        }
+        boolean[] array = new boolean[length];
+        for (int i = 0; i < length; i++) {
+            array[i] = reader.readBoolean();
+        }
+        return array;
+    }
+
+    private void writePrimitive(BufferWriter writer, Object value, Class<?> type) throws IOException {
+        if (type == boolean.class) {
+            writer.write((boolean) (Boolean) value);
+        } else if (type == byte.class) {
+            writer.write((byte) (Byte) value);
+        } else if (type == char.class) {
+            writer.write((char) (Character) value);
+        } else if (type == short.class) {
+            writer.write((short) (Short) value);
+        } else if (type == int.class) {
+            writer.write((int) (Integer) value, true);
+        } else if (type == long.class) {
+            writer.write((long) (Long) value);
+        } else if (type == float.class) {
+            writer.write((float) (Float) value);
+        } else if (type == double.class) {
+            writer.write((double) (Double) value);
+        } else {
+            throw new IllegalArgumentException("参数: type, 不支持的基础类型 (" + type.getName() + ")");
+        }
+    }
+
+    private Object readPrimitive(BufferReader reader, Class<?> type) {
+        if (type == boolean.class) {
+            return reader.readBoolean();
+        } else if (type == byte.class) {
+            return reader.readByte();
+        } else if (type == char.class) {
+            return reader.readChar();
+        } else if (type == short.class) {
+            return reader.readInt16();
+        } else if (type == int.class) {
+            return reader.readInt32();
+        } else if (type == long.class) {
+            return reader.readInt64();
+        } else if (type == float.class) {
+            return reader.readSingle();
+        } else if (type == double.class) {
+            return reader.readDouble();
+        }
+        throw new IllegalArgumentException("参数: type, 不支持的基础类型 (" + type.getName() + ")");
+    }
+
+    private void writeDynamic(BufferWriter writer, Object value) throws IOException {
+        Class<?> type = value.getClass();
+        if (type == Boolean.class) {
+            writer.write(KIND_BOOLEAN);
+            writer.write((boolean) (Boolean) value);
+        } else if (type == Byte.class) {
+            writer.write(KIND_BYTE);
+            writer.write((byte) (Byte) value);
+        } else if (type == Character.class) {
+            writer.write(KIND_CHAR);
+            writer.write((char) (Character) value);
+        } else if (type == Short.class) {
+            writer.write(KIND_SHORT);
+            writer.write((short) (Short) value);
+        } else if (type == Integer.class) {
+            writer.write(KIND_INT);
+            writer.write((int) (Integer) value, true);
+        } else if (type == Long.class) {
+            writer.write(KIND_LONG);
+            writer.write((long) (Long) value);
+        } else if (type == Float.class) {
+            writer.write(KIND_FLOAT);
+            writer.write((float) (Float) value);
+        } else if (type == Double.class) {
+            writer.write(KIND_DOUBLE);
+            writer.write((double) (Double) value);
+        } else if (type == String.class) {
+            writer.write(KIND_STRING);
+            BufferUtils.writeString(writer, (String) value);
+        } else if (type == byte[].class) {
+            writer.write(KIND_BYTES);
+            BufferUtils.writeToken(writer, (byte[]) value);
+        } else {
+            writer.write(KIND_JSON);
+            BufferUtils.writeToken(writer, JsonUtils.serializeToUtf8Bytes(value));
+        }
+    }
+
+    private Object readDynamic(BufferReader reader) throws IOException {
+        byte kind = reader.readByte();
+        switch (kind) {
+            case KIND_BOOLEAN:
+                return reader.readBoolean();
+            case KIND_BYTE:
+                return reader.readByte();
+            case KIND_CHAR:
+                return reader.readChar();
+            case KIND_SHORT:
+                return reader.readInt16();
+            case KIND_INT:
+                return reader.readInt32();
+            case KIND_LONG:
+                return reader.readInt64();
+            case KIND_FLOAT:
+                return reader.readSingle();
+            case KIND_DOUBLE:
+                return reader.readDouble();
+            case KIND_STRING:
+                return BufferUtils.readString(reader);
+            case KIND_BYTES:
+                return BufferUtils.readToken(reader);
+            case KIND_JSON:
+                return JsonUtils.deserialize(BufferUtils.readToken(reader), Object.class);
+            default:
+                throw new IOException("无法识别的值种类: " + kind);
+        }
+    }
+
+    private static ClassSchema createSchema(Class<?> type) {
+        Class<?> primitive = getPrimitiveType(type);
+        if (type == Object.class) {
+            return new ClassSchema(type, TYPE_OBJECT);
+        } else if (primitive != null) {
+            return new ClassSchema(type, TYPE_PRIMITIVE).setPrimitive(primitive);
+        } else if (type == String.class) {
+            return new ClassSchema(type, TYPE_STRING);
+        } else if (type == byte[].class) {
+            return new ClassSchema(type, TYPE_BYTES);
+        } else if (type.isArray()) {
+            return type.getComponentType().isPrimitive()
+                    ? new ClassSchema(type, TYPE_PRIMITIVE_ARRAY).setPrimitive(type.getComponentType())
+                    : new ClassSchema(type, TYPE_ARRAY);
+        } else if (type.isEnum()) {
+            Map<String, Object> constants = new HashMap<>();
+            for (Object constant : type.getEnumConstants()) {
+                constants.put(((Enum<?>) constant).name(), constant);
+            }
+            return new ClassSchema(type, TYPE_ENUM).setConstants(constants);
+        } else if (Collection.class.isAssignableFrom(type)) {
+            return new ClassSchema(type, TYPE_COLLECTION);
+        } else if (Map.class.isAssignableFrom(type)) {
+            return new ClassSchema(type, TYPE_MAP);
+        }
+
+        // 只有可以确定结构的类按字段编码, 结构由类本身决定, 保证连接双方对同一个类的编码方式一致
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers()) || type.getName().startsWith("java.") || type.getName().startsWith("javax.")) {
+            return new ClassSchema(type, TYPE_JSON);
+        }
+
+        Constructor<?> constructor;
+        try {
+            constructor = type.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
+            return new ClassSchema(type, TYPE_JSON);
+        }
+
+        // 按类层次从父类到子类收集字段, 同一个类中按名称排序
+        List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            hierarchy.add(0, current);
+        }
+
+        List<FieldSchema> fields = new ArrayList<>();
+        for (Class<?> current : hierarchy) {
+            Field[] declaredFields = current.getDeclaredFields();
+            Arrays.sort(declaredFields, Comparator.comparing(Field::getName));
+            for (Field field : declaredFields) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                    continue;
+                }
+                field.setAccessible(true);
+                fields.add(new FieldSchema(field));
+            }
+        }
+        constructor.setAccessible(true);
+        return new ClassSchema(type, TYPE_FIELDS).setFields(constructor, fields.toArray(new FieldSchema[0]));
+    }
+
+    private static int readLength(BufferReader reader) {
+        // 每个元素至少占用 1 字节, 超过剩余长度的元素个数一定是错误的数据
+        int length = reader.readInt32();
+        if (length < 0 || length > reader.overSize()) {
+            throw new IndexOutOfBoundsException("无法继续读取数据, 元素个数超过了流的剩余长度. length: " + length);
+        }
+        return length;
+    }
+
+    private static Collection<?> createCollection(Class<?> type, int size) throws IOException {
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            if (SortedSet.class.isAssignableFrom(type)) {
+                return new TreeSet<>();
+            } else if (Set.class.isAssignableFrom(type)) {
+                return new LinkedHashSet<>(Math.max(16, (int) (size / .75f) + 1));
+            } else if (Queue.class.isAssignableFrom(type)) {
+                return new ArrayDeque<>(size);
+            }
+            return new ArrayList<>(size);
+        }
+        return (Collection<?>) newInstance(type);
+    }
+
+    private static Map<?, ?> createMap(Class<?> type, int size) throws IOException {
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            if (SortedMap.class.isAssignableFrom(type)) {
+                return new TreeMap<>();
+            } else if (ConcurrentMap.class.isAssignableFrom(type)) {
+                return new ConcurrentHashMap<>(size);
+            }
+            return new LinkedHashMap<>(Math.max(16, (int) (size / .75f) + 1));
+        }
+        return (Map<?, ?>) newInstance(type);
+    }
+
+    private static Object newInstance(Class<?> type) throws IOException {
+        try {
+            return type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IOException("无法创建类型 (" + type.getName() + ") 的实例", e);
+        }
+    }
+
+    private static Class<?> getRawType(Type type) {
+        if (type instanceof Class<?>) {
+            return (Class<?>) type;
+        } else if (type instanceof ParameterizedType) {
+            return getRawType(((ParameterizedType) type).getRawType());
+        } else if (type instanceof GenericArrayType) {
+            return Array.newInstance(getRawType(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+        } else if (type instanceof WildcardType) {
+            return getRawType(((WildcardType) type).getUpperBounds()[0]);
+        } else if (type instanceof TypeVariable<?>) {
+            return getRawType(((TypeVariable<?>) type).getBounds()[0]);
+        }
+        return Object.class;
+    }
+
+    private static Type getTypeArgument(Type type, int index) {
+        if (type instanceof ParameterizedType) {
+            Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+            if (index < arguments.length) {
+                return arguments[index];
+            }
+        }
+        return Object.class;
+    }
+
+    private static Class<?> getPrimitiveType(Class<?> type) {
+        if (type == Boolean.class) {
+            return boolean.class;
+        } else if (type == Byte.class) {
+            return byte.class;
+        } else if (type == Character.class) {
+            return char.class;
+        } else if (type == Short.class) {
+            return short.class;
+        } else if (type == Integer.class) {
+            return int.class;
+        } else if (type == Long.class) {
+            return long.class;
+        } else if (type == Float.class) {
+            return float.class;
+        } else if (type == Double.class) {
+            return double.class;
+        }
+        return null;
+    }
+    //endregion
+
+    //region --内部类--
+    private static final class ClassSchema {
+
+        //region --字段--
+        private final Class<?> type;
+        private final int kind;
+        private Class<?> primitive;
+        private Map<String, Object> constants;
+        private Constructor<?> constructor;
+        private FieldSchema[] fields;
+        //endregion
+
+        //region --构造函数--
+        ClassSchema(Class<?> type, int kind) {
+            this.type = type;
+            this.kind = kind;
+        }
+        //endregion
+
+        //region --公开方法--
+        ClassSchema setPrimitive(Class<?> primitive) {
+            this.primitive = primitive;
+            return this;
+        }
+
+        ClassSchema setConstants(Map<String, Object> constants) {
+            this.constants = constants;
+            return this;
+        }
+
+        ClassSchema setFields(Constructor<?> constructor, FieldSchema[] fields) {
+            this.constructor = constructor;
+            this.fields = fields;
+            return this;
+        }
+        //endregion
+    }
+
+    private static final class FieldSchema {
+
+        //region --字段--
+        private final Field field;
+        private final Type type;
+        //endregion
+
+        //region --构造函数--
+        FieldSchema(Field field) {
+            this.field = field;
+            this.type = field.getGenericType();
+        }
+        //endregion
+    }
+    //endregion
+}
@@ -6,10 +6,16 @@ import jie.runtime.rpc.event.RpcExceptionEventArgs;
 import jie.runtime.rpc.proxy.ProxyBase;
 
 import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.time.Duration;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
@@ -29,6 +35,11 @@ public abstract class RpcClientBase extends ProxyBase {
      */
     protected static final Map<RpcClientType, RpcTypeConverter> TYPE_CONVERTER_MAP;
     protected static final Map<RpcClientType, RpcMethodConverter> METHOD_CONVERTER_MAP;
+
+    /**
+     * 编码器字典, 以编码器名称为键
+     */
+    protected static final Map<String, RpcCodec> CODEC_MAP;
     //endregion
 
     //region --属性--
@@ -78,7 +89,7 @@ public abstract class RpcClientBase extends ProxyBase {
      * 初始化 {@link RpcClientBase} 类的新实例
      */
     public RpcClientBase() {
-        this.services = new HashMap<>();
+        this.services = new ConcurrentHashMap<>();
         this.waitResponseTime = Duration.ofSeconds(10);
 
         this.listener = new CopyOnWriteArrayList<>();
@@ -92,11 +103,32 @@ public abstract class RpcClientBase extends ProxyBase {
         METHOD_CONVERTER_MAP = new HashMap<>();
         METHOD_CONVERTER_MAP.put(RpcClientType.Java, new RpcJavaMethodConverter());
         METHOD_CONVERTER_MAP.put(RpcClientType.CSharp, new RpcCSharpMethodConverter());
+
+        CODEC_MAP = new ConcurrentHashMap<>();
+        registerCodec(new RpcBinaryCodec());
+        registerCodec(new RpcJsonCodec());
     }
     //endregion
 
     //region --公开方法--
 
+    /**
+     * 注册编码器, 注册后可以解码对端以该编码器发送的数据, 已注册同名的编码器时将被替换
+     *
+     * @param codec 要注册的编码器
+     */
+    public static void registerCodec(RpcCodec codec) {
+        if (codec == null) {
+            throw new NullPointerException("参数: codec 是 null");
+        }
+
+        if (codec.getName() == null || codec.getName().isEmpty()) {
+            throw new IllegalArgumentException("参数: codec, 编码器的名称不能为空");
+        }
+
+        CODEC_MAP.put(codec.getName(), codec);
+    }
+
     /**
      * 注册远程调用服务实例
      *
@@ -117,9 +149,8 @@ public abstract class RpcClientBase extends ProxyBase {
             throw new IllegalArgumentException("参数: tClass, 类型 (" + tClass.getSimpleName() + ") 不是接口类型");
         }
 
-        if (!this.services.containsKey(tClass.getSimpleName())) {
-            this.services.put(tClass.getSimpleName(), new RpcService(tClass, obj));
-        }
+        // 注册时建立方法索引, 处理请求的线程可能同时在读取
+        this.services.computeIfAbsent(tClass.getSimpleName(), key -> new RpcService(tClass, obj));
     }
 
     /**
@@ -149,6 +180,17 @@ public abstract class RpcClientBase extends ProxyBase {
      */
     public abstract void disconnect();
 
+    /**
+     * 异步调用远程调用服务端的方法, 调用线程不会等待服务端的回应
+     * <p>返回的 {@link CompletableFuture} 在收到回应后完成, 远程调用出现的异常将使其异常完成.
+     * 通过 {@link #resolver(Class)} 创建的代理在调用返回 {@link CompletableFuture} 的方法时也将使用此方法</p>
+     *
+     * @param targetMethod 要调用的服务接口方法
+     * @param args         调用方法的参数
+     * @return 一个 {@link CompletableFuture}, 在收到服务端的回应后完成
+     */
+    public abstract CompletableFuture<Object> invokeAsync(Method targetMethod, Object[] args);
+
     /**
      * 添加当前客户端事件发生时的监听器
      *
@@ -181,6 +223,55 @@ public abstract class RpcClientBase extends ProxyBase {
      */
     protected abstract byte[] sendWaitResponse(long tag, byte[] data) throws Exception;
 
+    /**
+     * 向远程调用服务端发送数据, 并返回一个在收到服务端回应后完成的 {@link CompletableFuture}
+     * <p>默认实现在公共线程池中调用 {@link #sendWaitResponse(long, byte[])}, 子类应重写此方法以避免占用线程等待</p>
+     *
+     * @param tag  指定数据的唯一标识
+     * @param data 要发送的数据
+     * @return 一个 {@link CompletableFuture}, 完成时包含服务端回应的数据
+     */
+    protected CompletableFuture<byte[]> sendWaitResponseAsync(long tag, byte[] data) {
+        CompletableFuture<byte[]> future = new CompletableFuture<>();
+        CompletableFuture.runAsync(() -> {
+            try {
+                future.complete(this.sendWaitResponse(tag, data));
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 判断指定的服务接口方法是否需要异步调用, 返回值类型可以由 {@link CompletableFuture} 赋值的方法将异步调用
+     *
+     * @param method 服务接口方法
+     * @return 如果需要异步调用则为 <code>true</code>, 否则为 <code>false</code>
+     */
+    protected static boolean isAsyncMethod(Method method) {
+        Class<?> returnType = method.getReturnType();
+        return returnType != Object.class && returnType.isAssignableFrom(CompletableFuture.class);
+    }
+
+    /**
+     * 获取方法在回应中的返回值类型, 返回 {@link CompletionStage} 的方法以其完成值的类型作为返回值类型
+     *
+     * @param method 调用的方法
+     * @return 返回值的类型, 保留泛型参数, 无返回值的方法为 <code>void.class</code>
+     */
+    protected static Type getResultType(Method method) {
+        Class<?> returnType = method.getReturnType();
+        if (CompletionStage.class.isAssignableFrom(returnType)) {
+            Type genericReturnType = method.getGenericReturnType();
+            if (genericReturnType instanceof ParameterizedType) {
+                return ((ParameterizedType) genericReturnType).getActualTypeArguments()[0];
+            }
+            return Object.class;
+        }
+        return returnType == void.class ? void.class : method.getGenericReturnType();
+    }
+
     /**
      * 向远程调用服务端发送数据, 以响应远程调用服务端的请求
      *
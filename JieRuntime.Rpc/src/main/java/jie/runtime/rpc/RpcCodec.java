@@ -0,0 +1,42 @@
+package jie.runtime.rpc;
+
+import jie.runtime.io.BufferReader;
+import jie.runtime.io.BufferWriter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * 表示远程调用服务提供参数和返回值编码服务的类, 该类是抽象的
+ * <p>编码器以名称标识, 连接双方都支持同一个编码器时才会使用它传输调用的参数和返回值,
+ * 不支持的对端 (例如 C# 客户端) 继续使用 Json 格式</p>
+ *
+ * @author jiegg
+ */
+public abstract class RpcCodec {
+
+    /**
+     * 获取编码器的名称, 连接双方以此名称协商使用的编码器
+     */
+    public abstract String getName();
+
+    /**
+     * 将指定的值按声明的类型写入流
+     *
+     * @param writer 要写入的流
+     * @param value  要写入的值, 可以为 <code>null</code>
+     * @param type   值声明的类型, 读取时将使用相同的类型
+     * @throws IOException I/O错误
+     */
+    public abstract void write(BufferWriter writer, Object value, Type type) throws IOException;
+
+    /**
+     * 从流中按声明的类型读取一个值
+     *
+     * @param reader 要读取的流
+     * @param type   值声明的类型, 与写入时使用的类型一致
+     * @return 读取的值, 可能为 <code>null</code>
+     * @throws IOException I/O错误
+     */
+    public abstract Object read(BufferReader reader, Type type) throws IOException;
+}
@@ -0,0 +1,66 @@
+package jie.runtime.rpc;
+
+import jie.runtime.io.BufferReader;
+import jie.runtime.io.BufferWriter;
+import jie.runtime.rpc.util.BufferUtils;
+import jie.runtime.rpc.util.JsonUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * 表示以 Json 格式编码参数和返回值的编码器
+ * <p>每个值以 UTF-8 编码的 Json 令牌写入, 适用于二进制编码器无法处理的类型</p>
+ *
+ * @author jiegg
+ */
+public class RpcJsonCodec extends RpcCodec {
+
+    //region --常量--
+    /**
+     * 获取编码器的名称
+     */
+    public static final String NAME = "json";
+    //endregion
+
+    //region --属性--
+
+    /**
+     * 获取编码器的名称, 连接双方以此名称协商使用的编码器
+     */
+    @Override
+    public String getName() {
+        return NAME;
+    }
+    //endregion
+
+    //region --公开方法--
+
+    /**
+     * 将指定的值按声明的类型写入流
+     *
+     * @param writer 要写入的流
+     * @param value  要写入的值, 可以为 <code>null</code>
+     * @param type   值声明的类型, 读取时将使用相同的类型
+     * @throws IOException I/O错误
+     */
+    @Override
+    public void write(BufferWriter writer, Object value, Type type) throws IOException {
+        BufferUtils.writeToken(writer, value == null ? null : JsonUtils.serializeToUtf8Bytes(value));
+    }
+
+    /**
+     * 从流中按声明的类型读取一个值
+     *
+     * @param reader 要读取的流
+     * @param type   值声明的类型, 与写入时使用的类型一致
+     * @return 读取的值, 可能为 <code>null</code>
+     * @throws IOException I/O错误
+     */
+    @Override
+    public Object read(BufferReader reader, Type type) throws IOException {
+        byte[] json = BufferUtils.readToken(reader);
+        return json == null ? null : JsonUtils.deserialize(json, 0, json.length, type);
+    }
+    //endregion
+}
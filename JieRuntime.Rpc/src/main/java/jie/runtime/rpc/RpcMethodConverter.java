@@ -17,4 +17,14 @@ public abstract class RpcMethodConverter {
      * @return 如果指定的源方法和方法名称一致则为 <code>true</code>, 否则为 <code>false</code>
      */
     public abstract boolean isEquals(Method method, String methodName);
+
+    /**
+     * 获取指定方法在远程调用中使用的名称, 注册服务时以此名称建立方法索引
+     *
+     * @param method 一个 {@link Method}, 被获取名称
+     * @return 方法名称, 应当与 {@link #isEquals(Method, String)} 的比较规则一致
+     */
+    public String getMethodName(Method method) {
+        return method.getName();
+    }
 }
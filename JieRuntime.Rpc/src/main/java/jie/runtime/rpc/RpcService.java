@@ -1,7 +1,17 @@
 package jie.runtime.rpc;
 
+import net.sf.cglib.reflect.FastClass;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * 表示远程调用服务实例的类
+ * <p>创建实例时按每种客户端类型的转换规则, 以方法名称和参数类型名称为键预先建立方法索引,
+ * 处理请求时只需一次哈希查找. 索引中的方法共用服务接口生成的 {@link FastClass} 调用</p>
  *
  * @author jiegg
  */
@@ -10,6 +20,7 @@ public class RpcService {
     //region --字段--
     private final Class<?> type;
     private final Object instance;
+    private final Map<RpcClientType, Map<Signature, RpcServiceMethod>> methods;
     //endregion
 
     //region --属性--
@@ -40,6 +51,101 @@ public class RpcService {
     public RpcService(Class<?> type, Object instance) {
         this.type = type;
         this.instance = instance;
+        this.methods = new EnumMap<>(RpcClientType.class);
+
+        Method[] declaredMethods = type.getDeclaredMethods();
+        FastClass fastClass = createFastClass(type);
+        for (RpcClientType clientType : RpcClientType.values()) {
+            RpcTypeConverter typeConverter = RpcClientBase.TYPE_CONVERTER_MAP.get(clientType);
+            RpcMethodConverter methodConverter = RpcClientBase.METHOD_CONVERTER_MAP.get(clientType);
+            if (typeConverter == null || methodConverter == null) {
+                continue;
+            }
+
+            Map<Signature, RpcServiceMethod> index = new HashMap<>();
+            for (Method method : declaredMethods) {
+                Class<?>[] parameterTypes = method.getParameterTypes();
+                String[] parameterTypeNames = new String[parameterTypes.length];
+                for (int i = 0; i < parameterTypes.length; i++) {
+                    parameterTypeNames[i] = typeConverter.getTypeName(parameterTypes[i]);
+                }
+
+                // 签名相同时保留先声明的方法
+                index.putIfAbsent(new Signature(methodConverter.getMethodName(method), parameterTypeNames), new RpcServiceMethod(method, instance, fastClass));
+            }
+            this.methods.put(clientType, index);
+        }
+    }
+    //endregion
+
+    //region --公开方法--
+
+    /**
+     * 按指定客户端类型的转换规则获取与方法名称和参数类型名称一致的方法
+     *
+     * @param clientType         发起调用的客户端类型
+     * @param methodName         方法名称
+     * @param parameterTypeNames 参数类型名称
+     * @return 一个 {@link RpcServiceMethod}, 如果不存在则为 <code>null</code>
+     */
+    public RpcServiceMethod getMethod(RpcClientType clientType, String methodName, String[] parameterTypeNames) {
+        if (clientType == null || methodName == null || parameterTypeNames == null) {
+            return null;
+        }
+
+        Map<Signature, RpcServiceMethod> index = this.methods.get(clientType);
+        return index == null ? null : index.get(new Signature(methodName, parameterTypeNames));
+    }
+    //endregion
+
+    //region --私有方法--
+    private static FastClass createFastClass(Class<?> type) {
+        try {
+            return FastClass.create(type);
+        } catch (RuntimeException | LinkageError e) {
+            // 无法生成调用类时 (例如类加载器不允许定义新类), 退回到反射调用
+            return null;
+        }
+    }
+    //endregion
+
+    //region --内部类--
+    private static final class Signature {
+
+        //region --字段--
+        private final String name;
+        private final String[] parameterTypeNames;
+        private final int hash;
+        //endregion
+
+        //region --构造函数--
+        Signature(String name, String[] parameterTypeNames) {
+            this.name = name;
+            this.parameterTypeNames = parameterTypeNames;
+            this.hash = 31 * name.hashCode() + Arrays.hashCode(parameterTypeNames);
+        }
+        //endregion
+
+        //region --公开方法--
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof Signature)) {
+                return false;
+            }
+
+            Signature other = (Signature) obj;
+            return this.hash == other.hash && this.name.equals(other.name) && Arrays.equals(this.parameterTypeNames, other.parameterTypeNames);
+        }
+        //endregion
     }
     //endregion
 }
@@ -0,0 +1,119 @@
+package jie.runtime.rpc;
+
+import net.sf.cglib.reflect.FastClass;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+
+/**
+ * 表示远程调用服务中一个可以直接调用的方法的类
+ * <p>实例在注册服务时创建, 保存了方法和参数类型, 处理请求时不需要再通过反射查找.
+ * 方法能在服务接口的 {@link FastClass} 中找到时, 调用由生成的类按索引直接分派, 不经过 {@link Method#invoke(Object, Object...)}
+ * 的访问检查和本地调用, 否则仍以反射调用</p>
+ *
+ * @author jiegg
+ */
+public class RpcServiceMethod {
+
+    //region --字段--
+    private final Method method;
+    private final Class<?>[] parameterTypes;
+    private final Type[] genericParameterTypes;
+    private final Object instance;
+    private final FastClass fastClass;
+    private final int fastIndex;
+    //endregion
+
+    //region --属性--
+
+    /**
+     * 获取服务接口中声明的方法
+     */
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * 获取方法的参数个数
+     */
+    public int getParameterCount() {
+        return this.parameterTypes.length;
+    }
+
+    /**
+     * 获取方法指定位置的参数类型
+     *
+     * @param index 参数的位置
+     * @return 参数类型
+     */
+    public Class<?> getParameterType(int index) {
+        return this.parameterTypes[index];
+    }
+
+    /**
+     * 获取方法指定位置包含泛型信息的参数类型
+     *
+     * @param index 参数的位置
+     * @return 参数类型
+     */
+    public Type getGenericParameterType(int index) {
+        return this.genericParameterTypes[index];
+    }
+    //endregion
+
+    //region --构造函数--
+
+    /**
+     * 初始化 {@link RpcServiceMethod} 类的新实例
+     *
+     * @param method   服务接口中声明的方法
+     * @param instance 执行方法的服务实例
+     */
+    public RpcServiceMethod(Method method, Object instance) {
+        this(method, instance, null);
+    }
+
+    /**
+     * 初始化 {@link RpcServiceMethod} 类的新实例
+     *
+     * @param method    服务接口中声明的方法
+     * @param instance  执行方法的服务实例
+     * @param fastClass 服务接口的 {@link FastClass}, 为 <code>null</code> 时以反射调用
+     */
+    RpcServiceMethod(Method method, Object instance, FastClass fastClass) {
+        if (method == null) {
+            throw new NullPointerException("参数: method 是 null");
+        }
+
+        this.method = method;
+        this.parameterTypes = method.getParameterTypes();
+        this.genericParameterTypes = method.getGenericParameterTypes();
+        this.instance = instance;
+
+        // 生成的类对接口中的静态方法也使用 invokeinterface, 静态方法和不在索引中的方法都以反射调用
+        int index = fastClass == null || Modifier.isStatic(method.getModifiers()) ? -1 : fastClass.getIndex(method.getName(), this.parameterTypes);
+        this.fastClass = index < 0 ? null : fastClass;
+        this.fastIndex = index;
+    }
+    //endregion
+
+    //region --公开方法--
+
+    /**
+     * 使用指定的参数调用方法
+     *
+     * @param args 调用方法时传递的参数
+     * @return 方法的返回值
+     * @throws InvocationTargetException 方法执行时抛出了异常
+     * @throws IllegalAccessException    方法没有执行权限
+     */
+    public Object invoke(Object[] args) throws InvocationTargetException, IllegalAccessException {
+        if (this.fastClass != null) {
+            return this.fastClass.invoke(this.fastIndex, this.instance, args);
+        }
+        return this.method.invoke(this.instance, args);
+    }
+    //endregion
+}
@@ -3,14 +3,16 @@ package jie.runtime.rpc.proxy;
 import net.sf.cglib.proxy.MethodInterceptor;
 import net.sf.cglib.proxy.MethodProxy;
 
+import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 
 /**
  * 表示代理调用类
+ * <p>同时作为 cglib 代理和 {@link java.lang.reflect.Proxy} 代理的回调, 两种代理的调用都交给 {@link IProxyInvoke} 处理</p>
  *
  * @author jiegg
  */
-public class DispatchProxyInvoke implements MethodInterceptor {
+public class DispatchProxyInvoke implements MethodInterceptor, InvocationHandler {
 
     //region --字段--
     private final IProxyInvoke targetProxyInvoke;
@@ -43,7 +45,25 @@ public class DispatchProxyInvoke implements MethodInterceptor {
     @Override
     public Object intercept(Object obj, Method method, Object[] args, MethodProxy proxy) throws Throwable {
         if (this.targetProxyInvoke != null) {
-            this.targetProxyInvoke.invokeMethod(method, args);
+            return this.targetProxyInvoke.invokeMethod(method, args);
+        }
+        return null;
+    }
+
+    /**
+     * 每当调用 {@link java.lang.reflect.Proxy} 生成的代理类型上的任何方法时, 都会调用此方法
+     *
+     * @param proxy  当前代理对象
+     * @param method 调用者调用的方法
+     * @param args   调用传递给方法的参数, 无参数的方法为 <code>null</code>
+     * @return 返回给调用者的对象, void 方法将返回 {@code null}
+     * @throws Throwable 调用方法可能会发生异常
+     */
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (this.targetProxyInvoke != null) {
+            // 与 cglib 代理一致, 无参数的方法传递空数组
+            return this.targetProxyInvoke.invokeMethod(method, args == null ? new Object[0] : args);
         }
         return null;
     }
@@ -1,17 +1,69 @@
 package jie.runtime.rpc.proxy;
 
 import com.sun.org.apache.bcel.internal.generic.ClassGenException;
+import net.sf.cglib.core.ReflectUtils;
+import net.sf.cglib.proxy.Callback;
 import net.sf.cglib.proxy.Enhancer;
+import net.sf.cglib.proxy.Factory;
+import net.sf.cglib.proxy.MethodInterceptor;
+
+import java.lang.reflect.Proxy;
 
 /**
  * 提供代理的基础类, 该类的是抽象的
+ * <p>每个接口只生成一次代理类, 之后的解析只创建实例, 可以在多个线程中同时解析</p>
  *
  * @author jiegg
  */
 public abstract class ProxyBase implements IProxyInvoke {
 
+    //region --常量--
+    /**
+     * 以接口为键缓存 cglib 生成的代理类原型, 通过 {@link Factory#newInstance(Callback)} 创建实例
+     */
+    private static final ClassValue<Factory> PROXY_FACTORIES = new ClassValue<Factory>() {
+        @Override
+        protected Factory computeValue(Class<?> type) {
+            Enhancer enhancer = new Enhancer();
+            enhancer.setSuperclass(type);
+            enhancer.setCallbackType(MethodInterceptor.class);
+            Class<?> proxyClass = enhancer.createClass();
+
+            // 原型实例只用于创建其他实例, 其回调不会被调用
+            Enhancer.registerCallbacks(proxyClass, new Callback[]{new DispatchProxyInvoke(null)});
+            try {
+                return (Factory) ReflectUtils.newInstance(proxyClass);
+            } finally {
+                Enhancer.registerCallbacks(proxyClass, null);
+            }
+        }
+    };
+    //endregion
+
     //region --字段--
-    private final Enhancer enhancer;
+    private volatile ProxyType proxyType;
+    //endregion
+
+    //region --属性--
+
+    /**
+     * 获取生成代理类的方式
+     */
+    public ProxyType getProxyType() {
+        return this.proxyType;
+    }
+
+    /**
+     * 设置生成代理类的方式, 只影响之后解析的代理
+     *
+     * @param value 一个 {@link ProxyType}, 默认为 {@link ProxyType#CGLIB}
+     */
+    public void setProxyType(ProxyType value) {
+        if (value == null) {
+            throw new NullPointerException("参数: value 是 null");
+        }
+        this.proxyType = value;
+    }
     //endregion
 
     //region --构造函数--
@@ -20,7 +72,7 @@ public abstract class ProxyBase implements IProxyInvoke {
      * 初始化 {@link ProxyBase} 类的新实例
      */
     public ProxyBase() {
-        this.enhancer = new Enhancer();
+        this.proxyType = ProxyType.CGLIB;
     }
     //endregion
 
@@ -42,9 +94,11 @@ public abstract class ProxyBase implements IProxyInvoke {
             throw new ClassGenException("参数: tClass 不是接口类型");
         }
 
-        this.enhancer.setSuperclass(tClass);
-        this.enhancer.setCallback(new DispatchProxyInvoke(this));
-        return (T) this.enhancer.create();
+        DispatchProxyInvoke invoke = new DispatchProxyInvoke(this);
+        if (this.proxyType == ProxyType.JDK) {
+            return (T) Proxy.newProxyInstance(tClass.getClassLoader(), new Class<?>[]{tClass}, invoke);
+        }
+        return (T) PROXY_FACTORIES.get(tClass).newInstance(invoke);
     }
     //endregion
 }
@@ -0,0 +1,17 @@
+package jie.runtime.rpc.proxy;
+
+/**
+ * 表示生成代理类方式的枚举
+ *
+ * @author jiegg
+ */
+public enum ProxyType {
+    /**
+     * 表示使用 cglib 生成代理类
+     */
+    CGLIB,
+    /**
+     * 表示使用 {@link java.lang.reflect.Proxy} 生成代理类
+     */
+    JDK
+}
@@ -0,0 +1,187 @@
+package jie.runtime.rpc.tcp;
+
+import jie.runtime.io.BufferReader;
+import jie.runtime.io.BufferWriter;
+import jie.runtime.rpc.RpcClientType;
+import jie.runtime.rpc.RpcCodec;
+import jie.runtime.rpc.RpcServiceMethod;
+import jie.runtime.rpc.util.BufferUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.Map;
+
+/**
+ * 表示以编码器编码的远程调用请求的类
+ * <p>请求以 {@link #MAGIC} 开头, 之后依次为编码器名称, 客户端类型, 服务类型名称, 方法名称, 参数个数, 每个参数的类型名称,
+ * 最后是由编码器按方法参数类型写入的参数值. Json 格式的请求总是以 <code>{</code> 开头, 接收方据此区分两种格式</p>
+ *
+ * @author jiegg
+ */
+class BinaryRpcRequest {
+
+    //region --常量--
+    /**
+     * 获取以编码器编码的消息的起始字节
+     */
+    public static final byte MAGIC = (byte) 0xB1;
+    //endregion
+
+    //region --字段--
+    private final RpcCodec codec;
+    private final RpcClientType clientType;
+    private final String type;
+    private final String method;
+    private final String[] parameterTypeNames;
+    private final BufferReader reader;
+    //endregion
+
+    //region --属性--
+
+    /**
+     * 获取请求使用的编码器
+     */
+    public RpcCodec getCodec() {
+        return codec;
+    }
+
+    /**
+     * 获取发起请求的客户端类型
+     */
+    public RpcClientType getClientType() {
+        return clientType;
+    }
+
+    /**
+     * 获取请求的服务类型名称
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * 获取请求的方法名称
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * 获取请求的参数类型名称
+     */
+    public String[] getParameterTypeNames() {
+        return parameterTypeNames;
+    }
+    //endregion
+
+    //region --构造函数--
+    private BinaryRpcRequest(RpcCodec codec, RpcClientType clientType, String type, String method, String[] parameterTypeNames, BufferReader reader) {
+        this.codec = codec;
+        this.clientType = clientType;
+        this.type = type;
+        this.method = method;
+        this.parameterTypeNames = parameterTypeNames;
+        this.reader = reader;
+    }
+    //endregion
+
+    //region --公开方法--
+
+    /**
+     * 判断指定的数据是否是以编码器编码的消息
+     *
+     * @param data 消息数据
+     * @return 如果以 {@link #MAGIC} 开头则为 <code>true</code>, 否则为 <code>false</code>
+     */
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 0 && data[0] == MAGIC;
+    }
+
+    /**
+     * 以指定的编码器编码一个请求
+     *
+     * @param codec      使用的编码器
+     * @param clientType 发起请求的客户端类型
+     * @param method     调用的服务接口方法
+     * @param args       调用方法的参数
+     * @return 一个字节数组, 包含编码后的请求
+     * @throws IOException I/O错误
+     */
+    public static byte[] encode(RpcCodec codec, RpcClientType clientType, Method method, Object[] args) throws IOException {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        if (args.length != parameterTypes.length) {
+            throw new IllegalArgumentException("参数: args, 参数个数与方法 (" + method.getName() + ") 的参数个数不一致");
+        }
+
+        BufferWriter writer = new BufferWriter();
+        writer.write(MAGIC);
+        BufferUtils.writeString(writer, codec.getName());
+        BufferUtils.writeString(writer, clientType == null ? null : clientType.name());
+        BufferUtils.writeString(writer, method.getDeclaringClass().getSimpleName());
+        BufferUtils.writeString(writer, method.getName());
+
+        writer.write(parameterTypes.length, true);
+        for (Class<?> parameterType : parameterTypes) {
+            BufferUtils.writeString(writer, parameterType.getSimpleName());
+        }
+
+        Type[] genericParameterTypes = method.getGenericParameterTypes();
+        for (int i = 0; i < args.length; i++) {
+            codec.write(writer, args[i], genericParameterTypes[i]);
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * 解析请求中参数值之前的部分, 参数值在找到调用的方法后通过 {@link #readArguments(RpcServiceMethod)} 读取
+     *
+     * @param data   请求数据
+     * @param codecs 可用的编码器, 以编码器名称为键
+     * @return {@link BinaryRpcRequest} 类的新实例
+     * @throws IOException 请求格式错误或使用了不支持的编码器
+     */
+    public static BinaryRpcRequest parse(byte[] data, Map<String, RpcCodec> codecs) throws IOException {
+        if (!isBinary(data)) {
+            throw new IOException("请求不是以编码器编码的格式");
+        }
+
+        BufferReader reader = new BufferReader(data);
+        reader.readByte();
+        String codecName = BufferUtils.readString(reader);
+        RpcCodec codec = codecName == null ? null : codecs.get(codecName);
+        if (codec == null) {
+            throw new IOException("不支持的编码器: " + codecName);
+        }
+
+        String clientType = BufferUtils.readString(reader);
+        String type = BufferUtils.readString(reader);
+        String method = BufferUtils.readString(reader);
+
+        int count = reader.readInt32();
+        if (count < 0 || count > reader.overSize()) {
+            throw new IOException("参数个数超过了请求的剩余长度. count: " + count);
+        }
+        String[] parameterTypeNames = new String[count];
+        for (int i = 0; i < count; i++) {
+            parameterTypeNames[i] = BufferUtils.readString(reader);
+        }
+        return new BinaryRpcRequest(codec, clientType == null ? null : RpcClientType.valueOf(clientType), type, method, parameterTypeNames, reader);
+    }
+
+    /**
+     * 按方法的参数类型读取请求的参数值
+     *
+     * @param method 请求调用的方法
+     * @return 调用方法时传递的参数
+     * @throws IOException I/O错误
+     */
+    public Object[] readArguments(RpcServiceMethod method) throws IOException {
+        Object[] args = new Object[this.parameterTypeNames.length];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = this.codec.read(this.reader, method.getGenericParameterType(i));
+        }
+        return args;
+    }
+    //endregion
+}
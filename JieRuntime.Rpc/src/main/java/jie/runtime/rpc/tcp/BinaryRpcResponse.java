@@ -0,0 +1,113 @@
+package jie.runtime.rpc.tcp;
+
+import jie.runtime.io.BufferReader;
+import jie.runtime.io.BufferWriter;
+import jie.runtime.rpc.RpcClientType;
+import jie.runtime.rpc.RpcCodec;
+import jie.runtime.rpc.util.BufferUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Map;
+
+/**
+ * 表示以编码器编码的远程调用成功回应的类
+ * <p>回应以 {@link BinaryRpcRequest#MAGIC} 开头, 之后依次为编码器名称, 客户端类型, 以及由编码器按方法返回值类型写入的返回值,
+ * 无返回值的方法不写入返回值. 只有 Java 客户端之间会使用编码器, 调用后的参数对调用方不可见, 因此不回传参数.
+ * 调用失败时仍以 Json 格式回应错误</p>
+ *
+ * @author jiegg
+ */
+class BinaryRpcResponse {
+
+    //region --字段--
+    private final RpcCodec codec;
+    private final RpcClientType clientType;
+    private final BufferReader reader;
+    //endregion
+
+    //region --属性--
+
+    /**
+     * 获取回应使用的编码器
+     */
+    public RpcCodec getCodec() {
+        return codec;
+    }
+
+    /**
+     * 获取回应请求的客户端类型
+     */
+    public RpcClientType getClientType() {
+        return clientType;
+    }
+    //endregion
+
+    //region --构造函数--
+    private BinaryRpcResponse(RpcCodec codec, RpcClientType clientType, BufferReader reader) {
+        this.codec = codec;
+        this.clientType = clientType;
+        this.reader = reader;
+    }
+    //endregion
+
+    //region --公开方法--
+
+    /**
+     * 以指定的编码器编码一个成功的回应
+     *
+     * @param codec      使用的编码器
+     * @param clientType 回应请求的客户端类型
+     * @param resultType 返回值的类型, 无返回值的方法为 <code>void.class</code>
+     * @param result     方法的返回值
+     * @return 一个字节数组, 包含编码后的回应
+     * @throws IOException I/O错误
+     */
+    public static byte[] encode(RpcCodec codec, RpcClientType clientType, Type resultType, Object result) throws IOException {
+        BufferWriter writer = new BufferWriter();
+        writer.write(BinaryRpcRequest.MAGIC);
+        BufferUtils.writeString(writer, codec.getName());
+        BufferUtils.writeString(writer, clientType == null ? null : clientType.name());
+        if (resultType != void.class) {
+            codec.write(writer, result, resultType);
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * 解析回应中返回值之前的部分, 返回值通过 {@link #readResult(Type)} 读取
+     *
+     * @param data   回应数据
+     * @param codecs 可用的编码器, 以编码器名称为键
+     * @return {@link BinaryRpcResponse} 类的新实例
+     * @throws IOException 回应格式错误或使用了不支持的编码器
+     */
+    public static BinaryRpcResponse parse(byte[] data, Map<String, RpcCodec> codecs) throws IOException {
+        if (!BinaryRpcRequest.isBinary(data)) {
+            throw new IOException("回应不是以编码器编码的格式");
+        }
+
+        BufferReader reader = new BufferReader(data);
+        reader.readByte();
+        String codecName = BufferUtils.readString(reader);
+        RpcCodec codec = codecName == null ? null : codecs.get(codecName);
+        if (codec == null) {
+            throw new IOException("不支持的编码器: " + codecName);
+        }
+
+        String clientType = BufferUtils.readString(reader);
+        return new BinaryRpcResponse(codec, clientType == null ? null : RpcClientType.valueOf(clientType), reader);
+    }
+
+    /**
+     * 按返回值的类型读取回应的返回值
+     *
+     * @param resultType 返回值的类型, 无返回值的方法为 <code>void.class</code>
+     * @return 方法的返回值, 无返回值的方法为 <code>null</code>
+     * @throws IOException I/O错误
+     */
+    public Object readResult(Type resultType) throws IOException {
+        return resultType == void.class ? null : this.codec.read(this.reader, resultType);
+    }
+    //endregion
+}
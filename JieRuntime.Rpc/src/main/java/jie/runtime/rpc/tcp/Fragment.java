@@ -1,32 +1,50 @@
 package jie.runtime.rpc.tcp;
 
 import jie.runtime.io.BufferReader;
-import jie.runtime.io.BufferWriter;
-import jie.runtime.rpc.util.BufferUtils;
 
-import java.io.IOException;
-import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
 
 /**
  * 表示分片结构的类
+ * <p>分片头由封包类型 (1 字节), 封包标识 (8 字节), 分片索引 (4 字节), 分片数量 (4 字节) 和封包总长度 (4 字节) 组成, 均以大端序保存,
+ * 分片头之后直到封包末尾都是分片数据. 同一个封包的所有分片使用相同的封包类型, 封包标识和封包总长度,
+ * 接收方可以据此在收到第一个分片时一次性分配封包的缓冲区</p>
  *
  * @author jiegg
  */
-class Fragment implements Serializable {
+class Fragment {
+
+    //region --常量--
+    /**
+     * 获取分片头占用的字节数
+     */
+    public static final int HEADER_LENGTH = 1 + Long.BYTES + Integer.BYTES + Integer.BYTES + Integer.BYTES;
+    //endregion
 
     //region --字段--
-    private final byte[] tag;
+    private final PacketType type;
+    private final long tag;
     private final int index;
     private final int count;
-    private final byte[] data;
+    private final int length;
+    private final ByteBuffer payload;
     //endregion
 
     //region --属性--
 
     /**
-     * 获取分片标识
+     * 获取分片所属封包的类型
+     */
+    public PacketType getType() {
+        return type;
+    }
+
+    /**
+     * 获取分片所属封包的标识
      */
-    public byte[] getTag() {
+    public long getTag() {
         return tag;
     }
 
@@ -45,10 +63,30 @@ class Fragment implements Serializable {
     }
 
     /**
-     * 获取分片数据
+     * 获取分片所属封包的总长度
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * 获取分片数据的长度
+     */
+    public int getDataLength() {
+        return this.payload.remaining();
+    }
+
+    /**
+     * 获取分片数据, 从封包视图中解析的分片将复制一份数据
      */
     public byte[] getData() {
-        return data;
+        if (this.payload.hasArray() && this.payload.arrayOffset() == 0 && this.payload.position() == 0
+                && this.payload.remaining() == this.payload.array().length) {
+            return this.payload.array();
+        }
+        byte[] dest = new byte[this.payload.remaining()];
+        this.payload.duplicate().get(dest);
+        return dest;
     }
     //endregion
 
@@ -57,34 +95,37 @@ class Fragment implements Serializable {
     /**
      * 初始化 {@link Fragment} 类的新实例
      *
-     * @param tag   分片标识
-     * @param index 分片索引
-     * @param count 分片数量
-     * @param data  分片数据
+     * @param type   分片所属封包的类型
+     * @param tag    分片所属封包的标识
+     * @param index  分片索引
+     * @param count  分片数量
+     * @param length 分片所属封包的总长度
+     * @param data   分片数据
      */
-    public Fragment(byte[] tag, int index, int count, byte[] data) {
+    public Fragment(PacketType type, long tag, int index, int count, int length, byte[] data) {
+        this(type, tag, index, count, length, ByteBuffer.wrap(data));
+    }
+
+    private Fragment(PacketType type, long tag, int index, int count, int length, ByteBuffer payload) {
+        this.type = type;
         this.tag = tag;
         this.index = index;
         this.count = count;
-        this.data = data;
+        this.length = length;
+        this.payload = payload;
     }
     //endregion
 
     //region --公开方法--
 
     /**
-     * 将当前消息分片转换成字节数组的形式
+     * 将分片数据复制到指定的数组中
      *
-     * @return 一个字节数组, 包含当前实例的数据
-     * @throws IOException I/O错误
+     * @param dest   目标数组
+     * @param offset 目标数组中开始写入的位置
      */
-    public byte[] getBytes() throws IOException {
-        BufferWriter writer = new BufferWriter();
-        BufferUtils.writeShortToken(writer, this.tag);
-        writer.write(this.index);
-        writer.write(this.count);
-        BufferUtils.writeShortToken(writer, this.data);
-        return writer.toByteArray();
+    public void copyTo(byte[] dest, int offset) {
+        this.payload.duplicate().get(dest, offset, this.payload.remaining());
     }
 
     /**
@@ -94,18 +135,49 @@ class Fragment implements Serializable {
      * @return 如果解析成功返回 {@link Fragment} 类的新实例, 否则返回 <code>null</code>
      */
     public static Fragment tryParse(byte[] data) {
-        if (data != null) {
+        if (data != null && data.length >= HEADER_LENGTH) {
             try {
                 BufferReader reader = new BufferReader(data);
-                byte[] tag = BufferUtils.readShortToken(reader);
-                short index = reader.readInt16();
-                short count = reader.readInt16();
-                byte[] readData = BufferUtils.readShortToken(reader);
-                return new Fragment(tag, index, count, readData);
+                PacketType type = PacketType.fromValue(reader.readByte());
+                long tag = reader.readInt64();
+                int index = reader.readInt32();
+                int count = reader.readInt32();
+                int length = reader.readInt32();
+                if (isValid(type, index, count, length)) {
+                    return new Fragment(type, tag, index, count, length, Arrays.copyOfRange(data, HEADER_LENGTH, data.length));
+                }
             } catch (Exception ignored) {
             }
         }
         return null;
     }
+
+    /**
+     * 尝试将一个 {@link ByteBuffer} 中剩余的数据以消息分片的形式解析, 解析时不会改变其位置
+     * <p>分片数据直接引用传入的缓冲区而不会复制, 调用方需保证在使用分片期间缓冲区的内容不被修改</p>
+     *
+     * @param data 一个 {@link ByteBuffer}, 作为尝试解析的数据
+     * @return 如果解析成功返回 {@link Fragment} 类的新实例, 否则返回 <code>null</code>
+     */
+    public static Fragment tryParse(ByteBuffer data) {
+        if (data != null && data.remaining() >= HEADER_LENGTH) {
+            ByteBuffer reader = data.duplicate().order(ByteOrder.BIG_ENDIAN);
+            PacketType type = PacketType.fromValue(reader.get());
+            long tag = reader.getLong();
+            int index = reader.getInt();
+            int count = reader.getInt();
+            int length = reader.getInt();
+            if (isValid(type, index, count, length)) {
+                return new Fragment(type, tag, index, count, length, reader.slice().asReadOnlyBuffer());
+            }
+        }
+        return null;
+    }
+    //endregion
+
+    //region --私有方法--
+    private static boolean isValid(PacketType type, int index, int count, int length) {
+        return type != null && count > 0 && index >= 0 && index < count && length >= 0;
+    }
     //endregion
 }
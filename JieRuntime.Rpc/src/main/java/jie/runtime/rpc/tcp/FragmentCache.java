@@ -1,17 +1,25 @@
 package jie.runtime.rpc.tcp;
 
-import jie.runtime.io.BufferReader;
-import jie.runtime.io.BufferWriter;
-import jie.runtime.utils.ArrayUtils;
-
-import java.io.IOException;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
+import jie.runtime.collections.LongHashMap;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * 表示消息分片缓存的类
+ * <p>正在重组的封包以封包类型和封包标识区分, 每种封包类型使用一个以封包标识为键的哈希表.
+ * 封包在收到最后一个分片时离开哈希表并进入就绪队列, 拉取封包只需从就绪队列取出.
+ * 每个连接持有独立的实例, 不同连接之间不会竞争同一个锁</p>
+ * <p>收到封包的第一个分片时按分片头中的封包总长度一次性分配缓冲区, 之后每个分片的数据直接复制到所在位置,
+ * 收齐所有分片后缓冲区即为封包数据, 不需要再次合并</p>
+ * <p>正在重组的封包按创建顺序链接, 每次推入分片时丢弃超过重组时限的封包;
+ * 当前实例或所有实例占用的字节数超过上限时, 从最早创建的封包开始丢弃, 直至回到上限以内.
+ * 分片在连接中按顺序到达, 只有第一个分片才会开始重组, 所属封包已被丢弃的后续分片作为孤立分片丢弃</p>
  *
  * @author jiegg
  */
@@ -22,11 +30,132 @@ class FragmentCache {
      * 获取分片大小
      */
     public static final int FRAGMENT_SIZE = 60000;
+
+    /**
+     * 获取默认的重组时限
+     */
+    public static final Duration DEFAULT_REASSEMBLY_TIMEOUT = Duration.ofSeconds(30);
+
+    /**
+     * 获取每个实例默认可以占用的最大字节数
+     */
+    public static final long DEFAULT_MAX_PENDING_BYTES = 64L * 1024 * 1024;
+
+    /**
+     * 获取所有实例默认可以占用的最大字节数
+     */
+    public static final long DEFAULT_GLOBAL_MAX_PENDING_BYTES = 256L * 1024 * 1024;
+
+    private static final AtomicInteger GLOBAL_PENDING_COUNT = new AtomicInteger();
+    private static final AtomicLong GLOBAL_PENDING_BYTES = new AtomicLong();
+    private static final LongAdder GLOBAL_EXPIRED_COUNT = new LongAdder();
+    private static final LongAdder GLOBAL_EVICTED_COUNT = new LongAdder();
+    private static final LongAdder GLOBAL_ORPHAN_COUNT = new LongAdder();
     //endregion
 
     //region --字段--
+    private static volatile long globalMaxPendingBytes = DEFAULT_GLOBAL_MAX_PENDING_BYTES;
+
     private final ReentrantLock lock;
-    private final Map<byte[], CacheAssembler> fragments;
+    private final LongHashMap<CacheAssembler>[] fragments;
+    private final Queue<Packet> readyPackets;
+    private CacheAssembler oldest;
+    private CacheAssembler newest;
+    private int pendingCount;
+    private long pendingBytes;
+    private long expiredCount;
+    private long evictedCount;
+    private long orphanCount;
+    private volatile Duration reassemblyTimeout;
+    private volatile long maxPendingBytes;
+    //endregion
+
+    //region --属性--
+
+    /**
+     * 获取封包的重组时限, 从收到第一个分片开始计算
+     */
+    public Duration getReassemblyTimeout() {
+        return this.reassemblyTimeout;
+    }
+
+    /**
+     * 设置封包的重组时限, 从收到第一个分片开始计算
+     *
+     * @param value 重组时限, 必须大于 0
+     */
+    public void setReassemblyTimeout(Duration value) {
+        if (value == null) {
+            throw new NullPointerException("参数: value 是 null");
+        }
+
+        if (value.isNegative() || value.isZero()) {
+            throw new IllegalArgumentException("参数: value, 重组时限必须大于 0");
+        }
+        this.reassemblyTimeout = value;
+    }
+
+    /**
+     * 获取当前实例正在重组的封包可以占用的最大字节数
+     */
+    public long getMaxPendingBytes() {
+        return this.maxPendingBytes;
+    }
+
+    /**
+     * 设置当前实例正在重组的封包可以占用的最大字节数
+     *
+     * @param value 最大字节数, 不能小于 1
+     */
+    public void setMaxPendingBytes(long value) {
+        if (value < 1) {
+            throw new IllegalArgumentException("参数: value, 最大字节数不能小于 1");
+        }
+        this.maxPendingBytes = value;
+    }
+
+    /**
+     * 获取所有实例正在重组的封包可以占用的最大字节数
+     */
+    public static long getGlobalMaxPendingBytes() {
+        return globalMaxPendingBytes;
+    }
+
+    /**
+     * 设置所有实例正在重组的封包可以占用的最大字节数
+     *
+     * @param value 最大字节数, 不能小于 1
+     */
+    public static void setGlobalMaxPendingBytes(long value) {
+        if (value < 1) {
+            throw new IllegalArgumentException("参数: value, 最大字节数不能小于 1");
+        }
+        globalMaxPendingBytes = value;
+    }
+
+    /**
+     * 获取当前实例的重组统计信息快照
+     */
+    public TcpRpcReassemblyStatistics getStatistics() {
+        try {
+            this.lock.lock();
+            return new TcpRpcReassemblyStatistics(this.pendingCount, this.pendingBytes, this.expiredCount, this.evictedCount, this.orphanCount);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * 获取所有实例的重组统计信息快照
+     */
+    public static TcpRpcReassemblyStatistics getGlobalStatistics() {
+        return new TcpRpcReassemblyStatistics(
+                GLOBAL_PENDING_COUNT.get(),
+                GLOBAL_PENDING_BYTES.get(),
+                GLOBAL_EXPIRED_COUNT.sum(),
+                GLOBAL_EVICTED_COUNT.sum(),
+                GLOBAL_ORPHAN_COUNT.sum());
+    }
     //endregion
 
     //region --构造函数--
@@ -34,9 +163,16 @@ class FragmentCache {
     /**
      * 初始化 {@link FragmentCache} 类的新实例
      */
+    @SuppressWarnings("unchecked")
     public FragmentCache() {
         this.lock = new ReentrantLock();
-        this.fragments = new HashMap<>();
+        this.fragments = new LongHashMap[PacketType.values().length];
+        for (int i = 0; i < this.fragments.length; i++) {
+            this.fragments[i] = new LongHashMap<>();
+        }
+        this.readyPackets = new ConcurrentLinkedQueue<>();
+        this.reassemblyTimeout = DEFAULT_REASSEMBLY_TIMEOUT;
+        this.maxPendingBytes = DEFAULT_MAX_PENDING_BYTES;
     }
     //endregion
 
@@ -48,76 +184,150 @@ class FragmentCache {
      * @param fragment 消息分片
      */
     public void push(Fragment fragment) {
+        // 只有一个分片的封包无需进入哈希表
+        if (fragment.getCount() == 1) {
+            this.readyPackets.add(new Packet(fragment.getType(), fragment.getTag(), fragment.getData()));
+            return;
+        }
+
+        CacheAssembler completed = null;
         try {
             this.lock.lock();
-            if (!this.fragments.containsKey(fragment.getTag())) {
-                this.fragments.put(fragment.getTag(), new CacheAssembler(fragment.getTag(), fragment.getCount()));
+            long now = System.nanoTime();
+            this.expire(now);
+
+            LongHashMap<CacheAssembler> map = this.fragments[fragment.getType().ordinal()];
+            CacheAssembler assembler = map.get(fragment.getTag());
+            if (assembler == null) {
+                // 封包已超时, 被驱逐或已完成, 后续分片不能再开始重组, 否则会为永远无法完成的封包分配缓冲区
+                if (fragment.getIndex() != 0) {
+                    this.orphanCount++;
+                    GLOBAL_ORPHAN_COUNT.increment();
+                    return;
+                }
+
+                // 忽略封包总长度与分片数量不符的分片
+                int count = fragment.getCount();
+                int length = fragment.getLength();
+                if (length <= (long) (count - 1) * FRAGMENT_SIZE || length > (long) count * FRAGMENT_SIZE) {
+                    return;
+                }
+
+                // 单个封包超过内存上限时直接丢弃, 不分配缓冲区, 其后续分片将作为孤立分片丢弃
+                if (length > this.maxPendingBytes || length > globalMaxPendingBytes) {
+                    this.evictedCount++;
+                    GLOBAL_EVICTED_COUNT.increment();
+                    return;
+                }
+
+                assembler = new CacheAssembler(fragment.getType(), fragment.getTag(), count, length, now);
+                map.put(fragment.getTag(), assembler);
+                this.link(assembler);
+                this.evict();
+
+                // 超过全局上限时新建的封包本身也可能被驱逐
+                if (this.newest != assembler) {
+                    return;
+                }
+            }
+
+            assembler.set(fragment);
+            if (assembler.isCompleted()) {
+                // 移除已完成的封包, 后续使用相同标识的封包将重新开始重组
+                this.remove(assembler);
+                completed = assembler;
             }
-            this.fragments.get(fragment.getTag()).set(fragment);
         } finally {
             this.lock.unlock();
         }
+
+        if (completed != null) {
+            this.readyPackets.add(completed.get());
+        }
     }
 
     /**
-     * 从消息分片管理器中拉取已形成的完整数据包的数据
+     * 从管理器中拉取一个已经完成的数据
      *
      * @return 如果成功拉取到了数据则为 {@link Packet}, 否则为 <code>null</code>
      */
     public Packet pull() {
+        return this.readyPackets.poll();
+    }
+
+    /**
+     * 丢弃所有正在重组和已经完成的封包, 释放占用的内存
+     * <p>连接断开后应调用此方法, 被丢弃的正在重组的封包计入驱逐数量</p>
+     */
+    public void clear() {
         try {
             this.lock.lock();
-
-            for (byte[] key : this.fragments.keySet()) {
-                if (this.fragments.get(key).isCompleted()) {
-                    return this.fragments.get(key).get();
-                }
+            while (this.oldest != null) {
+                this.remove(this.oldest);
+                this.evictedCount++;
+                GLOBAL_EVICTED_COUNT.increment();
             }
-
-            return null;
         } finally {
             this.lock.unlock();
         }
+        this.readyPackets.clear();
     }
+    //endregion
 
-    /**
-     * 将封包数据包装成消息分片
-     *
-     * @param type 消息类型
-     * @param tag  消息标识
-     * @param data 消息原始数据
-     * @return 一个 {@link Iterable} 包含切分好的消息分片 {@link Fragment}
-     * @throws IOException I/O错误
-     */
-    public static Iterable<Fragment> createFragments(PacketType type, long tag, byte[] data) throws IOException {
-
-        // 计算分片数量
-        int count = data.length / FRAGMENT_SIZE;
-        if ((count * FRAGMENT_SIZE) < data.length) {
-            count += 1;
-        }
-
-        // 计算Tag
-        BufferWriter tagBuf = new BufferWriter();
-        tagBuf.write(type.getValue());
-        tagBuf.write(tag);
-        tagBuf.write(data);
-        byte[] fragmentTag = tagBuf.toByteArray();
-
-        // 对数据进行分片
-        Fragment[] fragments = new Fragment[count];
-        for (int i = 0; i < fragments.length; i++) {
-            int len = FRAGMENT_SIZE;
-            int offset = i * len;
-            if (data.length - offset < len) {
-                len = data.length - offset;
-            }
-            byte[] fragmentData = ArrayUtils.left(ArrayUtils.skip(data, offset), len);
+    //region --私有方法--
+    private void expire(long now) {
+        long timeout = this.reassemblyTimeout.toNanos();
+        while (this.oldest != null && now - this.oldest.createTime >= timeout) {
+            this.remove(this.oldest);
+            this.expiredCount++;
+            GLOBAL_EXPIRED_COUNT.increment();
+        }
+    }
+
+    private void evict() {
+        // 只能驱逐当前实例的封包, 其他实例会在各自推入分片时继续驱逐
+        while (this.oldest != null
+                && (this.pendingBytes > this.maxPendingBytes || GLOBAL_PENDING_BYTES.get() > globalMaxPendingBytes)) {
+            this.remove(this.oldest);
+            this.evictedCount++;
+            GLOBAL_EVICTED_COUNT.increment();
+        }
+    }
+
+    private void link(CacheAssembler assembler) {
+        assembler.prev = this.newest;
+        if (this.newest == null) {
+            this.oldest = assembler;
+        } else {
+            this.newest.next = assembler;
+        }
+        this.newest = assembler;
+        this.pendingCount++;
+        this.pendingBytes += assembler.data.length;
+        GLOBAL_PENDING_COUNT.incrementAndGet();
+        GLOBAL_PENDING_BYTES.addAndGet(assembler.data.length);
+    }
 
-            // 生成分片信息
-            fragments[i] = new Fragment(fragmentTag, i, count, fragmentData);
+    private void remove(CacheAssembler assembler) {
+        this.fragments[assembler.type.ordinal()].remove(assembler.tag);
+
+        if (assembler.prev == null) {
+            this.oldest = assembler.next;
+        } else {
+            assembler.prev.next = assembler.next;
+        }
+        if (assembler.next == null) {
+            this.newest = assembler.prev;
+        } else {
+            assembler.next.prev = assembler.prev;
         }
-        return Arrays.asList(fragments);
+        assembler.prev = null;
+        assembler.next = null;
+
+        this.pendingCount--;
+        this.pendingBytes -= assembler.data.length;
+        GLOBAL_PENDING_COUNT.decrementAndGet();
+        GLOBAL_PENDING_BYTES.addAndGet(-assembler.data.length);
     }
     //endregion
 
@@ -125,47 +335,52 @@ class FragmentCache {
     static class CacheAssembler {
 
         //region --字段--
-        private PacketType type;
+        private final PacketType type;
         private final long tag;
-        private final Fragment[] fragments;
+        private final boolean[] received;
+        private final byte[] data;
+        private final long createTime;
         private int count;
+        private CacheAssembler prev;
+        private CacheAssembler next;
         //endregion
 
         //region --构造函数--
-        public CacheAssembler(byte[] tag, int count) {
-
-            BufferReader reader = new BufferReader(tag);
-
-            // 读取类型
-            byte typeByte = reader.readByte();
-            Arrays.stream(PacketType.values())
-                    .filter(p -> p.getValue() == typeByte)
-                    .findFirst()
-                    .ifPresent(p -> this.type = p);
-            // 读取tag
-            this.tag = reader.readInt64();
-
+        public CacheAssembler(PacketType type, long tag, int count, int length, long createTime) {
+            this.type = type;
+            this.tag = tag;
             this.count = 0;
-            this.fragments = new Fragment[count];
+            this.received = new boolean[count];
+            this.data = new byte[length];
+            this.createTime = createTime;
         }
         //endregion
 
         //region --公开方法--
         public void set(Fragment fragment) {
-            this.fragments[fragment.getIndex()] = fragment;
+            // 忽略分片数量或封包总长度不一致, 以及重复的分片
+            int index = fragment.getIndex();
+            if (fragment.getCount() != this.received.length || fragment.getLength() != this.data.length || this.received[index]) {
+                return;
+            }
+
+            // 除最后一个分片外, 每个分片的数据长度都是分片大小
+            int offset = index * FRAGMENT_SIZE;
+            if (fragment.getDataLength() != Math.min(FRAGMENT_SIZE, this.data.length - offset)) {
+                return;
+            }
+
+            fragment.copyTo(this.data, offset);
+            this.received[index] = true;
             this.count += 1;
         }
 
         public Packet get() {
-            byte[][] temp = new byte[this.fragments.length][];
-            for (int i = 0; i < temp.length; i++) {
-                temp[i] = this.fragments[i].getData();
-            }
-            return new Packet(this.type, this.tag, ArrayUtils.concat(temp));
+            return new Packet(this.type, this.tag, this.data);
         }
 
         public boolean isCompleted() {
-            return this.count == this.fragments.length;
+            return this.count == this.received.length;
         }
         //endregion
     }
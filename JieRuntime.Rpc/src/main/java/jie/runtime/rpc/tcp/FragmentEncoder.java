@@ -0,0 +1,96 @@
+package jie.runtime.rpc.tcp;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 表示消息分片编码器的类
+ * <p>每个分片由一个独立的分片头缓冲区和一个引用封包数据的视图组成, 编码时不复制封包数据,
+ * 两者作为一个封包交给传输层聚集发送</p>
+ *
+ * @author jiegg
+ */
+class FragmentEncoder {
+
+    //region --字段--
+    private final PacketType type;
+    private final long tag;
+    private final byte[] data;
+    private final int count;
+    //endregion
+
+    //region --属性--
+
+    /**
+     * 获取封包切分后的分片数量
+     */
+    public int getCount() {
+        return count;
+    }
+    //endregion
+
+    //region --构造函数--
+
+    /**
+     * 初始化 {@link FragmentEncoder} 类的新实例
+     *
+     * @param type 消息类型
+     * @param tag  消息标识
+     * @param data 消息原始数据, 编码的分片发送完成之前不能修改其内容
+     */
+    public FragmentEncoder(PacketType type, long tag, byte[] data) {
+        if (type == null) {
+            throw new NullPointerException("参数: type 是 null");
+        }
+
+        if (data == null) {
+            throw new NullPointerException("参数: data 是 null");
+        }
+
+        this.type = type;
+        this.tag = tag;
+        this.data = data;
+        this.count = getCount(data.length);
+    }
+    //endregion
+
+    //region --公开方法--
+
+    /**
+     * 编码指定索引的消息分片
+     *
+     * @param index 分片索引
+     * @return 一个 {@link ByteBuffer} 数组, 依次为分片头和分片数据的视图
+     */
+    public ByteBuffer[] encode(int index) {
+        if (index < 0 || index >= this.count) {
+            throw new IllegalArgumentException("参数: index, 超过了分片数量的范围");
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(Fragment.HEADER_LENGTH);
+        header.put(this.type.getValue());
+        header.putLong(this.tag);
+        header.putInt(index);
+        header.putInt(this.count);
+        header.putInt(this.data.length);
+        header.flip();
+
+        int offset = index * FragmentCache.FRAGMENT_SIZE;
+        int len = Math.min(FragmentCache.FRAGMENT_SIZE, this.data.length - offset);
+        return new ByteBuffer[]{header, ByteBuffer.wrap(this.data, offset, len)};
+    }
+
+    /**
+     * 计算指定长度的数据切分后的分片数量, 空数据也需要一个分片
+     *
+     * @param length 数据长度
+     * @return 分片数量
+     */
+    public static int getCount(int length) {
+        int count = length / FragmentCache.FRAGMENT_SIZE;
+        if ((count * FragmentCache.FRAGMENT_SIZE) < length || count == 0) {
+            count += 1;
+        }
+        return count;
+    }
+    //endregion
+}
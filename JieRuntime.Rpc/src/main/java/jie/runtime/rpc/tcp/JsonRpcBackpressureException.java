@@ -0,0 +1,17 @@
+package jie.runtime.rpc.tcp;
+
+/**
+ * 表示远程调用客户端的发送缓冲区已满, 请求未能发送的错误
+ *
+ * @author jiegg
+ */
+public class JsonRpcBackpressureException extends JsonRpcException {
+
+    /**
+     * 初始化 {@link JsonRpcBackpressureException} 类的新实例, 其详细消息为 {@code null}. 原因没有初始化, 并且可能随后通过调用 {@link #initCause(Throwable)} 初始化
+     */
+    public JsonRpcBackpressureException() {
+        super("数据发送失败, 等待发送的数据超过了高水位线");
+        super.setCode(-32301);
+    }
+}
@@ -107,6 +107,12 @@ class JsonRpcError implements Serializable {
 
     //region --构造函数--
 
+    /**
+     * 初始化 {@link JsonRpcError} 类的新实例, 用于解析对端回应中的异常信息
+     */
+    public JsonRpcError() {
+    }
+
     /**
      * 初始化 {@link JsonRpcError 类的新实例}
      *
@@ -1,11 +1,19 @@
 package jie.runtime.rpc.tcp;
 
 import com.alibaba.fastjson.annotation.JSONField;
+import com.alibaba.fastjson2.JSONException;
+import com.alibaba.fastjson2.JSONReader;
+import jie.runtime.rpc.util.JsonUtils;
 
 import java.io.Serializable;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * 表示 Json 远程调用参数的类
+ * <p>协议版本 3 的参数值是包含 Json 的字符串 (字符串类型的参数为字符串本身), 版本 4 及以上的参数值以原生的 Json 节点嵌入.
+ * 接收到的参数值只记录其在消息中的位置, 找到调用的方法后再按参数类型解析. 回应的返回值与参数值的规则相同</p>
  *
  * @author jiegg
  */
@@ -15,6 +23,9 @@ class JsonRpcParameter implements Serializable {
     @JSONField(name = "type")
     private String type;
     private Object value;
+    private transient byte[] data;
+    private transient int offset;
+    private transient int length;
     //endregion
 
     //region --属性--
@@ -63,4 +74,140 @@ class JsonRpcParameter implements Serializable {
         this.value = value;
     }
     //endregion
+
+    //region --公开方法--
+
+    /**
+     * 按协议版本创建一个要发送的参数
+     *
+     * @param type    参数声明的类型
+     * @param value   参数的值
+     * @param version 消息的协议版本
+     * @return {@link JsonRpcParameter} 类的新实例
+     */
+    public static JsonRpcParameter create(Class<?> type, Object value, String version) {
+        JsonRpcParameter parameter = new JsonRpcParameter();
+        parameter.setType(type.getSimpleName());
+        parameter.setValue(encodeValue(type, value, version));
+        return parameter;
+    }
+
+    /**
+     * 按协议版本编码要发送的值, 版本 3 中除字符串类型外的值编码为包含 Json 的字符串
+     *
+     * @param type    值声明的类型
+     * @param value   要发送的值
+     * @param version 消息的协议版本
+     * @return 写入消息的值
+     */
+    public static Object encodeValue(Type type, Object value, String version) {
+        if (value == null || type == String.class || JsonRpcRequest.isNativeVersion(version)) {
+            return value;
+        }
+        return JsonUtils.serialize(value);
+    }
+
+    /**
+     * 将接收到的参数值按指定的类型解析
+     *
+     * @param type    参数声明的类型
+     * @param version 消息的协议版本
+     * @return 解析得到的参数值
+     */
+    public Object bind(Type type, String version) {
+        if (this.data == null) {
+            return this.value;
+        }
+        if (JsonRpcRequest.isNativeVersion(version) || this.data[this.offset] != '"') {
+            return JsonUtils.deserialize(this.data, this.offset, this.length, type);
+        }
+
+        // 版本 3 的参数值是字符串, 除字符串类型外需要再解析一次
+        String json = JsonUtils.deserialize(this.data, this.offset, this.length, String.class);
+        if (type == String.class) {
+            return json;
+        }
+        try {
+            return JsonUtils.deserialize(json, type);
+        } catch (JSONException e) {
+            // 旧的 Java 客户端在版本 3 中也以原生节点发送, 例如枚举值, 此时按原生节点解析
+            return JsonUtils.deserialize(this.data, this.offset, this.length, type);
+        }
+    }
+
+    /**
+     * 从消息中读取参数数组, 参数值只记录其在消息中的位置
+     *
+     * @param reader 读取消息的 {@link JSONReader}, 位于参数数组的开始
+     * @param data   消息数据
+     * @return 读取的参数数组, 可能为 <code>null</code>
+     */
+    public static JsonRpcParameter[] readArray(JSONReader reader, byte[] data) {
+        if (reader.nextIfNull()) {
+            return null;
+        }
+        if (!reader.nextIfMatch('[')) {
+            throw new JSONException("参数不是 Json 数组. offset: " + reader.getOffset());
+        }
+
+        List<JsonRpcParameter> parameters = new ArrayList<>();
+        while (!reader.nextIfMatch(']')) {
+            parameters.add(read(reader, data));
+        }
+        reader.nextIfMatch(',');
+        return parameters.toArray(new JsonRpcParameter[0]);
+    }
+
+    /**
+     * 从消息中读取一个值, 只记录其在消息中的位置, 之后通过 {@link #bind(Type, String)} 解析
+     *
+     * @param reader 读取消息的 {@link JSONReader}, 位于值的开始
+     * @param data   消息数据
+     * @return {@link JsonRpcParameter} 类的新实例, 不包含参数类型
+     */
+    public static JsonRpcParameter readValue(JSONReader reader, byte[] data) {
+        JsonRpcParameter parameter = new JsonRpcParameter();
+        parameter.readRange(reader, data);
+        return parameter;
+    }
+    //endregion
+
+    //region --私有方法--
+    private static JsonRpcParameter read(JSONReader reader, byte[] data) {
+        if (!reader.nextIfObjectStart()) {
+            throw new JSONException("参数不是 Json 对象. offset: " + reader.getOffset());
+        }
+
+        JsonRpcParameter parameter = new JsonRpcParameter();
+        while (!reader.nextIfObjectEnd()) {
+            String name = reader.readFieldName();
+            if ("type".equals(name)) {
+                parameter.setType(reader.readString());
+            } else if ("value".equals(name)) {
+                parameter.readRange(reader, data);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.nextIfMatch(',');
+        return parameter;
+    }
+
+    private void readRange(JSONReader reader, byte[] data) {
+        if (reader.nextIfNull()) {
+            return;
+        }
+
+        // 读取器当前位于值的第一个字节, 跳过后位于下一个标记, 其间的空白和逗号不属于值
+        int start = reader.getOffset() - 1;
+        reader.skipValue();
+        int end = reader.getOffset() - 1;
+        while (end > start && (data[end - 1] == ',' || data[end - 1] <= ' ')) {
+            end--;
+        }
+        this.data = data;
+        this.offset = start;
+        this.length = end - start;
+    }
+    //endregion
 }
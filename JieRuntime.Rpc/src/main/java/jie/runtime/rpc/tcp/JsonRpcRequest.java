@@ -1,6 +1,8 @@
 package jie.runtime.rpc.tcp;
 
 import com.alibaba.fastjson.annotation.JSONField;
+import com.alibaba.fastjson2.JSONException;
+import com.alibaba.fastjson2.JSONReader;
 import jie.runtime.rpc.RpcClientType;
 
 import java.io.Serializable;
@@ -12,9 +14,20 @@ import java.io.Serializable;
  */
 class JsonRpcRequest implements Serializable {
 
+    //region --常量--
+    /**
+     * 获取参数值以包含 Json 的字符串传递的协议版本
+     */
+    public static final String VERSION_3 = "3";
+    /**
+     * 获取参数值以原生 Json 节点嵌入的协议版本
+     */
+    public static final String VERSION_4 = "4";
+    //endregion
+
     //region --字段--
     @JSONField(name = "ver")
-    private String version = "3";
+    private String version = VERSION_3;
     @JSONField(name = "client")
     private RpcClientType clientType;
     @JSONField(name = "type")
@@ -23,6 +36,12 @@ class JsonRpcRequest implements Serializable {
     private String method;
     @JSONField(name = "params")
     private JsonRpcParameter[] parameters;
+    @JSONField(name = "codecs")
+    private String[] codecs;
+    @JSONField(name = "maxver")
+    private String maxVersion;
+    @JSONField(name = "outparams")
+    private Boolean outParameters;
     //endregion
 
     //region --属性--
@@ -106,5 +125,133 @@ class JsonRpcRequest implements Serializable {
     public void setParameters(JsonRpcParameter[] value) {
         this.parameters = value;
     }
+
+    /**
+     * 获取发送方支持的编码器名称, 对端支持其中之一时, 之后的消息将以该编码器编码
+     */
+    public String[] getCodecs() {
+        return codecs;
+    }
+
+    /**
+     * 设置发送方支持的编码器名称
+     *
+     * @param value 编码器名称
+     */
+    public void setCodecs(String[] value) {
+        this.codecs = value;
+    }
+
+    /**
+     * 获取发送方支持的最高协议版本, 不支持版本 4 的对端忽略该值
+     */
+    public String getMaxVersion() {
+        return maxVersion;
+    }
+
+    /**
+     * 设置发送方支持的最高协议版本
+     *
+     * @param value 协议版本
+     */
+    public void setMaxVersion(String value) {
+        this.maxVersion = value;
+    }
+
+    /**
+     * 获取一个 {@link Boolean} 值, 指示回应是否需要回传调用后的参数, 为 <code>null</code> 时回传
+     */
+    public Boolean getOutParameters() {
+        return outParameters;
+    }
+
+    /**
+     * 设置回应是否需要回传调用后的参数, 不支持的对端 (例如 C# 客户端) 忽略该值, 总是回传参数
+     *
+     * @param value 为 <code>false</code> 时不回传参数
+     */
+    public void setOutParameters(Boolean value) {
+        this.outParameters = value;
+    }
+    //endregion
+
+    //region --公开方法--
+
+    /**
+     * 判断指定的协议版本是否以原生 Json 节点嵌入参数值
+     *
+     * @param version 协议版本
+     * @return 如果版本大于 3 则为 <code>true</code>, 否则为 <code>false</code>
+     */
+    public static boolean isNativeVersion(String version) {
+        if (version == null) {
+            return false;
+        }
+        try {
+            return Integer.parseInt(version.trim()) > 3;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 判断发送方是否支持以原生 Json 节点嵌入参数值
+     *
+     * @param version    消息的协议版本
+     * @param maxVersion 发送方支持的最高协议版本
+     * @return 如果任一版本大于 3 则为 <code>true</code>, 否则为 <code>false</code>
+     */
+    public static boolean isNativeSupported(String version, String maxVersion) {
+        return isNativeVersion(version) || isNativeVersion(maxVersion);
+    }
+
+    /**
+     * 解析 UTF-8 编码的请求, 参数值在找到调用的方法后通过 {@link JsonRpcParameter#bind(java.lang.reflect.Type, String)} 解析
+     *
+     * @param data 请求数据
+     * @return {@link JsonRpcRequest} 类的新实例
+     * @throws JSONException 请求格式错误
+     */
+    public static JsonRpcRequest parse(byte[] data) {
+        try (JSONReader reader = JSONReader.of(data)) {
+            if (!reader.nextIfObjectStart()) {
+                throw new JSONException("请求不是 Json 对象");
+            }
+
+            JsonRpcRequest request = new JsonRpcRequest();
+            while (!reader.nextIfObjectEnd()) {
+                switch (reader.readFieldName()) {
+                    case "ver":
+                        request.setVersion(reader.readString());
+                        break;
+                    case "client":
+                        request.setClientType(reader.read(RpcClientType.class));
+                        break;
+                    case "type":
+                        request.setType(reader.readString());
+                        break;
+                    case "method":
+                        request.setMethod(reader.readString());
+                        break;
+                    case "params":
+                        request.setParameters(JsonRpcParameter.readArray(reader, data));
+                        break;
+                    case "codecs":
+                        request.setCodecs(reader.read(String[].class));
+                        break;
+                    case "maxver":
+                        request.setMaxVersion(reader.readString());
+                        break;
+                    case "outparams":
+                        request.setOutParameters(reader.nextIfNull() ? null : reader.readBoolValue());
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            return request;
+        }
+    }
     //endregion
 }
@@ -1,9 +1,12 @@
 package jie.runtime.rpc.tcp;
 
 import com.alibaba.fastjson.annotation.JSONField;
+import com.alibaba.fastjson2.JSONException;
+import com.alibaba.fastjson2.JSONReader;
 import jie.runtime.rpc.RpcClientType;
 
 import java.io.Serializable;
+import java.lang.reflect.Type;
 
 /**
  * 表示 Json 远程调用响应的类
@@ -14,7 +17,7 @@ class JsonRpcResponse implements Serializable {
 
     //region --字段--
     @JSONField(name = "ver")
-    private String version = "3";
+    private String version = JsonRpcRequest.VERSION_3;
     @JSONField(name = "client")
     private RpcClientType clientType;
     @JSONField(name = "result")
@@ -23,6 +26,11 @@ class JsonRpcResponse implements Serializable {
     private JsonRpcParameter[] parameters;
     @JSONField(name = "error")
     private JsonRpcResponseError error;
+    @JSONField(name = "codecs")
+    private String[] codecs;
+    @JSONField(name = "maxver")
+    private String maxVersion;
+    private transient JsonRpcParameter receivedResult;
     //endregion
 
     //region --属性--
@@ -106,6 +114,38 @@ class JsonRpcResponse implements Serializable {
     public void setError(JsonRpcResponseError value) {
         this.error = value;
     }
+
+    /**
+     * 获取发送方支持的编码器名称, 对端支持其中之一时, 之后的消息将以该编码器编码
+     */
+    public String[] getCodecs() {
+        return codecs;
+    }
+
+    /**
+     * 设置发送方支持的编码器名称
+     *
+     * @param value 编码器名称
+     */
+    public void setCodecs(String[] value) {
+        this.codecs = value;
+    }
+
+    /**
+     * 获取发送方支持的最高协议版本, 不支持版本 4 的对端忽略该值
+     */
+    public String getMaxVersion() {
+        return maxVersion;
+    }
+
+    /**
+     * 设置发送方支持的最高协议版本
+     *
+     * @param value 协议版本
+     */
+    public void setMaxVersion(String value) {
+        this.maxVersion = value;
+    }
     //endregion
 
     //region --公开方法--
@@ -133,5 +173,64 @@ class JsonRpcResponse implements Serializable {
         response.setResult(resultValue);
         return response;
     }
+
+    /**
+     * 解析 UTF-8 编码的回应, 返回值通过 {@link #readResult(Type)} 解析, 回传参数通过 {@link JsonRpcParameter#bind(Type, String)} 解析
+     *
+     * @param data 回应数据
+     * @return {@link JsonRpcResponse} 类的新实例
+     * @throws JSONException 回应格式错误
+     */
+    public static JsonRpcResponse parse(byte[] data) {
+        try (JSONReader reader = JSONReader.of(data)) {
+            if (!reader.nextIfObjectStart()) {
+                throw new JSONException("回应不是 Json 对象");
+            }
+
+            JsonRpcResponse response = new JsonRpcResponse();
+            while (!reader.nextIfObjectEnd()) {
+                switch (reader.readFieldName()) {
+                    case "ver":
+                        response.setVersion(reader.readString());
+                        break;
+                    case "client":
+                        response.setClientType(reader.read(RpcClientType.class));
+                        break;
+                    case "result":
+                        response.receivedResult = JsonRpcParameter.readValue(reader, data);
+                        break;
+                    case "params":
+                        response.setParameters(JsonRpcParameter.readArray(reader, data));
+                        break;
+                    case "error":
+                        response.setError(reader.read(JsonRpcResponseError.class));
+                        break;
+                    case "codecs":
+                        response.setCodecs(reader.read(String[].class));
+                        break;
+                    case "maxver":
+                        response.setMaxVersion(reader.readString());
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            return response;
+        }
+    }
+
+    /**
+     * 按返回值的类型解析回应的返回值
+     *
+     * @param resultType 返回值的类型, 保留泛型参数, 无返回值的方法为 <code>void.class</code>
+     * @return 方法的返回值, 无返回值的方法为 <code>null</code>
+     */
+    public Object readResult(Type resultType) {
+        if (resultType == void.class) {
+            return null;
+        }
+        return this.receivedResult == null ? this.result : this.receivedResult.bind(resultType, this.version);
+    }
     //endregion
 }
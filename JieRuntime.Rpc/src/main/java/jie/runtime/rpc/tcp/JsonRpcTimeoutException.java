@@ -0,0 +1,17 @@
+package jie.runtime.rpc.tcp;
+
+/**
+ * 表示远程调用在等待响应时间内没有收到响应的错误
+ *
+ * @author jiegg
+ */
+public class JsonRpcTimeoutException extends JsonRpcException {
+
+    /**
+     * 初始化 {@link JsonRpcTimeoutException} 类的新实例, 其详细消息为 {@code null}. 原因没有初始化, 并且可能随后通过调用 {@link #initCause(Throwable)} 初始化
+     */
+    public JsonRpcTimeoutException() {
+        super("数据接收超时, 在等待响应时间内没有收到响应");
+        super.setCode(-32302);
+    }
+}
@@ -41,4 +41,22 @@ enum PacketType {
         this.value = value;
     }
     //endregion
+
+    //region --公开方法--
+
+    /**
+     * 获取指定值对应的封包类型
+     *
+     * @param value 封包类型的值
+     * @return 一个 {@link PacketType}, 如果值无效则为 <code>null</code>
+     */
+    public static PacketType fromValue(byte value) {
+        for (PacketType type : values()) {
+            if (type.value == value) {
+                return type;
+            }
+        }
+        return null;
+    }
+    //endregion
 }
@@ -0,0 +1,205 @@
+package jie.runtime.rpc.tcp;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 表示一个等待响应的远程调用
+ * <p>调用的结果只能设置一次, 结果通过 volatile 字段发布, 设置后再唤醒等待的线程或完成 {@link CompletableFuture},
+ * 等待的线程以结果是否已设置作为退出条件, 不会因为残留的许可或虚假唤醒而提前返回</p>
+ *
+ * @author jiegg
+ */
+class PendingCall {
+
+    //region --常量--
+    private static final AtomicReferenceFieldUpdater<PendingCall, Object> OUTCOME_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(PendingCall.class, Object.class, "outcome");
+    //endregion
+
+    //region --字段--
+    private final long tag;
+    private final long deadline;
+    private final Thread waiter;
+    private final CompletableFuture<byte[]> future;
+    private final Executor executor;
+    private volatile Object outcome;
+    //endregion
+
+    //region --属性--
+
+    /**
+     * 获取调用的唯一标识
+     */
+    public long getTag() {
+        return tag;
+    }
+
+    /**
+     * 获取调用是否设置了等待期限
+     */
+    public boolean hasDeadline() {
+        return this.deadline != 0;
+    }
+
+    /**
+     * 获取异步调用的 {@link CompletableFuture}, 同步调用为 <code>null</code>
+     */
+    public CompletableFuture<byte[]> getFuture() {
+        return future;
+    }
+    //endregion
+
+    //region --构造函数--
+    private PendingCall(long tag, long timeoutNanos, Thread waiter, CompletableFuture<byte[]> future, Executor executor) {
+        this.tag = tag;
+        this.waiter = waiter;
+        this.future = future;
+        this.executor = executor;
+
+        // 期限为 0 表示不限制等待时间
+        if (timeoutNanos > 0) {
+            long deadline = System.nanoTime() + timeoutNanos;
+            this.deadline = deadline == 0 ? 1 : deadline;
+        } else {
+            this.deadline = 0;
+        }
+    }
+    //endregion
+
+    //region --公开方法--
+
+    /**
+     * 创建一个由当前线程等待的同步调用
+     *
+     * @param tag          调用的唯一标识
+     * @param timeoutNanos 等待时长, 不大于 0 时不限制等待时间
+     * @return 一个 {@link PendingCall}
+     */
+    public static PendingCall createSync(long tag, long timeoutNanos) {
+        return new PendingCall(tag, timeoutNanos, Thread.currentThread(), null, null);
+    }
+
+    /**
+     * 创建一个以 {@link CompletableFuture} 通知结果的异步调用
+     *
+     * @param tag          调用的唯一标识
+     * @param timeoutNanos 等待时长, 不大于 0 时不限制等待时间
+     * @param executor     完成 {@link CompletableFuture} 的执行器, 避免回调占用设置结果的线程
+     * @return 一个 {@link PendingCall}
+     */
+    public static PendingCall createAsync(long tag, long timeoutNanos, Executor executor) {
+        return new PendingCall(tag, timeoutNanos, null, new CompletableFuture<>(), executor);
+    }
+
+    /**
+     * 以服务端回应的数据完成调用
+     *
+     * @param data 服务端回应的数据
+     * @return 如果成功设置了结果则为 <code>true</code>, 调用已经有结果时为 <code>false</code>
+     */
+    public boolean complete(byte[] data) {
+        if (!OUTCOME_UPDATER.compareAndSet(this, null, data == null ? new Failure(new JsonRpcNetworkException()) : data)) {
+            return false;
+        }
+        this.signal();
+        return true;
+    }
+
+    /**
+     * 以异常结束调用
+     *
+     * @param error 调用的异常
+     * @return 如果成功设置了结果则为 <code>true</code>, 调用已经有结果时为 <code>false</code>
+     */
+    public boolean fail(Exception error) {
+        if (!OUTCOME_UPDATER.compareAndSet(this, null, new Failure(error))) {
+            return false;
+        }
+        this.signal();
+        return true;
+    }
+
+    /**
+     * 判断调用在指定时间是否已经超过了等待期限
+     *
+     * @param now {@link System#nanoTime()} 的值
+     * @return 如果已经超过则为 <code>true</code>, 否则为 <code>false</code>
+     */
+    public boolean isExpired(long now) {
+        return this.deadline != 0 && now - this.deadline >= 0;
+    }
+
+    /**
+     * 在创建调用的线程上等待调用的结果, 超过等待期限时以 {@link JsonRpcTimeoutException} 结束
+     *
+     * @return 服务端回应的数据
+     * @throws Exception 调用出现的异常, 等待期间线程被中断时为 {@link InterruptedException}
+     */
+    public byte[] await() throws Exception {
+        while (this.outcome == null) {
+            if (Thread.interrupted()) {
+                if (this.fail(new InterruptedException())) {
+                    break;
+                }
+                // 结果已经设置, 保留中断状态
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            if (this.deadline == 0) {
+                LockSupport.park(this);
+            } else {
+                long remaining = this.deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    this.fail(new JsonRpcTimeoutException());
+                    break;
+                }
+                LockSupport.parkNanos(this, remaining);
+            }
+        }
+
+        Object result = this.outcome;
+        if (result instanceof Failure) {
+            throw ((Failure) result).error;
+        }
+        return (byte[]) result;
+    }
+    //endregion
+
+    //region --私有方法--
+    private void signal() {
+        if (this.waiter != null) {
+            LockSupport.unpark(this.waiter);
+            return;
+        }
+
+        Object result = this.outcome;
+        Runnable action = result instanceof Failure
+                ? () -> this.future.completeExceptionally(((Failure) result).error)
+                : () -> this.future.complete((byte[]) result);
+        if (this.executor == null) {
+            action.run();
+        } else {
+            this.executor.execute(action);
+        }
+    }
+    //endregion
+
+    //region --内部类--
+    private static class Failure {
+
+        //region --字段--
+        private final Exception error;
+        //endregion
+
+        //region --构造函数--
+        Failure(Exception error) {
+            this.error = error;
+        }
+        //endregion
+    }
+    //endregion
+}
@@ -0,0 +1,332 @@
+package jie.runtime.rpc.tcp;
+
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 表示等待响应的远程调用登记表的类
+ * <p>调用以标识的低位作为槽位保存在数组中, 登记和取出只需要一次 CAS, 不需要加锁, 也不需要装箱标识.
+ * 槽位数组在第一次登记时以较小的容量创建, 槽位冲突时按需扩容直到最大容量, 超过最大容量后冲突的调用保存在溢出哈希表中.
+ * 按顺序递增的标识在等待的调用数量不超过容量时不会冲突</p>
+ * <p>设置了等待期限的调用由所有登记表共享的一个清扫任务定期清扫, 超过期限的调用以 {@link JsonRpcTimeoutException} 结束</p>
+ *
+ * @author jiegg
+ */
+class PendingCallTable {
+
+    //region --常量--
+    /**
+     * 获取登记表默认的最大槽位数量
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    /**
+     * 获取槽位数组初始的槽位数量
+     */
+    public static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * 获取清扫超时调用的间隔毫秒数
+     */
+    public static final long SWEEP_INTERVAL_MILLIS = 50;
+
+    /**
+     * 扩容期间已迁移到新数组的槽位的标记
+     */
+    private static final PendingCall MOVED = PendingCall.createAsync(0, 0, Runnable::run);
+
+    private static final Queue<WeakReference<PendingCallTable>> SWEEP_TABLES = new ConcurrentLinkedQueue<>();
+    private static final AtomicBoolean IS_SWEEPER_STARTED = new AtomicBoolean();
+    //endregion
+
+    //region --字段--
+    private volatile AtomicReferenceArray<PendingCall> slots;
+    private final int maxCapacity;
+    private final ConcurrentMap<Long, PendingCall> overflow;
+    private final AtomicInteger size;
+    private final AtomicBoolean isResizing;
+    private final AtomicBoolean isSweeping;
+    //endregion
+
+    //region --属性--
+
+    /**
+     * 获取正在等待响应的调用数量
+     */
+    public int size() {
+        return this.size.get();
+    }
+
+    /**
+     * 获取当前的槽位数量, 尚未登记过调用时为 0
+     */
+    public int capacity() {
+        AtomicReferenceArray<PendingCall> array = this.slots;
+        return array == null ? 0 : array.length();
+    }
+    //endregion
+
+    //region --构造函数--
+
+    /**
+     * 使用默认的最大槽位数量初始化 {@link PendingCallTable} 类的新实例
+     */
+    public PendingCallTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * 初始化 {@link PendingCallTable} 类的新实例
+     *
+     * @param maxCapacity 最大槽位数量, 将向上取整为 2 的幂
+     */
+    public PendingCallTable(int maxCapacity) {
+        if (maxCapacity < 1) {
+            throw new IllegalArgumentException("参数: maxCapacity, 槽位数量不能小于 1");
+        }
+
+        this.maxCapacity = maxCapacity == 1 ? 1 : Integer.highestOneBit(maxCapacity - 1) << 1;
+        this.overflow = new ConcurrentHashMap<>();
+        this.size = new AtomicInteger();
+        this.isResizing = new AtomicBoolean();
+        this.isSweeping = new AtomicBoolean();
+    }
+    //endregion
+
+    //region --公开方法--
+
+    /**
+     * 登记一个等待响应的调用
+     *
+     * @param call 等待响应的调用
+     * @throws IllegalStateException 相同标识的调用已经在等待响应
+     */
+    public void add(PendingCall call) {
+        long tag = call.getTag();
+        while (true) {
+            AtomicReferenceArray<PendingCall> array = this.getSlots();
+            int index = (int) tag & (array.length() - 1);
+            if (array.compareAndSet(index, null, call)) {
+                break;
+            }
+
+            PendingCall current = array.get(index);
+            if (current == MOVED) {
+                this.awaitResize(array);
+                continue;
+            }
+            if (current != null && current.getTag() == tag) {
+                throw new IllegalStateException("数据标识 " + tag + " 已经在等待响应");
+            }
+
+            // 槽位冲突时先扩容, 已达到最大容量时保存到溢出哈希表
+            if (array.length() < this.maxCapacity) {
+                this.resize(array);
+                continue;
+            }
+            if (this.overflow.putIfAbsent(tag, call) != null) {
+                throw new IllegalStateException("数据标识 " + tag + " 已经在等待响应");
+            }
+            break;
+        }
+        this.size.incrementAndGet();
+
+        if (call.hasDeadline() && this.isSweeping.compareAndSet(false, true)) {
+            register(this);
+        }
+    }
+
+    /**
+     * 取出指定标识的调用, 取出后不能再次取出
+     *
+     * @param tag 调用的唯一标识
+     * @return 等待响应的调用, 如果不存在则为 <code>null</code>
+     */
+    public PendingCall take(long tag) {
+        AtomicReferenceArray<PendingCall> array;
+        while ((array = this.slots) != null) {
+            int index = (int) tag & (array.length() - 1);
+            PendingCall call = array.get(index);
+            if (call == MOVED) {
+                this.awaitResize(array);
+                continue;
+            }
+            if (call == null || call.getTag() != tag) {
+                break;
+            }
+            if (array.compareAndSet(index, call, null)) {
+                this.size.decrementAndGet();
+                return call;
+            }
+            // 槽位被并发取出或迁移, 重新读取
+        }
+
+        PendingCall call = null;
+        if (!this.overflow.isEmpty()) {
+            call = this.overflow.remove(tag);
+            if (call != null) {
+                this.size.decrementAndGet();
+            }
+        }
+        return call;
+    }
+
+    /**
+     * 移除指定的调用, 调用已经被取出时不做任何操作
+     *
+     * @param call 要移除的调用
+     * @return 如果成功移除则为 <code>true</code>, 否则为 <code>false</code>
+     */
+    public boolean remove(PendingCall call) {
+        AtomicReferenceArray<PendingCall> array;
+        while ((array = this.slots) != null) {
+            int index = (int) call.getTag() & (array.length() - 1);
+            PendingCall current = array.get(index);
+            if (current == MOVED) {
+                this.awaitResize(array);
+                continue;
+            }
+            if (current != call) {
+                break;
+            }
+            if (array.compareAndSet(index, call, null)) {
+                this.size.decrementAndGet();
+                return true;
+            }
+        }
+
+        if (this.overflow.remove(call.getTag(), call)) {
+            this.size.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 以指定的异常结束所有等待响应的调用
+     *
+     * @param errorFactory 为每个调用创建异常的方法
+     */
+    public void failAll(Supplier<? extends Exception> errorFactory) {
+        this.forEach(call -> true, errorFactory);
+    }
+
+    /**
+     * 结束所有超过等待期限的调用
+     *
+     * @param now {@link System#nanoTime()} 的值
+     */
+    public void sweep(long now) {
+        this.forEach(call -> call.isExpired(now), JsonRpcTimeoutException::new);
+    }
+    //endregion
+
+    //region --私有方法--
+    private AtomicReferenceArray<PendingCall> getSlots() {
+        AtomicReferenceArray<PendingCall> array = this.slots;
+        if (array == null) {
+            synchronized (this) {
+                array = this.slots;
+                if (array == null) {
+                    array = new AtomicReferenceArray<>(Math.min(INITIAL_CAPACITY, this.maxCapacity));
+                    this.slots = array;
+                }
+            }
+        }
+        return array;
+    }
+
+    private void resize(AtomicReferenceArray<PendingCall> array) {
+        if (!this.isResizing.compareAndSet(false, true)) {
+            this.awaitResize(array);
+            return;
+        }
+
+        try {
+            if (this.slots != array) {
+                return;
+            }
+
+            // 逐个槽位迁移并标记, 迁移完成后才发布新数组, 在此之前访问已迁移槽位的线程等待发布
+            AtomicReferenceArray<PendingCall> newArray = new AtomicReferenceArray<>(array.length() << 1);
+            int mask = newArray.length() - 1;
+            for (int i = 0; i < array.length(); i++) {
+                PendingCall call = array.getAndSet(i, MOVED);
+                if (call != null) {
+                    newArray.set((int) call.getTag() & mask, call);
+                }
+            }
+            this.slots = newArray;
+        } finally {
+            this.isResizing.set(false);
+        }
+    }
+
+    private void awaitResize(AtomicReferenceArray<PendingCall> array) {
+        while (this.slots == array && this.isResizing.get()) {
+            Thread.yield();
+        }
+    }
+
+    private void forEach(Predicate<PendingCall> filter, Supplier<? extends Exception> errorFactory) {
+        // 遍历期间发生扩容时重新遍历新数组, 已结束的调用不会重复结束
+        AtomicReferenceArray<PendingCall> array;
+        do {
+            array = this.slots;
+            for (int i = 0; array != null && i < array.length() && this.size.get() > 0; i++) {
+                PendingCall call = array.get(i);
+                if (call != null && call != MOVED && filter.test(call) && this.remove(call)) {
+                    call.fail(errorFactory.get());
+                }
+            }
+        } while (this.isResizing.get() || array != this.slots);
+
+        for (PendingCall call : this.overflow.values()) {
+            if (filter.test(call) && this.remove(call)) {
+                call.fail(errorFactory.get());
+            }
+        }
+    }
+
+    private static void register(PendingCallTable table) {
+        // 登记表只被弱引用, 不再使用后由清扫任务移除
+        SWEEP_TABLES.add(new WeakReference<>(table));
+        if (IS_SWEEPER_STARTED.compareAndSet(false, true)) {
+            ScheduledThreadPoolExecutor sweeper = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "TcpRpcClient-Timeout");
+                thread.setDaemon(true);
+                return thread;
+            });
+            sweeper.scheduleWithFixedDelay(PendingCallTable::sweepAll, SWEEP_INTERVAL_MILLIS, SWEEP_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static void sweepAll() {
+        long now = System.nanoTime();
+        Iterator<WeakReference<PendingCallTable>> iterator = SWEEP_TABLES.iterator();
+        while (iterator.hasNext()) {
+            PendingCallTable table = iterator.next().get();
+            if (table == null) {
+                iterator.remove();
+            } else if (table.size() > 0) {
+                try {
+                    table.sweep(now);
+                } catch (RuntimeException ignored) {
+                    // 单个登记表的异常不应影响其他登记表的清扫
+                }
+            }
+        }
+    }
+    //endregion
+}
@@ -0,0 +1,22 @@
+package jie.runtime.rpc.tcp;
+
+/**
+ * 表示远程调用客户端在发送缓冲区超过高水位线时处理请求方式的枚举
+ *
+ * @author jiegg
+ */
+public enum TcpRpcBackpressureMode {
+    /**
+     * 表示忽略水位线, 请求总是直接加入发送队列
+     */
+    NONE,
+    /**
+     * 表示阻塞发起请求的线程, 直到客户端恢复可写或超过等待响应的时间
+     * <p>异步请求不阻塞发起请求的线程, 在客户端恢复可写后按顺序发送, 超过等待响应的时间仍未收到回应时以 {@link JsonRpcTimeoutException} 完成</p>
+     */
+    BLOCK,
+    /**
+     * 表示立即以 {@link JsonRpcBackpressureException} 拒绝请求
+     */
+    FAIL_FAST
+}
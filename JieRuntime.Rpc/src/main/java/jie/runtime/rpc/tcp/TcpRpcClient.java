@@ -5,38 +5,64 @@ import jie.runtime.net.sockets.event.ISocketClientEvent;
 import jie.runtime.net.sockets.event.SocketDataEventArgs;
 import jie.runtime.net.sockets.event.SocketEventArgs;
 import jie.runtime.net.sockets.event.SocketExceptionEventArgs;
+import jie.runtime.net.sockets.event.SocketFrameEventArgs;
+import jie.runtime.net.sockets.event.SocketWritabilityEventArgs;
 import jie.runtime.net.sockets.tcp.TcpClient;
+import jie.runtime.rpc.RpcBinaryCodec;
 import jie.runtime.rpc.RpcClientBase;
-import jie.runtime.rpc.RpcMethodConverter;
+import jie.runtime.rpc.RpcClientType;
+import jie.runtime.rpc.RpcCodec;
+import jie.runtime.rpc.RpcService;
+import jie.runtime.rpc.RpcServiceMethod;
 import jie.runtime.rpc.RpcTypeConverter;
 import jie.runtime.rpc.util.JsonUtils;
 import jie.runtime.utils.GuidUtils;
-import org.apache.commons.pool2.impl.GenericObjectPool;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.net.InetSocketAddress;
-import java.util.Arrays;
-import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.locks.LockSupport;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 基于 TCP 协议提供远程调用服务客户端
+ * <p>等待回应超过 {@link #getWaitResponseTime()} 时, 同步调用抛出 {@link JsonRpcTimeoutException}, 异步调用以该异常完成.
+ * 早期版本在超时后返回 <code>null</code>, 依赖该行为的调用方需要改为捕获此异常</p>
  *
  * @author jiegg
  */
 public class TcpRpcClient extends RpcClientBase {
 
     //region --字段--
+    private static volatile Executor defaultRequestExecutor;
+
     private InetSocketAddress remoteAddr;
     private final TcpClient client;
-    private final GenericObjectPool<TcpWait> waitPool;
-    private final ConcurrentMap<Long, TcpWait> waitReference;
+    private final PendingCallTable pendingCalls;
+    private final AtomicLong nextTag;
     private final FragmentCache fragmentCache;
+    private final Object writableLock;
+    private final Queue<DeferredSend> deferredSends;
+    private volatile TcpRpcBackpressureMode backpressureMode;
+    private volatile RpcCodec codec;
+    private volatile RpcCodec peerCodec;
+    private volatile boolean peerNativeVersion;
+    private volatile boolean outParameters;
+    private volatile Executor requestExecutor;
     //endregion
 
     //region --属性--
@@ -51,6 +77,168 @@ public class TcpRpcClient extends RpcClientBase {
         }
         return this.client.isRunning();
     }
+
+    /**
+     * 获取发送缓冲区超过高水位线时处理请求的方式
+     */
+    public TcpRpcBackpressureMode getBackpressureMode() {
+        return this.backpressureMode;
+    }
+
+    /**
+     * 设置发送缓冲区超过高水位线时处理请求的方式, 该设置只影响本端发起的请求, 不影响对请求的响应
+     *
+     * @param value 一个 {@link TcpRpcBackpressureMode}, 默认为 {@link TcpRpcBackpressureMode#NONE}
+     */
+    public void setBackpressureMode(TcpRpcBackpressureMode value) {
+        if (value == null) {
+            throw new NullPointerException("参数: value 是 null");
+        }
+        this.backpressureMode = value;
+    }
+
+    /**
+     * 设置底层客户端等待发送字节数的水位线
+     *
+     * @param low  低水位线, 等待发送的字节数回落到该值及以下时恢复可写
+     * @param high 高水位线, 等待发送的字节数超过该值时变为不可写
+     */
+    public void setWriteBufferWaterMark(int low, int high) {
+        this.client.setWriteBufferWaterMark(low, high);
+    }
+
+    /**
+     * 获取执行对端请求的执行器
+     */
+    public Executor getRequestExecutor() {
+        return this.requestExecutor;
+    }
+
+    /**
+     * 设置执行对端请求的执行器
+     * <p>服务方法可能会阻塞 (例如在方法中再次发起远程调用并等待回应), 因此请求不在分发器中执行, 以免占满分发器的线程后回应无法送达.
+     * 使用有界的执行器时应当保证其容量足以容纳同时阻塞的请求, 执行器拒绝的请求将以错误回应对端</p>
+     *
+     * @param value 一个 {@link Executor}, 默认为进程内共享的执行器, 按需创建守护线程, 空闲的线程将被回收
+     */
+    public void setRequestExecutor(Executor value) {
+        if (value == null) {
+            throw new NullPointerException("参数: value 是 null");
+        }
+        this.requestExecutor = value;
+    }
+
+    /**
+     * 获取当前客户端优先使用的编码器, 为 <code>null</code> 时只使用 Json 格式
+     */
+    public RpcCodec getCodec() {
+        return this.codec;
+    }
+
+    /**
+     * 设置当前客户端优先使用的编码器, 设置后将与对端重新协商
+     * <p>Json 格式的消息会附带该编码器的名称, 对端也支持该编码器时, 之后的请求和成功的回应都以该编码器编码,
+     * 不支持的对端 (例如 C# 客户端) 忽略该名称, 双方继续使用 Json 格式.
+     * 以编码器编码的回应只包含返回值, 因此开启 {@link #isOutParameters()} 时请求仍以 Json 格式发送</p>
+     * <p>使用 {@link RpcBinaryCodec} 时双方必须使用相同的类结构: 字段按位置编码, 不包含字段名称和版本信息,
+     * 也不识别 fastjson 的注解和自定义序列化器, 任意一方增删或重命名字段都会导致数据错乱</p>
+     *
+     * @param value 一个 {@link RpcCodec}, 默认为 <code>null</code>, 即只使用 Json 格式
+     */
+    public void setCodec(RpcCodec value) {
+        if (value != null) {
+            registerCodec(value);
+        }
+        this.codec = value;
+        this.peerCodec = null;
+    }
+
+    /**
+     * 获取与对端协商后使用的编码器, 尚未协商或对端不支持时为 <code>null</code>
+     */
+    public RpcCodec getNegotiatedCodec() {
+        return this.peerCodec;
+    }
+
+    /**
+     * 获取一个 {@link Boolean} 值, 指示 Json 格式的回应是否回传调用后的参数
+     */
+    public boolean isOutParameters() {
+        return this.outParameters;
+    }
+
+    /**
+     * 设置 Json 格式的回应是否回传调用后的参数
+     * <p>方法的返回值总是随回应返回, 不需要通过参数取回数据时可以关闭回传, 对端将不再序列化参数数组, 本端也不再回填参数.
+     * 不支持的对端 (例如 C# 客户端) 仍然回传参数, 本端忽略回传的参数. 只有关闭回传后请求才会使用协商的编码器</p>
+     *
+     * @param value 默认为 <code>true</code>
+     */
+    public void setOutParameters(boolean value) {
+        this.outParameters = value;
+    }
+
+    /**
+     * 获取消息分片的重组时限, 超过时限仍未收齐分片的消息将被丢弃
+     */
+    public Duration getReassemblyTimeout() {
+        return this.fragmentCache.getReassemblyTimeout();
+    }
+
+    /**
+     * 设置消息分片的重组时限, 超过时限仍未收齐分片的消息将被丢弃
+     *
+     * @param value 重组时限, 默认为 30 秒
+     */
+    public void setReassemblyTimeout(Duration value) {
+        this.fragmentCache.setReassemblyTimeout(value);
+    }
+
+    /**
+     * 获取当前连接正在重组的消息可以占用的最大字节数
+     */
+    public long getMaxReassemblyBytes() {
+        return this.fragmentCache.getMaxPendingBytes();
+    }
+
+    /**
+     * 设置当前连接正在重组的消息可以占用的最大字节数, 超过时从最早的消息开始丢弃
+     *
+     * @param value 最大字节数, 默认为 64 MiB
+     */
+    public void setMaxReassemblyBytes(long value) {
+        this.fragmentCache.setMaxPendingBytes(value);
+    }
+
+    /**
+     * 获取所有连接正在重组的消息可以占用的最大字节数
+     */
+    public static long getGlobalMaxReassemblyBytes() {
+        return FragmentCache.getGlobalMaxPendingBytes();
+    }
+
+    /**
+     * 设置所有连接正在重组的消息可以占用的最大字节数, 超过时各连接从最早的消息开始丢弃
+     *
+     * @param value 最大字节数, 默认为 256 MiB
+     */
+    public static void setGlobalMaxReassemblyBytes(long value) {
+        FragmentCache.setGlobalMaxPendingBytes(value);
+    }
+
+    /**
+     * 获取当前连接的消息分片重组统计信息
+     */
+    public TcpRpcReassemblyStatistics getReassemblyStatistics() {
+        return this.fragmentCache.getStatistics();
+    }
+
+    /**
+     * 获取所有连接的消息分片重组统计信息
+     */
+    public static TcpRpcReassemblyStatistics getGlobalReassemblyStatistics() {
+        return FragmentCache.getGlobalStatistics();
+    }
     //endregion
 
     //region --构造函数--
@@ -79,11 +267,18 @@ public class TcpRpcClient extends RpcClientBase {
         this.client.setPacketSize(TcpClient.DEFAULT_PACKET_SIZE);
         this.client.addListener(new TcpClientEventHandler());
 
-        // 创建对象池
-        this.waitPool = new GenericObjectPool<>(new TcpWaitObjectFactory());
-        this.waitReference = new ConcurrentHashMap<>();
+        this.pendingCalls = new PendingCallTable();
+
+        // 数据标识只需要在连接内唯一, 从随机位置开始递增, 便于区分不同客户端的请求
+        this.nextTag = new AtomicLong(GuidUtils.newInt64());
 
         this.fragmentCache = new FragmentCache();
+        this.writableLock = new Object();
+        this.deferredSends = new ConcurrentLinkedQueue<>();
+        this.backpressureMode = TcpRpcBackpressureMode.NONE;
+        this.codec = null;
+        this.outParameters = true;
+        this.requestExecutor = getDefaultRequestExecutor();
     }
     //endregion
 
@@ -111,6 +306,7 @@ public class TcpRpcClient extends RpcClientBase {
 
     /**
      * 向远程调用服务端发送数据, 并等待服务端的回应
+     * <p>超过等待响应时间时抛出 {@link JsonRpcTimeoutException}, 连接断开时抛出 {@link JsonRpcNetworkException}</p>
      *
      * @param tag  指定数据的唯一标识
      * @param data 要发送的数据
@@ -118,47 +314,77 @@ public class TcpRpcClient extends RpcClientBase {
      */
     @Override
     protected byte[] sendWaitResponse(long tag, byte[] data) throws Exception {
-        if (!this.waitReference.containsKey(tag)) {
-            try {
-                // 获取 TCP 等待对象
-                TcpWait wait = this.waitPool.borrowObject();
+        // 登记等待响应的调用, 必须在发送之前登记, 否则可能错过回应
+        PendingCall call = PendingCall.createSync(tag, this.getWaitResponseTime().toNanos());
+        this.pendingCalls.add(call);
+        try {
+            // TODO 加密数据
+            byte[] encryptData = data;
 
-                // 绑定 Tag 对象
-                this.waitReference.put(tag, wait);
+            // 按水位线限制发送, 避免对端过慢时无限堆积待发送的数据
+            this.awaitWritable();
 
-                // 设置等待的线程为自身线程
-                wait.setWaitThread(Thread.currentThread());
+            // 发送消息
+            this.send(new Packet(PacketType.REQUEST, tag, encryptData));
 
-                // TODO 加密数据
-                byte[] encryptData = data;
+            // 等待消息返回
+            byte[] receiveData = call.await();
 
-                // 发送消息
-                this.send(new Packet(PacketType.REQUEST, tag, encryptData));
+            // TODO 解密数据
 
-                // 等待消息返回
-                if (this.getWaitResponseTime().isZero()) {
-                    LockSupport.park();
-                } else {
-                    LockSupport.parkNanos(this.getWaitResponseTime().toNanos());
-                }
-                // 如果结果是 null 并且获取过响应状态, 表示传输出现了问题
-                if (wait.getResult() == null && wait.isResponse()) {
-                    throw new JsonRpcNetworkException();
-                }
+            return receiveData;
+        } finally {
+            this.pendingCalls.remove(call);
+        }
+    }
+
+    /**
+     * 向远程调用服务端发送数据, 并返回一个在收到服务端回应后完成的 {@link CompletableFuture}
+     * <p>调用线程不会等待回应, 回应由连接的接收线程交给调度器完成, 超过等待响应时间时以 {@link JsonRpcTimeoutException} 异常完成,
+     * 连接断开时以 {@link JsonRpcNetworkException} 异常完成. 调用线程也不会等待可写, {@link TcpRpcBackpressureMode#BLOCK} 模式下
+     * 不可写时请求将延后到恢复可写时发送</p>
+     *
+     * @param tag  指定数据的唯一标识
+     * @param data 要发送的数据
+     * @return 一个 {@link CompletableFuture}, 完成时包含服务端回应的数据
+     */
+    @Override
+    protected CompletableFuture<byte[]> sendWaitResponseAsync(long tag, byte[] data) {
+        PendingCall call = PendingCall.createAsync(tag, this.getWaitResponseTime().toNanos(), this.client.getDispatcher()::execute);
+        try {
+            // 登记等待响应的调用, 必须在发送之前登记, 否则可能错过回应
+            this.pendingCalls.add(call);
+        } catch (IllegalStateException e) {
+            call.fail(e);
+            return call.getFuture();
+        }
 
-                byte[] receiveData = wait.getResult();
+        try {
+            // TODO 加密数据
+            byte[] encryptData = data;
+            Packet packet = new Packet(PacketType.REQUEST, tag, encryptData);
 
-                // TODO 解密数据
+            // 阻塞模式下异步调用不等待可写, 在恢复可写后按顺序发送, 先于当前调用延后的请求没有发送完时也要排在其后
+            if (this.backpressureMode == TcpRpcBackpressureMode.BLOCK && this.client.isRunning()
+                    && (!this.client.isWritable() || !this.deferredSends.isEmpty())) {
+                this.deferredSends.add(new DeferredSend(call, packet));
 
-                return receiveData;
+                // 加入等待之前可能已经恢复可写, 此时不会再有可写事件
+                this.flushDeferredSends();
+                return call.getFuture();
+            }
+
+            // 按水位线限制发送, 可写或已断开时不会阻塞
+            this.awaitWritable();
 
-            } finally {
-                TcpWait wait = this.waitReference.remove(tag);
-                // 归还对象
-                this.waitPool.returnObject(wait);
+            // 发送消息
+            this.send(packet);
+        } catch (Exception e) {
+            if (this.pendingCalls.remove(call)) {
+                call.fail(e);
             }
         }
-        return null;
+        return call.getFuture();
     }
 
     /**
@@ -178,6 +404,7 @@ public class TcpRpcClient extends RpcClientBase {
 
     /**
      * 每当调用代理类型上的任何方法时，都会调用此方法
+     * <p>返回 {@link CompletableFuture} 的方法将通过 {@link #invokeAsync(Method, Object[])} 异步调用</p>
      *
      * @param targetMethod 调用者调用的方法
      * @param args         调用者传递给方法的参数
@@ -185,74 +412,226 @@ public class TcpRpcClient extends RpcClientBase {
      */
     @Override
     public Object invokeMethod(Method targetMethod, Object[] args) throws Throwable {
+        if (isAsyncMethod(targetMethod)) {
+            return this.invokeAsync(targetMethod, args);
+        }
+
+        // 生成请求数据
+        byte[] requestBody = this.createRequestBody(targetMethod, args);
+
+        // 发送请求
+        long tag = this.nextTag.getAndIncrement();
+        byte[] responseBody = this.sendWaitResponse(tag, requestBody);
+
+        // 有返回值的请求, 需要等待返回值
+        if (responseBody != null) {
+            return this.processResponseBody(targetMethod, args, responseBody);
+        }
+        return null;
+    }
+
+    /**
+     * 异步调用远程调用服务端的方法, 调用线程不会等待服务端的回应
+     * <p>返回的 {@link CompletableFuture} 在调度器的线程中完成, 远程调用出现的异常将以 {@link JsonRpcException} 异常完成</p>
+     *
+     * @param targetMethod 要调用的服务接口方法
+     * @param args         调用方法的参数
+     * @return 一个 {@link CompletableFuture}, 在收到服务端的回应后完成
+     */
+    @Override
+    public CompletableFuture<Object> invokeAsync(Method targetMethod, Object[] args) {
+        if (targetMethod == null) {
+            throw new NullPointerException("参数: targetMethod 是 null");
+        }
+
+        Object[] invokeArgs = args == null ? new Object[0] : args;
+        byte[] requestBody;
+        try {
+            // 生成请求数据
+            requestBody = this.createRequestBody(targetMethod, invokeArgs);
+        } catch (Throwable e) {
+            CompletableFuture<Object> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        // 发送请求, 收到回应后在完成回调中处理
+        long tag = this.nextTag.getAndIncrement();
+        return this.sendWaitResponseAsync(tag, requestBody)
+                .thenApply(responseBody -> this.processResponseBody(targetMethod, invokeArgs, responseBody));
+    }
+    //endregion
+
+    //region --私有方法--
+    private static Executor getDefaultRequestExecutor() {
+        if (defaultRequestExecutor == null) {
+            synchronized (TcpRpcClient.class) {
+                if (defaultRequestExecutor == null) {
+                    // 与早期版本每个客户端一个的缓存线程池相同, 不限制线程数量, 阻塞的请求不会使其他请求排队等待
+                    AtomicInteger threadNumber = new AtomicInteger(1);
+                    defaultRequestExecutor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "TcpRpcClient-Request-" + threadNumber.getAndIncrement());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        return defaultRequestExecutor;
+    }
+
+    private byte[] createRequestBody(Method targetMethod, Object[] args) throws IOException {
+        // 对端支持时以协商的编码器编码, 编码器的回应不回传参数, 需要回传参数时仍使用 Json 格式
+        RpcCodec negotiated = this.peerCodec;
+        if (negotiated != null && !this.outParameters) {
+            return BinaryRpcRequest.encode(negotiated, this.getType(), targetMethod, args);
+        }
 
         // 获取方法的基本信息
         Class<?> targetType = targetMethod.getDeclaringClass();
         Parameter[] targetParameters = targetMethod.getParameters();
 
-        // 组装基本请求信息
+        // 组装基本请求信息, 对端表明支持版本 4 后才以原生 Json 节点嵌入参数值
         JsonRpcRequest request = new JsonRpcRequest();
+        request.setVersion(this.peerNativeVersion ? JsonRpcRequest.VERSION_4 : JsonRpcRequest.VERSION_3);
+        request.setMaxVersion(JsonRpcRequest.VERSION_4);
+        request.setOutParameters(this.outParameters ? null : Boolean.FALSE);
         request.setType(targetType.getSimpleName());
         request.setMethod(targetMethod.getName());
         request.setClientType(this.getType());
+        request.setCodecs(this.getCodecNames());
         request.setParameters(new JsonRpcParameter[targetParameters.length]);
 
         // 填充请求参数
         for (int i = 0; i < args.length; i++) {
-            JsonRpcParameter jsonParameter = new JsonRpcParameter();
-            jsonParameter.setType(targetParameters[i].getType().getSimpleName());
-            jsonParameter.setValue(args[i]);
-
-            request.getParameters()[i] = jsonParameter;
+            request.getParameters()[i] = JsonRpcParameter.create(targetParameters[i].getType(), args[i], request.getVersion());
         }
 
         // 生成请求数据
-        byte[] requestBody = JsonUtils.serializeToUtf8Bytes(request);
+        return JsonUtils.serializeToUtf8Bytes(request);
+    }
 
-        // 发送请求
-        long tag = GuidUtils.newGuidInt64();
-        byte[] responseBody = this.sendWaitResponse(tag, requestBody);
+    private Object processResponseBody(Method targetMethod, Object[] args, byte[] responseBody) {
+        // 以编码器编码的回应只包含返回值
+        if (BinaryRpcRequest.isBinary(responseBody)) {
+            try {
+                BinaryRpcResponse binaryResponse = BinaryRpcResponse.parse(responseBody, CODEC_MAP);
+                this.negotiate(binaryResponse.getCodec().getName());
+                return binaryResponse.readResult(getResultType(targetMethod));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
 
-        // 有返回值的请求, 需要等待返回值
-        if (responseBody != null) {
-            JsonRpcResponse response = JsonUtils.deserialize(responseBody, JsonRpcResponse.class);
-
-            // 如果有错误对象的存在, 则表示远程调用出现的异常
-            if (response.getError() != null) {
-                // 错误处理
-                throw new JsonRpcException(response.getError());
-            } else {
-
-                // 使用对端的客户端类型获取类型转换器
-                RpcTypeConverter rpcTypeConverter = TYPE_CONVERTER_MAP.get(response.getClientType());
-
-                // 回填参数
-                for (int i = 0; i < targetParameters.length; i++) {
-                    Class<?> parameterType = targetParameters[i].getType();
-                    String responseParameterType = response.getParameters()[i].getType();
-
-                    // 使用类型转换器做类型适配
-                    if (rpcTypeConverter != null && rpcTypeConverter.isEquals(parameterType, responseParameterType)) {
-                        if (parameterType.getSimpleName().equals(String.class.getSimpleName())) {
-                            // (仅Java) 判断是否是字符串
-                            args[i] = response.getParameters()[i].getValue();
-                        } else {
-                            // 如果不是字符串类型, 使用Json序列化
-                            args[i] = JsonUtils.deserialize((String) response.getParameters()[i].getValue(), parameterType);
-                        }
+        JsonRpcResponse response = JsonRpcResponse.parse(responseBody);
+        if (response.getCodecs() != null) {
+            this.negotiate(response.getCodecs());
+        }
+        if (JsonRpcRequest.isNativeSupported(response.getVersion(), response.getMaxVersion())) {
+            this.peerNativeVersion = true;
+        }
+
+        // 如果有错误对象的存在, 则表示远程调用出现的异常
+        if (response.getError() != null) {
+            // 错误处理
+            throw new JsonRpcException(response.getError());
+        }
+
+        // 按方法声明的返回值类型解析返回值
+        Object result = response.readResult(getResultType(targetMethod));
+
+        // 关闭回传参数时忽略对端回传的参数
+        JsonRpcParameter[] responseParameters = response.getParameters();
+        if (!this.outParameters || responseParameters == null) {
+            return result;
+        }
+
+        // 使用对端的客户端类型获取类型转换器
+        RpcTypeConverter rpcTypeConverter = TYPE_CONVERTER_MAP.get(response.getClientType());
+        Parameter[] targetParameters = targetMethod.getParameters();
+
+        // 回填参数
+        for (int i = 0; i < targetParameters.length && i < responseParameters.length; i++) {
+            Class<?> parameterType = targetParameters[i].getType();
+            String responseParameterType = responseParameters[i].getType();
+
+            // 使用类型转换器做类型适配, 按回应的协议版本解析参数值
+            if (rpcTypeConverter != null && rpcTypeConverter.isEquals(parameterType, responseParameterType)) {
+                args[i] = responseParameters[i].bind(targetParameters[i].getParameterizedType(), response.getVersion());
+            }
+        }
+        return result;
+    }
+
+    private String[] getCodecNames() {
+        RpcCodec preferred = this.codec;
+        return preferred == null ? null : new String[]{preferred.getName()};
+    }
+
+    private void negotiate(String... codecNames) {
+        // 对端附带的编码器名称中包含本端优先使用的编码器时协商成功
+        RpcCodec preferred = this.codec;
+        if (preferred == null || this.peerCodec == preferred) {
+            return;
+        }
+
+        for (String name : codecNames) {
+            if (preferred.getName().equals(name)) {
+                this.peerCodec = preferred;
+                return;
+            }
+        }
+    }
+
+    private void awaitWritable() throws InterruptedException {
+        if (this.backpressureMode == TcpRpcBackpressureMode.NONE || this.client.isWritable()) {
+            return;
+        }
+
+        if (this.backpressureMode == TcpRpcBackpressureMode.FAIL_FAST) {
+            throw new JsonRpcBackpressureException();
+        }
+
+        // 阻塞直到恢复可写, 最长等待时间与等待响应的时间相同
+        long timeout = this.getWaitResponseTime().toMillis();
+        long deadline = System.currentTimeMillis() + timeout;
+        synchronized (this.writableLock) {
+            while (this.client.isRunning() && !this.client.isWritable()) {
+                if (timeout == 0) {
+                    this.writableLock.wait();
+                } else {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        throw new JsonRpcBackpressureException();
                     }
+                    this.writableLock.wait(remaining);
                 }
             }
         }
-        return null;
     }
-    //endregion
 
-    //region --私有方法--
-    private void send(Packet packet) throws IOException {
-        Iterable<Fragment> fragments = FragmentCache.createFragments(packet.getType(), packet.getTag(), packet.getData());
-        for (Fragment fragment : fragments) {
-            this.client.send(fragment.getBytes());
+    private void flushDeferredSends() {
+        DeferredSend deferred;
+        while (this.client.isWritable() && (deferred = this.deferredSends.poll()) != null) {
+            // 等待期间已超时或因断开连接而结束的调用不再发送
+            if (deferred.call.getFuture().isDone()) {
+                continue;
+            }
+            try {
+                this.send(deferred.packet);
+            } catch (RuntimeException e) {
+                if (this.pendingCalls.remove(deferred.call)) {
+                    deferred.call.fail(e);
+                }
+            }
+        }
+    }
+
+    private void send(Packet packet) {
+        // 分片头与封包数据的视图一起交给传输层, 封包数据最多复制一次
+        FragmentEncoder encoder = new FragmentEncoder(packet.getType(), packet.getTag(), packet.getData());
+        for (int i = 0; i < encoder.getCount(); i++) {
+            this.client.send(encoder.encode(i));
         }
     }
     //endregion
@@ -280,6 +659,42 @@ public class TcpRpcClient extends RpcClientBase {
         @Override
         public void onDisconnected(Object sender, SocketEventArgs args) {
             TcpRpcClient.this.invokeDisconnectedEvent();
+
+            // 丢弃未收齐分片的消息
+            TcpRpcClient.this.fragmentCache.clear();
+
+            // 重新连接后需要重新协商编码器和协议版本
+            TcpRpcClient.this.peerCodec = null;
+            TcpRpcClient.this.peerNativeVersion = false;
+
+            // 结束所有等待响应的调用
+            TcpRpcClient.this.pendingCalls.failAll(JsonRpcNetworkException::new);
+
+            // 延后发送的调用已随上面的调用一起结束
+            TcpRpcClient.this.deferredSends.clear();
+
+            // 唤醒等待可写的线程
+            synchronized (TcpRpcClient.this.writableLock) {
+                TcpRpcClient.this.writableLock.notifyAll();
+            }
+        }
+
+        /**
+         * 表示客户端可写状态发生改变的事件
+         *
+         * @param sender 引发此事件的事件源
+         * @param args   可写状态事件参数
+         */
+        @Override
+        public void onWritabilityChanged(Object sender, SocketWritabilityEventArgs args) {
+            if (args.isWritable()) {
+                synchronized (TcpRpcClient.this.writableLock) {
+                    TcpRpcClient.this.writableLock.notifyAll();
+                }
+
+                // 发送阻塞模式下延后的异步调用
+                TcpRpcClient.this.flushDeferredSends();
+            }
         }
 
         /**
@@ -290,9 +705,26 @@ public class TcpRpcClient extends RpcClientBase {
          */
         @Override
         public void onReceiveData(Object sender, SocketDataEventArgs args) {
+            this.receiveFragment(Fragment.tryParse(args.getData()));
+        }
+
+        /**
+         * 表示客户端收到远程服务器封包的事件, 直接从封包视图中解析消息分片
+         *
+         * @param sender 引发此事件的事件源
+         * @param args   封包事件参数
+         */
+        @Override
+        public void onReceiveFrame(Object sender, SocketFrameEventArgs args) {
+            this.receiveFragment(Fragment.tryParse(args.getFrame()));
+        }
 
-            // 将收到的消息处理为消息分片
-            Fragment fragment = Fragment.tryParse(args.getData());
+        /**
+         * 将收到的消息分片送入缓存重组, 并处理重组完成的封包
+         *
+         * @param fragment 收到的消息分片, 解析失败时为 <code>null</code>
+         */
+        private void receiveFragment(Fragment fragment) {
             if (fragment != null) {
                 // 将消息分片送入缓存重组
                 TcpRpcClient.this.fragmentCache.push(fragment);
@@ -303,126 +735,13 @@ public class TcpRpcClient extends RpcClientBase {
                     if (packet != null) {
                         switch (packet.getType()) {
                             case REQUEST:
-                                JsonRpcRequest request = null;
-                                JsonRpcResponse response = null;
-
-                                try {
-                                    request = JsonUtils.deserialize(packet.getData(), JsonRpcRequest.class);
-
-                                    // 根据类型获取指定的服务
-                                    if (TcpRpcClient.this.getServices().containsKey(request.getType())) {
-
-                                        // 获取服务类型对应的类型接口
-                                        Class<?> type = TcpRpcClient.this.getServices().get(request.getType()).getType();
-
-                                        // 获取指定的成员
-                                        RpcTypeConverter typeConverter = TYPE_CONVERTER_MAP.get(request.getClientType());
-                                        RpcMethodConverter methodConverter = METHOD_CONVERTER_MAP.get(request.getClientType());
-                                        JsonRpcRequest finalRequest = request;
-                                        Optional<Method> methodOptional = Arrays.stream(type.getDeclaredMethods())
-                                                .filter(method -> {
-
-                                                    // 使用指定客户端方法转换器比对服务方法和请求方法是否一致
-                                                    if (methodConverter != null && methodConverter.isEquals(method, finalRequest.getMethod())) {
-
-                                                        // 获取参数列表
-                                                        Parameter[] parameters = method.getParameters();
-
-                                                        // 参数个数判断
-                                                        if (parameters.length != finalRequest.getParameters().length) {
-                                                            return false;
-                                                        }
-
-                                                        // 参数类型判断
-                                                        for (int i = 0; i < parameters.length; i++) {
-
-                                                            // 使用指定的客户端类型转换器比服务方法的参数类型是否一致
-                                                            if (!typeConverter.isEquals(parameters[i].getType(), finalRequest.getParameters()[i].getType())) {
-                                                                return false;
-                                                            }
-                                                        }
-                                                        return true;
-                                                    }
-                                                    return false;
-                                                })
-                                                .findFirst();
-
-                                        // 如果方法存在
-                                        if (methodOptional.isPresent()) {
-
-                                            Method method = methodOptional.get();
-
-                                            // 创建传参数组
-                                            Object[] invokeArgs = new Object[request.getParameters().length];
-
-                                            // 获取方法中所有参数
-                                            Parameter[] parameters = method.getParameters();
-
-                                            // 将 Json 转换为对象
-                                            for (int i = 0; i < invokeArgs.length; i++) {
-
-                                                Class<?> parameterType = parameters[i].getType();
-                                                invokeArgs[i] = JsonUtils.deserialize((String) request.getParameters()[i].getValue(), parameterType);
-                                            }
-
-                                            // 调用方法
-                                            Object returnValue = method.invoke(TcpRpcClient.this.getServices().get(request.getType()).getInstance(), invokeArgs);
-
-                                            // 赋值返回值
-                                            response = JsonRpcResponse.createResult(returnValue);
-                                            response.setParameters(new JsonRpcParameter[invokeArgs.length]);
-
-                                            // 赋值改变的参数
-                                            for (int i = 0; i < invokeArgs.length; i++) {
-                                                JsonRpcParameter parameter = new JsonRpcParameter();
-                                                parameter.setType(parameters[i].getType().getSimpleName());
-                                                parameter.setValue(invokeArgs[i]);
-
-                                                response.getParameters()[i] = parameter;
-                                            }
-                                        } else {
-                                            response = JsonRpcResponse.createError(JsonRpcResponseError.createMethodNotFoundError(request.getType(), request.getMethod()));
-                                        }
-                                    } else {
-                                        response = JsonRpcResponse.createError(JsonRpcResponseError.createTypeNotFoundError(request.getType()));
-                                    }
-                                } catch (JSONException e) {
-                                    // 包装成Json解析错误
-                                    response = JsonRpcResponse.createError(JsonRpcResponseError.createFormatterError(e));
-                                } catch (InvocationTargetException e) {
-                                    // 包装成应用异常错误
-                                    response = JsonRpcResponse.createError(JsonRpcResponseError.createApplicationError(String.format("在执行方法“%s”时发生了异常", request.getMethod()), e));
-                                } catch (IllegalAccessException e) {
-                                    // 包装成应用异常错误
-                                    response = JsonRpcResponse.createError(JsonRpcResponseError.createApplicationError(String.format("无法执行方法“%s”, 指定的方法没有执行权限", request.getMethod()), e));
-                                } catch (Throwable e) {
-                                    // 包装成系统错误
-                                    response = JsonRpcResponse.createError(JsonRpcResponseError.createSystemError("发生错误", e));
-                                }
-
-                                byte[] responseData = null;
-                                do {
-                                    try {
-                                        responseData = JsonUtils.serializeToUtf8Bytes(response);
-                                    } catch (Exception e) {
-                                        // 发送一个错误防止对端卡住, 这个Json是一定可以被序列化的
-                                        response = JsonRpcResponse.createError(JsonRpcResponseError.createSystemError("发生错误", e));
-                                    }
-                                } while (responseData != null);
-
-                                try {
-                                    TcpRpcClient.this.sendResponse(packet.getTag(), responseData);
-                                } catch (IOException e) {
-                                    TcpRpcClient.this.invokeExceptionEvent(e);
-                                }
+                                this.executeRequest(packet);
                                 break;
                             case RESPONSE:
-                                // 处理对端的 TCP 响应
-                                TcpWait wait = TcpRpcClient.this.waitReference.get(packet.getTag());
-                                if (wait != null) {
-                                    wait.setResponse(true);
-                                    wait.setResult(packet.getData());
-                                    LockSupport.unpark(wait.getWaitThread());
+                                // 处理对端的 TCP 响应, 异步调用的回调由调度器执行
+                                PendingCall call = TcpRpcClient.this.pendingCalls.take(packet.getTag());
+                                if (call != null) {
+                                    call.complete(packet.getData());
                                 }
                                 break;
                         }
@@ -432,6 +751,222 @@ public class TcpRpcClient extends RpcClientBase {
             }
         }
 
+        /**
+         * 在请求执行器中处理请求, 执行器拒绝时以错误回应对端
+         *
+         * @param packet 请求封包
+         */
+        private void executeRequest(Packet packet) {
+            try {
+                // 请求的执行可能会阻塞 (例如在服务方法中再次发起远程调用), 不能占用分发器的线程
+                TcpRpcClient.this.requestExecutor.execute(() -> this.processRequest(packet));
+            } catch (RejectedExecutionException e) {
+                // 不能在当前的有序接收线程中执行, 否则阻塞的请求会使同一连接的回应无法送达
+                this.reply(packet.getTag(), JsonRpcResponse.createError(JsonRpcResponseError.createSystemError("请求执行器拒绝执行请求", e)));
+            }
+        }
+
+        /**
+         * 处理远程调用服务端发来的请求, 并将执行结果回应给服务端
+         *
+         * @param packet 请求封包
+         */
+        private void processRequest(Packet packet) {
+            String methodName = null;
+            JsonRpcResponse response = null;
+
+            try {
+                String serviceName;
+                RpcClientType clientType;
+                String[] parameterTypeNames;
+                JsonRpcRequest request = null;
+                BinaryRpcRequest binaryRequest = null;
+
+                if (BinaryRpcRequest.isBinary(packet.getData())) {
+                    // 以编码器编码的请求, 参数值在找到方法后再按参数类型读取
+                    binaryRequest = BinaryRpcRequest.parse(packet.getData(), CODEC_MAP);
+                    TcpRpcClient.this.negotiate(binaryRequest.getCodec().getName());
+
+                    serviceName = binaryRequest.getType();
+                    methodName = binaryRequest.getMethod();
+                    clientType = binaryRequest.getClientType();
+                    parameterTypeNames = binaryRequest.getParameterTypeNames();
+                } else {
+                    request = JsonRpcRequest.parse(packet.getData());
+                    if (request.getCodecs() != null) {
+                        TcpRpcClient.this.negotiate(request.getCodecs());
+                    }
+                    if (JsonRpcRequest.isNativeSupported(request.getVersion(), request.getMaxVersion())) {
+                        TcpRpcClient.this.peerNativeVersion = true;
+                    }
+
+                    serviceName = request.getType();
+                    methodName = request.getMethod();
+                    clientType = request.getClientType();
+                    if (request.getParameters() == null) {
+                        request.setParameters(new JsonRpcParameter[0]);
+                    }
+                    parameterTypeNames = new String[request.getParameters().length];
+                    for (int i = 0; i < parameterTypeNames.length; i++) {
+                        parameterTypeNames[i] = request.getParameters()[i].getType();
+                    }
+                }
+
+                // 根据类型获取指定的服务
+                RpcService service = TcpRpcClient.this.getServices().get(serviceName);
+                if (service != null) {
+
+                    // 以请求的参数类型名称在服务的方法索引中查找方法
+                    RpcServiceMethod method = service.getMethod(clientType, methodName, parameterTypeNames);
+
+                    // 如果方法存在
+                    if (method != null) {
+
+                        // 创建传参数组
+                        Object[] invokeArgs;
+                        if (binaryRequest != null) {
+                            invokeArgs = binaryRequest.readArguments(method);
+                        } else {
+                            invokeArgs = new Object[parameterTypeNames.length];
+
+                            // 按请求的协议版本将参数值解析为方法的参数类型
+                            for (int i = 0; i < invokeArgs.length; i++) {
+                                invokeArgs[i] = request.getParameters()[i].bind(method.getGenericParameterType(i), request.getVersion());
+                            }
+                        }
+
+                        // 调用方法
+                        Object returnValue = method.invoke(invokeArgs);
+
+                        // 以请求的格式回应
+                        RpcCodec codec = binaryRequest == null ? null : binaryRequest.getCodec();
+                        String version = request != null && JsonRpcRequest.isNativeSupported(request.getVersion(), request.getMaxVersion()) ? JsonRpcRequest.VERSION_4 : JsonRpcRequest.VERSION_3;
+                        Object[] outArgs = request != null && Boolean.FALSE.equals(request.getOutParameters()) ? null : invokeArgs;
+
+                        // 异步方法在完成后再回应, 不占用当前线程等待
+                        if (returnValue instanceof CompletionStage<?>) {
+                            String asyncMethodName = methodName;
+                            ((CompletionStage<?>) returnValue).whenComplete((result, e) -> {
+                                if (e == null) {
+                                    this.replyResult(packet.getTag(), codec, version, method, result, outArgs);
+                                } else {
+                                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                                    this.reply(packet.getTag(), JsonRpcResponse.createError(JsonRpcResponseError.createApplicationError(String.format("在执行方法“%s”时发生了异常", asyncMethodName), cause)));
+                                }
+                            });
+                            return;
+                        }
+
+                        // 赋值返回值
+                        this.replyResult(packet.getTag(), codec, version, method, returnValue, outArgs);
+                        return;
+                    } else {
+                        response = JsonRpcResponse.createError(JsonRpcResponseError.createMethodNotFoundError(serviceName, methodName));
+                    }
+                } else {
+                    response = JsonRpcResponse.createError(JsonRpcResponseError.createTypeNotFoundError(serviceName));
+                }
+            } catch (JSONException | IOException e) {
+                // 包装成格式错误
+                response = JsonRpcResponse.createError(JsonRpcResponseError.createFormatterError(e));
+            } catch (InvocationTargetException e) {
+                // 包装成应用异常错误
+                response = JsonRpcResponse.createError(JsonRpcResponseError.createApplicationError(String.format("在执行方法“%s”时发生了异常", methodName), e));
+            } catch (IllegalAccessException e) {
+                // 包装成应用异常错误
+                response = JsonRpcResponse.createError(JsonRpcResponseError.createApplicationError(String.format("无法执行方法“%s”, 指定的方法没有执行权限", methodName), e));
+            } catch (Throwable e) {
+                // 包装成系统错误
+                response = JsonRpcResponse.createError(JsonRpcResponseError.createSystemError("发生错误", e));
+            }
+
+            this.reply(packet.getTag(), response);
+        }
+
+        /**
+         * 以请求使用的格式回应调用成功的结果, 以编码器编码的请求只回应返回值
+         *
+         * @param tag         请求的唯一标识
+         * @param codec       请求使用的编码器, Json 格式的请求为 <code>null</code>
+         * @param version     回应 Json 格式请求时使用的协议版本
+         * @param method      被调用的方法
+         * @param returnValue 方法的返回值
+         * @param invokeArgs  调用方法时传递的参数, 为 <code>null</code> 时不回传参数
+         */
+        private void replyResult(long tag, RpcCodec codec, String version, RpcServiceMethod method, Object returnValue, Object[] invokeArgs) {
+            if (codec == null) {
+                this.reply(tag, this.createResultResponse(returnValue, method, invokeArgs, version));
+                return;
+            }
+
+            byte[] responseData;
+            try {
+                responseData = BinaryRpcResponse.encode(codec, TcpRpcClient.this.getType(), getResultType(method.getMethod()), returnValue);
+            } catch (Exception e) {
+                // 返回值无法编码时以 Json 格式回应错误
+                this.reply(tag, JsonRpcResponse.createError(JsonRpcResponseError.createSystemError("发生错误", e)));
+                return;
+            }
+
+            try {
+                TcpRpcClient.this.sendResponse(tag, responseData);
+            } catch (IOException e) {
+                TcpRpcClient.this.invokeExceptionEvent(e);
+            }
+        }
+
+        /**
+         * 创建包含返回值和调用后参数的回应
+         *
+         * @param returnValue 方法的返回值
+         * @param method      被调用的方法
+         * @param invokeArgs  调用方法时传递的参数, 为 <code>null</code> 时不回传参数
+         * @param version     回应使用的协议版本
+         * @return 一个 {@link JsonRpcResponse}, 表示调用成功的回应
+         */
+        private JsonRpcResponse createResultResponse(Object returnValue, RpcServiceMethod method, Object[] invokeArgs, String version) {
+            // 赋值返回值, 请求方支持版本 4 时以原生 Json 节点回传返回值和参数
+            JsonRpcResponse response = JsonRpcResponse.createResult(JsonRpcParameter.encodeValue(getResultType(method.getMethod()), returnValue, version));
+            response.setVersion(version);
+            response.setCodecs(TcpRpcClient.this.getCodecNames());
+            if (invokeArgs == null) {
+                return response;
+            }
+            response.setParameters(new JsonRpcParameter[invokeArgs.length]);
+
+            // 赋值改变的参数
+            for (int i = 0; i < invokeArgs.length; i++) {
+                response.getParameters()[i] = JsonRpcParameter.create(method.getParameterType(i), invokeArgs[i], response.getVersion());
+            }
+            return response;
+        }
+
+        /**
+         * 将回应序列化后发送给远程调用服务端
+         *
+         * @param tag      请求的唯一标识
+         * @param response 要发送的回应
+         */
+        private void reply(long tag, JsonRpcResponse response) {
+            byte[] responseData = null;
+            do {
+                try {
+                    response.setMaxVersion(JsonRpcRequest.VERSION_4);
+                    response.setClientType(TcpRpcClient.this.getType());
+                    responseData = JsonUtils.serializeToUtf8Bytes(response);
+                } catch (Exception e) {
+                    // 发送一个错误防止对端卡住, 这个Json是一定可以被序列化的
+                    response = JsonRpcResponse.createError(JsonRpcResponseError.createSystemError("发生错误", e));
+                }
+            } while (responseData == null);
+
+            try {
+                TcpRpcClient.this.sendResponse(tag, responseData);
+            } catch (IOException e) {
+                TcpRpcClient.this.invokeExceptionEvent(e);
+            }
+        }
+
         /**
          * 表示客户端发送数据到远程服务器的事件
          *
@@ -454,5 +989,19 @@ public class TcpRpcClient extends RpcClientBase {
             TcpRpcClient.this.invokeExceptionEvent(args.getException());
         }
     }
+
+    /**
+     * 阻塞模式下等待恢复可写后发送的异步调用
+     */
+    private static class DeferredSend {
+
+        private final PendingCall call;
+        private final Packet packet;
+
+        DeferredSend(PendingCall call, Packet packet) {
+            this.call = call;
+            this.packet = packet;
+        }
+    }
     //endregion
 }
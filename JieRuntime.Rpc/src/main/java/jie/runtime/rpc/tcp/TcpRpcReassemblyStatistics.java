@@ -0,0 +1,102 @@
+package jie.runtime.rpc.tcp;
+
+import java.io.Serializable;
+
+/**
+ * 表示消息分片重组统计信息快照的类
+ *
+ * @author jiegg
+ */
+public class TcpRpcReassemblyStatistics implements Serializable {
+
+    //region --字段--
+    private final int pendingCount;
+    private final long pendingBytes;
+    private final long expiredCount;
+    private final long evictedCount;
+    private final long orphanCount;
+    //endregion
+
+    //region --属性--
+
+    /**
+     * 获取正在重组的消息数量
+     */
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    /**
+     * 获取正在重组的消息已占用的字节数
+     */
+    public long getPendingBytes() {
+        return pendingBytes;
+    }
+
+    /**
+     * 获取因超过重组时限而丢弃的消息数量
+     */
+    public long getExpiredCount() {
+        return expiredCount;
+    }
+
+    /**
+     * 获取因超过内存上限或连接断开而丢弃的消息数量
+     */
+    public long getEvictedCount() {
+        return evictedCount;
+    }
+
+    /**
+     * 获取因所属的消息不在重组中而丢弃的分片数量, 这些分片的消息通常已超时或被驱逐
+     */
+    public long getOrphanCount() {
+        return orphanCount;
+    }
+    //endregion
+
+    //region --构造函数--
+
+    /**
+     * 初始化 {@link TcpRpcReassemblyStatistics} 类的新实例
+     *
+     * @param pendingCount 正在重组的消息数量
+     * @param pendingBytes 正在重组的消息已占用的字节数
+     * @param expiredCount 因超时而丢弃的消息数量
+     * @param evictedCount 因超过内存上限或连接断开而丢弃的消息数量
+     */
+    public TcpRpcReassemblyStatistics(int pendingCount, long pendingBytes, long expiredCount, long evictedCount) {
+        this(pendingCount, pendingBytes, expiredCount, evictedCount, 0);
+    }
+
+    /**
+     * 初始化 {@link TcpRpcReassemblyStatistics} 类的新实例
+     *
+     * @param pendingCount 正在重组的消息数量
+     * @param pendingBytes 正在重组的消息已占用的字节数
+     * @param expiredCount 因超时而丢弃的消息数量
+     * @param evictedCount 因超过内存上限或连接断开而丢弃的消息数量
+     * @param orphanCount  因所属的消息不在重组中而丢弃的分片数量
+     */
+    public TcpRpcReassemblyStatistics(int pendingCount, long pendingBytes, long expiredCount, long evictedCount, long orphanCount) {
+        this.pendingCount = pendingCount;
+        this.pendingBytes = pendingBytes;
+        this.expiredCount = expiredCount;
+        this.evictedCount = evictedCount;
+        this.orphanCount = orphanCount;
+    }
+    //endregion
+
+    //region --公开方法--
+    @Override
+    public String toString() {
+        return "TcpRpcReassemblyStatistics{" +
+                "pendingCount=" + pendingCount +
+                ", pendingBytes=" + pendingBytes +
+                ", expiredCount=" + expiredCount +
+                ", evictedCount=" + evictedCount +
+                ", orphanCount=" + orphanCount +
+                '}';
+    }
+    //endregion
+}
@@ -4,6 +4,7 @@ import jie.runtime.io.BufferReader;
 import jie.runtime.io.BufferWriter;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 /**
  * {@link BufferWriter} 工具
@@ -48,4 +49,78 @@ public class BufferUtils {
         buffer.write((short) data.length);
         buffer.write(data);
     }
+
+    /**
+     * 从流中指定位置开始, 读取以 32 位长度开头的令牌数据
+     *
+     * @param buffer 要读取的流
+     * @return 一个字节数组, 包含读取的令牌数据, 长度为 -1 时返回 <code>null</code>
+     * @throws NullPointerException 参数 buffer 是 null
+     */
+    public static byte[] readToken(BufferReader buffer) {
+        if (buffer == null) {
+            throw new NullPointerException("参数: buffer 是 null");
+        }
+
+        int len = buffer.readInt32();
+        if (len < 0) {
+            return null;
+        }
+
+        // 空令牌可能位于流的末尾, 此时流的读取方法返回 -1, 不经过流直接返回
+        if (len == 0) {
+            return new byte[0];
+        }
+
+        if (len > buffer.overSize()) {
+            throw new IndexOutOfBoundsException("无法继续读取数据, 令牌长度超过了流的剩余长度. len: " + len);
+        }
+        return buffer.readBytes(len);
+    }
+
+    /**
+     * 将数据以 32 位长度开头的令牌形式写入流指定的位置
+     *
+     * @param buffer 要写入的流
+     * @param data   令牌数据, 为 <code>null</code> 时写入长度 -1
+     * @throws IOException          I/O错误
+     * @throws NullPointerException 参数 buffer 是 null
+     */
+    public static void writeToken(BufferWriter buffer, byte[] data) throws IOException {
+        if (buffer == null) {
+            throw new NullPointerException("参数: buffer 是 null");
+        }
+
+        if (data == null) {
+            buffer.write(-1, true);
+            return;
+        }
+
+        buffer.write(data.length, true);
+        buffer.write(data);
+    }
+
+    /**
+     * 从流中指定位置开始, 读取以 UTF-8 编码的字符串令牌
+     *
+     * @param buffer 要读取的流
+     * @return 读取的字符串, 长度为 -1 时返回 <code>null</code>
+     * @throws NullPointerException 参数 buffer 是 null
+     */
+    public static String readString(BufferReader buffer) {
+        byte[] data = readToken(buffer);
+        return data == null ? null : new String(data, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 将字符串以 UTF-8 编码的令牌形式写入流指定的位置
+     *
+     * @param buffer 要写入的流
+     * @param value  要写入的字符串, 可以为 <code>null</code>
+     * @throws IOException          I/O错误
+     * @throws NullPointerException 参数 buffer 是 null
+     */
+    public static void writeString(BufferWriter buffer, String value) throws IOException {
+        writeToken(buffer, value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+    }
 }
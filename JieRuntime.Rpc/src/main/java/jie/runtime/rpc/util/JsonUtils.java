@@ -2,25 +2,58 @@ package jie.runtime.rpc.util;
 
 import com.alibaba.fastjson2.JSON;
 
+import java.io.OutputStream;
+import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
 
 /**
  * Json 工具
+ * <p>UTF-8 数据直接以字节解析和生成, 不经过中间的 {@link String}</p>
  *
  * @author jiegg
  */
 public class JsonUtils {
 
     public static <T> T deserialize(byte[] utf8Json, Class<T> tClass) {
-        return deserialize(new String(utf8Json, StandardCharsets.UTF_8), tClass);
+        return JSON.parseObject(utf8Json, tClass);
+    }
+
+    /**
+     * 从字节数组的指定范围解析 UTF-8 编码的 Json
+     *
+     * @param utf8Json UTF-8 编码的 Json 数据
+     * @param offset   数据开始的位置
+     * @param length   数据的长度
+     * @param type     解析的类型
+     * @param <T>      解析的类型
+     * @return 解析得到的对象
+     */
+    public static <T> T deserialize(byte[] utf8Json, int offset, int length, Type type) {
+        return JSON.parseObject(utf8Json, offset, length, StandardCharsets.UTF_8, type);
     }
 
     public static <T> T deserialize(String json, Class<T> tClass) {
         return JSON.parseObject(json, tClass);
     }
 
+    public static <T> T deserialize(String json, Type type) {
+        return JSON.parseObject(json, type);
+    }
+
     public static <T> byte[] serializeToUtf8Bytes(T value) {
-        return serialize(value).getBytes(StandardCharsets.UTF_8);
+        return JSON.toJSONBytes(value);
+    }
+
+    /**
+     * 将对象以 UTF-8 编码的 Json 写入指定的流, 可以写入重复使用的缓冲区 (例如重置后的 {@link jie.runtime.io.BufferWriter})
+     *
+     * @param out   要写入的流
+     * @param value 要序列化的对象
+     * @param <T>   要序列化的类型
+     * @return 写入的字节数
+     */
+    public static <T> int serializeTo(OutputStream out, T value) {
+        return JSON.writeTo(out, value);
     }
 
     public static <T> String serialize(T value) {
@@ -0,0 +1,186 @@
+package jie.runtime.rpc;
+
+import jie.runtime.io.BufferReader;
+import jie.runtime.io.BufferWriter;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link RpcBinaryCodec} 的单元测试
+ *
+ * @author jiegg
+ */
+public class RpcBinaryCodecTest {
+
+    private final RpcBinaryCodec codec = new RpcBinaryCodec();
+
+    @Test
+    public void roundTripsPrimitives() throws IOException {
+        assertEquals(true, roundTrip(true, boolean.class));
+        assertEquals((byte) -3, roundTrip((byte) -3, byte.class));
+        assertEquals('界', roundTrip('界', char.class));
+        assertEquals((short) 1234, roundTrip((short) 1234, short.class));
+        assertEquals(Integer.MIN_VALUE, roundTrip(Integer.MIN_VALUE, int.class));
+        assertEquals(Long.MAX_VALUE, roundTrip(Long.MAX_VALUE, long.class));
+        assertEquals(1.5f, roundTrip(1.5f, float.class));
+        assertEquals(-2.25d, roundTrip(-2.25d, double.class));
+        assertEquals(42, roundTrip(42, Integer.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNullPrimitive() throws IOException {
+        this.codec.write(new BufferWriter(), null, int.class);
+    }
+
+    @Test
+    public void roundTripsStringsBytesAndNulls() throws IOException {
+        assertEquals("héllo 世界", roundTrip("héllo 世界", String.class));
+        assertEquals("", roundTrip("", String.class));
+        assertArrayEquals(new byte[]{1, 2, 3}, (byte[]) roundTrip(new byte[]{1, 2, 3}, byte[].class));
+        assertNull(roundTrip(null, String.class));
+        assertNull(roundTrip(null, Sample.class));
+        assertNull(roundTrip(null, Integer.class));
+    }
+
+    @Test
+    public void roundTripsArraysAndCollections() throws IOException {
+        assertArrayEquals(new long[]{1, -1, Long.MIN_VALUE}, (long[]) roundTrip(new long[]{1, -1, Long.MIN_VALUE}, long[].class));
+        assertArrayEquals(new String[]{"a", null, "c"}, (String[]) roundTrip(new String[]{"a", null, "c"}, String[].class));
+
+        Type listType = Holder.type("list");
+        assertEquals(Arrays.asList(1, null, 3), roundTrip(Arrays.asList(1, null, 3), listType));
+
+        Set<String> set = new TreeSet<>(Arrays.asList("b", "a"));
+        Object copy = roundTrip(set, Holder.type("set"));
+        assertEquals(set, copy);
+
+        Map<String, List<Integer>> map = new LinkedHashMap<>();
+        map.put("x", Arrays.asList(1, 2));
+        map.put("y", null);
+        assertEquals(map, roundTrip(map, Holder.type("map")));
+    }
+
+    @Test
+    public void roundTripsEnumsAndObjects() throws IOException {
+        assertSame(Color.GREEN, roundTrip(Color.GREEN, Color.class));
+
+        Sample sample = new Sample();
+        sample.id = 7;
+        sample.name = "root";
+        sample.color = Color.RED;
+        sample.values = Arrays.asList(4, 5);
+        sample.amount = new BigDecimal("12.50");
+        sample.skip = 9;
+        sample.children = new LinkedHashMap<>();
+        Sample child = new Sample();
+        child.name = "child";
+        sample.children.put("c", child);
+
+        Sample copy = (Sample) roundTrip(sample, Sample.class);
+        assertEquals(7, copy.id);
+        assertEquals("root", copy.name);
+        assertSame(Color.RED, copy.color);
+        assertEquals(Arrays.asList(4, 5), copy.values);
+        assertEquals(0, sample.amount.compareTo(copy.amount));
+        assertEquals(0, copy.skip);
+        assertEquals("child", copy.children.get("c").name);
+        assertNull(copy.children.get("c").values);
+    }
+
+    @Test
+    public void roundTripsDynamicObjectValues() throws IOException {
+        assertEquals("dyn", roundTrip("dyn", Object.class));
+        assertEquals(3L, roundTrip(3L, Object.class));
+        assertEquals(true, roundTrip(true, Object.class));
+        assertArrayEquals(new byte[]{9}, (byte[]) roundTrip(new byte[]{9}, Object.class));
+        assertNull(roundTrip(null, Object.class));
+    }
+
+    @Test
+    public void fallsBackToJsonForTypesWithoutDefaultConstructor() throws IOException {
+        NoDefault value = new NoDefault("json");
+        NoDefault copy = (NoDefault) roundTrip(value, NoDefault.class);
+        assertEquals("json", copy.getName());
+    }
+
+    @Test
+    public void readsValuesInWriteOrder() throws IOException {
+        BufferWriter writer = new BufferWriter();
+        this.codec.write(writer, 1, int.class);
+        this.codec.write(writer, "two", String.class);
+        this.codec.write(writer, Color.GREEN, Color.class);
+
+        BufferReader reader = new BufferReader(writer.toByteArray());
+        assertEquals(1, this.codec.read(reader, int.class));
+        assertEquals("two", this.codec.read(reader, String.class));
+        assertSame(Color.GREEN, this.codec.read(reader, Color.class));
+        assertEquals(0, reader.available());
+    }
+
+    private Object roundTrip(Object value, Type type) throws IOException {
+        BufferWriter writer = new BufferWriter();
+        this.codec.write(writer, value, type);
+        BufferReader reader = new BufferReader(writer.toByteArray());
+        Object result = this.codec.read(reader, type);
+        assertEquals(0, reader.available());
+        return result;
+    }
+
+    public enum Color {
+        RED, GREEN
+    }
+
+    public static class Base {
+        public int id;
+    }
+
+    public static class Sample extends Base {
+        public String name;
+        public Color color;
+        public List<Integer> values;
+        public Map<String, Sample> children;
+        public BigDecimal amount;
+        public transient int skip;
+    }
+
+    public static class NoDefault {
+        private final String name;
+
+        public NoDefault(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private static class Holder {
+        public List<Integer> list;
+        public Set<String> set;
+        public Map<String, List<Integer>> map;
+
+        static Type type(String field) {
+            try {
+                return Holder.class.getField(field).getGenericType();
+            } catch (NoSuchFieldException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package jie.runtime.rpc.tcp;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * {@link FragmentCache} 的单元测试
+ *
+ * @author jiegg
+ */
+public class FragmentCacheTest {
+
+    private static final int TWO_FRAGMENTS = FragmentCache.FRAGMENT_SIZE * 2;
+
+    @Test
+    public void reassemblesFragmentsInOrder() {
+        FragmentCache cache = new FragmentCache();
+        byte[] data = data(FragmentCache.FRAGMENT_SIZE * 3 + 10, 3);
+        FragmentEncoder encoder = new FragmentEncoder(PacketType.REQUEST, 42, data);
+        assertEquals(4, encoder.getCount());
+
+        for (int i = 0; i < encoder.getCount(); i++) {
+            assertNull(cache.pull());
+            cache.push(fragment(encoder, i));
+        }
+
+        Packet packet = cache.pull();
+        assertNotNull(packet);
+        assertEquals(PacketType.REQUEST, packet.getType());
+        assertEquals(42, packet.getTag());
+        assertArrayEquals(data, packet.getData());
+        assertEquals(0, cache.getStatistics().getPendingCount());
+    }
+
+    @Test
+    public void singleFragmentIsReadyImmediately() {
+        FragmentCache cache = new FragmentCache();
+        cache.push(fragment(new FragmentEncoder(PacketType.RESPONSE, 1, new byte[0]), 0));
+        assertArrayEquals(new byte[0], cache.pull().getData());
+        assertEquals(0, cache.getStatistics().getPendingCount());
+    }
+
+    @Test
+    public void sameTagOfDifferentTypesDoesNotMix() {
+        FragmentCache cache = new FragmentCache();
+        byte[] request = data(TWO_FRAGMENTS, 1);
+        byte[] response = data(TWO_FRAGMENTS, 2);
+        FragmentEncoder requestEncoder = new FragmentEncoder(PacketType.REQUEST, 7, request);
+        FragmentEncoder responseEncoder = new FragmentEncoder(PacketType.RESPONSE, 7, response);
+
+        cache.push(fragment(requestEncoder, 0));
+        cache.push(fragment(responseEncoder, 0));
+        cache.push(fragment(responseEncoder, 1));
+        cache.push(fragment(requestEncoder, 1));
+
+        assertArrayEquals(response, cache.pull().getData());
+        assertArrayEquals(request, cache.pull().getData());
+    }
+
+    @Test
+    public void expiresIncompletePackets() throws InterruptedException {
+        FragmentCache cache = new FragmentCache();
+        cache.setReassemblyTimeout(Duration.ofMillis(1));
+        long globalExpired = FragmentCache.getGlobalStatistics().getExpiredCount();
+
+        cache.push(fragment(new FragmentEncoder(PacketType.REQUEST, 1, data(TWO_FRAGMENTS, 1)), 0));
+        Thread.sleep(10);
+
+        // 推入分片时清理超时的封包
+        cache.push(fragment(new FragmentEncoder(PacketType.REQUEST, 2, data(TWO_FRAGMENTS, 1)), 0));
+        TcpRpcReassemblyStatistics statistics = cache.getStatistics();
+        assertEquals(1, statistics.getExpiredCount());
+        assertEquals(1, statistics.getPendingCount());
+        assertEquals(TWO_FRAGMENTS, statistics.getPendingBytes());
+        assertEquals(globalExpired + 1, FragmentCache.getGlobalStatistics().getExpiredCount());
+    }
+
+    @Test
+    public void evictsOldestPacketOverMemoryLimit() {
+        FragmentCache cache = new FragmentCache();
+        cache.setMaxPendingBytes(TWO_FRAGMENTS + 1);
+        FragmentEncoder first = new FragmentEncoder(PacketType.REQUEST, 1, data(TWO_FRAGMENTS, 1));
+        byte[] secondData = data(TWO_FRAGMENTS, 2);
+        FragmentEncoder second = new FragmentEncoder(PacketType.REQUEST, 2, secondData);
+
+        cache.push(fragment(first, 0));
+        cache.push(fragment(second, 0));
+        assertEquals(1, cache.getStatistics().getEvictedCount());
+        assertEquals(1, cache.getStatistics().getPendingCount());
+
+        // 被驱逐的封包的后续分片作为孤立分片丢弃, 不会重新开始重组
+        cache.push(fragment(first, 1));
+        assertEquals(1, cache.getStatistics().getOrphanCount());
+        assertEquals(1, cache.getStatistics().getPendingCount());
+
+        cache.push(fragment(second, 1));
+        assertArrayEquals(secondData, cache.pull().getData());
+        assertNull(cache.pull());
+    }
+
+    @Test
+    public void dropsPacketLargerThanMemoryLimit() {
+        FragmentCache cache = new FragmentCache();
+        cache.setMaxPendingBytes(FragmentCache.FRAGMENT_SIZE);
+        FragmentEncoder encoder = new FragmentEncoder(PacketType.REQUEST, 1, data(TWO_FRAGMENTS, 1));
+
+        cache.push(fragment(encoder, 0));
+        cache.push(fragment(encoder, 1));
+        TcpRpcReassemblyStatistics statistics = cache.getStatistics();
+        assertEquals(1, statistics.getEvictedCount());
+        assertEquals(1, statistics.getOrphanCount());
+        assertEquals(0, statistics.getPendingCount());
+        assertEquals(0, statistics.getPendingBytes());
+        assertNull(cache.pull());
+    }
+
+    @Test
+    public void dropsOrphanFragmentsWithoutAllocating() {
+        FragmentCache cache = new FragmentCache();
+        long globalOrphans = FragmentCache.getGlobalStatistics().getOrphanCount();
+        FragmentEncoder encoder = new FragmentEncoder(PacketType.RESPONSE, 9, data(FragmentCache.FRAGMENT_SIZE * 3, 1));
+
+        cache.push(fragment(encoder, 1));
+        cache.push(fragment(encoder, 2));
+        TcpRpcReassemblyStatistics statistics = cache.getStatistics();
+        assertEquals(2, statistics.getOrphanCount());
+        assertEquals(0, statistics.getPendingCount());
+        assertEquals(0, statistics.getPendingBytes());
+        assertEquals(globalOrphans + 2, FragmentCache.getGlobalStatistics().getOrphanCount());
+        assertNull(cache.pull());
+    }
+
+    @Test
+    public void completedTagCanBeReused() {
+        FragmentCache cache = new FragmentCache();
+        byte[] data = data(TWO_FRAGMENTS, 5);
+        FragmentEncoder encoder = new FragmentEncoder(PacketType.REQUEST, 3, data);
+        for (int round = 0; round < 2; round++) {
+            cache.push(fragment(encoder, 0));
+            cache.push(fragment(encoder, 1));
+            assertArrayEquals(data, cache.pull().getData());
+        }
+
+        // 已完成的封包的重复分片是孤立分片
+        cache.push(fragment(encoder, 1));
+        assertEquals(1, cache.getStatistics().getOrphanCount());
+    }
+
+    @Test
+    public void clearEvictsPendingPackets() {
+        FragmentCache cache = new FragmentCache();
+        cache.push(fragment(new FragmentEncoder(PacketType.REQUEST, 1, data(TWO_FRAGMENTS, 1)), 0));
+        cache.push(fragment(new FragmentEncoder(PacketType.REQUEST, 2, new byte[]{1}), 0));
+        cache.clear();
+
+        TcpRpcReassemblyStatistics statistics = cache.getStatistics();
+        assertEquals(1, statistics.getEvictedCount());
+        assertEquals(0, statistics.getPendingCount());
+        assertNull(cache.pull());
+    }
+
+    private static Fragment fragment(FragmentEncoder encoder, int index) {
+        // 与接收端相同, 从封包视图中解析分片
+        ByteBuffer[] buffers = encoder.encode(index);
+        ByteBuffer frame = ByteBuffer.allocate(buffers[0].remaining() + buffers[1].remaining());
+        frame.put(buffers[0]).put(buffers[1]).flip();
+        return Fragment.tryParse(frame.asReadOnlyBuffer());
+    }
+
+    private static byte[] data(int length, int seed) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 31 + seed);
+        }
+        return data;
+    }
+}
@@ -0,0 +1,163 @@
+package jie.runtime.rpc.tcp;
+
+import jie.runtime.rpc.util.JsonUtils;
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * {@link JsonRpcParameter} 按协议版本读取和解析参数值的单元测试
+ *
+ * @author jiegg
+ */
+public class JsonRpcParameterTest {
+
+    @Test
+    public void bindsVersion3StringValues() {
+        JsonRpcRequest request = parse("{\"ver\":\"3\",\"type\":\"ISvc\",\"method\":\"call\",\"params\":["
+                + "{\"type\":\"int\",\"value\":\"5\"},"
+                + "{\"type\":\"String\",\"value\":\"say \\\"hi\\\"\"},"
+                + "{\"type\":\"Item\",\"value\":\"{\\\"id\\\":1,\\\"name\\\":\\\"a\\\",\\\"tags\\\":[\\\"x\\\"]}\"}]}");
+
+        JsonRpcParameter[] parameters = request.getParameters();
+        assertEquals(3, parameters.length);
+        assertEquals("int", parameters[0].getType());
+        assertEquals(5, parameters[0].bind(int.class, request.getVersion()));
+        assertEquals("say \"hi\"", parameters[1].bind(String.class, request.getVersion()));
+
+        Item item = (Item) parameters[2].bind(Item.class, request.getVersion());
+        assertEquals(1, item.id);
+        assertEquals("a", item.name);
+        assertEquals(Arrays.asList("x"), item.tags);
+    }
+
+    @Test
+    public void bindsVersion4NativeValues() {
+        JsonRpcRequest request = parse("{\"ver\":\"4\",\"type\":\"ISvc\",\"method\":\"call\",\"params\":["
+                + "{\"type\":\"int\",\"value\":5},"
+                + "{\"type\":\"String\",\"value\":\"hi\"},"
+                + "{\"type\":\"Item\",\"value\":{\"id\":2,\"name\":\"b\",\"tags\":[\"x\",\"y\"],\"child\":{\"id\":3,\"child\":{\"id\":4}}}},"
+                + "{\"type\":\"List\",\"value\":[1,2,3]},"
+                + "{\"type\":\"Map\",\"value\":{\"k\":[{\"id\":5}]}}]}");
+
+        JsonRpcParameter[] parameters = request.getParameters();
+        assertEquals(5, parameters[0].bind(int.class, request.getVersion()));
+        assertEquals("hi", parameters[1].bind(String.class, request.getVersion()));
+
+        Item item = (Item) parameters[2].bind(Item.class, request.getVersion());
+        assertEquals(2, item.id);
+        assertEquals(Arrays.asList("x", "y"), item.tags);
+        assertEquals(3, item.child.id);
+        assertEquals(4, item.child.child.id);
+
+        assertEquals(Arrays.asList(1, 2, 3), parameters[3].bind(Types.type("integers"), request.getVersion()));
+
+        @SuppressWarnings("unchecked")
+        Map<String, List<Item>> map = (Map<String, List<Item>>) parameters[4].bind(Types.type("items"), request.getVersion());
+        assertEquals(5, map.get("k").get(0).id);
+    }
+
+    @Test
+    public void rangeExcludesWhitespaceAndSeparators() {
+        JsonRpcRequest request = parse("{ \"ver\" : \"4\" ,\n \"params\" : [\n"
+                + "  { \"value\" : [ 1 , 2 ]\t , \"type\" : \"int[]\" } ,\n"
+                + "  { \"type\" : \"String\" , \"value\" : \"a,b\"\n }\n"
+                + " ] , \"method\" : \"call\" }");
+
+        JsonRpcParameter[] parameters = request.getParameters();
+        assertEquals(2, parameters.length);
+        assertEquals("int[]", parameters[0].getType());
+        assertArrayEquals(new int[]{1, 2}, (int[]) parameters[0].bind(int[].class, request.getVersion()));
+        assertEquals("a,b", parameters[1].bind(String.class, request.getVersion()));
+        assertEquals("call", request.getMethod());
+    }
+
+    @Test
+    public void explicitNullIsBoundAsNull() {
+        JsonRpcRequest request = parse("{\"ver\":\"4\",\"params\":[{\"type\":\"Item\",\"value\":null},{\"type\":\"String\"}]}");
+        assertNull(request.getParameters()[0].bind(Item.class, request.getVersion()));
+        assertNull(request.getParameters()[1].bind(String.class, request.getVersion()));
+
+        assertNull(parse("{\"ver\":\"3\",\"params\":null}").getParameters());
+        assertEquals(0, parse("{\"ver\":\"3\",\"params\":[]}").getParameters().length);
+    }
+
+    @Test
+    public void version3FallsBackToNativeNodes() {
+        // 旧的 Java 客户端在版本 3 中也可能以原生节点发送参数值
+        JsonRpcRequest request = parse("{\"ver\":\"3\",\"params\":["
+                + "{\"type\":\"Color\",\"value\":\"GREEN\"},"
+                + "{\"type\":\"Item\",\"value\":{\"id\":6}},"
+                + "{\"type\":\"int\",\"value\":7}]}");
+
+        JsonRpcParameter[] parameters = request.getParameters();
+        assertSame(Color.GREEN, parameters[0].bind(Color.class, request.getVersion()));
+        assertEquals(6, ((Item) parameters[1].bind(Item.class, request.getVersion())).id);
+        assertEquals(7, parameters[2].bind(int.class, request.getVersion()));
+    }
+
+    @Test
+    public void createdParametersRoundTripInBothVersions() {
+        Item item = new Item();
+        item.id = 8;
+        item.name = "c";
+        for (String version : new String[]{JsonRpcRequest.VERSION_3, JsonRpcRequest.VERSION_4}) {
+            JsonRpcRequest request = new JsonRpcRequest();
+            request.setVersion(version);
+            request.setMethod("call");
+            request.setParameters(new JsonRpcParameter[]{
+                    JsonRpcParameter.create(int.class, 9, version),
+                    JsonRpcParameter.create(String.class, "{not json}", version),
+                    JsonRpcParameter.create(Item.class, item, version),
+                    JsonRpcParameter.create(Color.class, Color.RED, version),
+                    JsonRpcParameter.create(Item.class, null, version)
+            });
+
+            JsonRpcRequest parsed = JsonRpcRequest.parse(JsonUtils.serializeToUtf8Bytes(request));
+            JsonRpcParameter[] parameters = parsed.getParameters();
+            assertEquals(version, parsed.getVersion());
+            assertEquals(9, parameters[0].bind(int.class, version));
+            assertEquals("{not json}", parameters[1].bind(String.class, version));
+            assertEquals(8, ((Item) parameters[2].bind(Item.class, version)).id);
+            assertSame(Color.RED, parameters[3].bind(Color.class, version));
+            assertNull(parameters[4].bind(Item.class, version));
+        }
+    }
+
+    private static JsonRpcRequest parse(String json) {
+        return JsonRpcRequest.parse(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public enum Color {
+        RED, GREEN
+    }
+
+    public static class Item {
+        public int id;
+        public String name;
+        public List<String> tags;
+        public Item child;
+    }
+
+    private static class Types {
+        public List<Integer> integers;
+        public Map<String, List<Item>> items;
+
+        static Type type(String field) {
+            try {
+                return Types.class.getField(field).getGenericType();
+            } catch (NoSuchFieldException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package jie.runtime.rpc.tcp;
+
+import jie.runtime.rpc.RpcClientType;
+import jie.runtime.rpc.util.JsonUtils;
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * {@link JsonRpcResponse} 解析返回值和回传参数的单元测试
+ *
+ * @author jiegg
+ */
+public class JsonRpcResponseTest {
+
+    @SuppressWarnings("unused")
+    private List<Item> items;
+
+    @Test
+    public void readsTypedResultInBothVersions() throws NoSuchFieldException {
+        Type listType = JsonRpcResponseTest.class.getDeclaredField("items").getGenericType();
+        for (String version : new String[]{JsonRpcRequest.VERSION_3, JsonRpcRequest.VERSION_4}) {
+            JsonRpcResponse response = roundTrip(Arrays.asList(item(1), item(2)), listType, version);
+
+            @SuppressWarnings("unchecked")
+            List<Item> result = (List<Item>) response.readResult(listType);
+            assertEquals(2, result.size());
+            assertSame(Item.class, result.get(1).getClass());
+            assertEquals(2, result.get(1).id);
+
+            assertEquals(5, roundTrip(5, int.class, version).readResult(int.class));
+            assertEquals("{x}", roundTrip("{x}", String.class, version).readResult(String.class));
+            assertNull(roundTrip(null, Item.class, version).readResult(Item.class));
+        }
+    }
+
+    @Test
+    public void voidResultIsNull() {
+        JsonRpcResponse response = parse("{\"ver\":\"4\",\"result\":\"ignored\"}");
+        assertNull(response.readResult(void.class));
+    }
+
+    @Test
+    public void readsClientTypeAndParameters() {
+        JsonRpcResponse response = parse("{\"ver\":\"4\",\"client\":\"" + RpcClientType.Java.name() + "\",\"result\":2,"
+                + "\"params\":[{\"type\":\"int[]\",\"value\":[42,1]}]}");
+        assertSame(RpcClientType.Java, response.getClientType());
+        assertEquals(2, response.readResult(int.class));
+        assertArrayEquals(new int[]{42, 1}, (int[]) response.getParameters()[0].bind(int[].class, response.getVersion()));
+
+        // 关闭回传参数时回应不包含参数数组
+        assertNull(parse("{\"ver\":\"4\",\"result\":2}").getParameters());
+    }
+
+    private static JsonRpcResponse roundTrip(Object result, Type type, String version) {
+        JsonRpcResponse response = JsonRpcResponse.createResult(JsonRpcParameter.encodeValue(type, result, version));
+        response.setVersion(version);
+        return JsonRpcResponse.parse(JsonUtils.serializeToUtf8Bytes(response));
+    }
+
+    private static JsonRpcResponse parse(String json) {
+        return JsonRpcResponse.parse(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Item item(int id) {
+        Item item = new Item();
+        item.id = id;
+        return item;
+    }
+
+    public static class Item {
+        public int id;
+    }
+}
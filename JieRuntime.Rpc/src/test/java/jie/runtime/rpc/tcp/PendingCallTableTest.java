@@ -0,0 +1,181 @@
+package jie.runtime.rpc.tcp;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link PendingCallTable} 的单元测试
+ *
+ * @author jiegg
+ */
+public class PendingCallTableTest {
+
+    @Test
+    public void slotsAreAllocatedLazilyAndGrowOnCollision() {
+        PendingCallTable table = new PendingCallTable();
+        assertEquals(0, table.capacity());
+
+        table.add(call(0));
+        assertEquals(PendingCallTable.INITIAL_CAPACITY, table.capacity());
+
+        // 按顺序递增的标识超过当前容量时才会冲突并扩容
+        for (long tag = 1; tag < 100; tag++) {
+            table.add(call(tag));
+        }
+        assertEquals(128, table.capacity());
+        assertEquals(100, table.size());
+
+        for (long tag = 0; tag < 100; tag++) {
+            assertEquals(tag, table.take(tag).getTag());
+        }
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    public void collisionsOverflowAtMaxCapacity() {
+        PendingCallTable table = new PendingCallTable(16);
+        for (long tag = 0; tag < 100; tag++) {
+            table.add(call(tag));
+        }
+        assertEquals(16, table.capacity());
+        assertEquals(100, table.size());
+
+        for (long tag = 99; tag >= 0; tag--) {
+            assertEquals(tag, table.take(tag).getTag());
+        }
+        assertNull(table.take(5));
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    public void duplicateTagIsRejected() {
+        PendingCallTable table = new PendingCallTable(16);
+        table.add(call(1));
+        table.add(call(17));
+        for (long tag : new long[]{1, 17}) {
+            try {
+                table.add(call(tag));
+                fail();
+            } catch (IllegalStateException ignored) {
+            }
+        }
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    public void removeOnlyRemovesSameCall() {
+        PendingCallTable table = new PendingCallTable();
+        PendingCall call = call(7);
+        table.add(call);
+        assertFalse(table.remove(call(7)));
+        assertTrue(table.remove(call));
+        assertFalse(table.remove(call));
+        assertNull(table.take(7));
+    }
+
+    @Test
+    public void failAllFailsEveryCall() {
+        PendingCallTable table = new PendingCallTable(16);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[40];
+        for (int i = 0; i < futures.length; i++) {
+            PendingCall call = call(i);
+            futures[i] = call.getFuture();
+            table.add(call);
+        }
+
+        table.failAll(JsonRpcNetworkException::new);
+        assertEquals(0, table.size());
+        for (CompletableFuture<?> future : futures) {
+            assertCause(JsonRpcNetworkException.class, future);
+        }
+    }
+
+    @Test
+    public void sweepFailsOnlyExpiredCalls() {
+        PendingCallTable table = new PendingCallTable();
+        PendingCall expiring = PendingCall.createAsync(1, TimeUnit.MILLISECONDS.toNanos(10), null);
+        PendingCall unlimited = call(2);
+        table.add(expiring);
+        table.add(unlimited);
+
+        table.sweep(System.nanoTime() + TimeUnit.SECONDS.toNanos(1));
+        assertCause(JsonRpcTimeoutException.class, expiring.getFuture());
+        assertEquals(1, table.size());
+        assertSame(unlimited, table.take(2));
+    }
+
+    @Test
+    public void sharedSweeperTimesOutCallsOfEveryTable() throws Exception {
+        PendingCall first = PendingCall.createAsync(1, TimeUnit.MILLISECONDS.toNanos(20), null);
+        PendingCall second = PendingCall.createAsync(1, TimeUnit.MILLISECONDS.toNanos(20), null);
+        new PendingCallTable().add(first);
+        new PendingCallTable().add(second);
+
+        for (PendingCall call : new PendingCall[]{first, second}) {
+            try {
+                call.getFuture().get(5, TimeUnit.SECONDS);
+                fail();
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof JsonRpcTimeoutException);
+            }
+        }
+    }
+
+    @Test
+    public void concurrentAddAndTakeDuringResize() throws InterruptedException {
+        for (int round = 0; round < 10; round++) {
+            PendingCallTable table = new PendingCallTable(256);
+            AtomicLong nextTag = new AtomicLong();
+            AtomicInteger lost = new AtomicInteger();
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            for (int t = 0; t < 4; t++) {
+                executor.execute(() -> {
+                    long[] tags = new long[100];
+                    for (int n = 0; n < 200; n++) {
+                        for (int i = 0; i < tags.length; i++) {
+                            tags[i] = nextTag.getAndIncrement();
+                            table.add(call(tags[i]));
+                        }
+                        for (long tag : tags) {
+                            PendingCall call = table.take(tag);
+                            if (call == null || call.getTag() != tag) {
+                                lost.incrementAndGet();
+                            }
+                        }
+                    }
+                });
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+            assertEquals(0, lost.get());
+            assertEquals(0, table.size());
+        }
+    }
+
+    private static PendingCall call(long tag) {
+        return PendingCall.createAsync(tag, 0, null);
+    }
+
+    private static void assertCause(Class<? extends Exception> expected, CompletableFuture<?> future) {
+        assertTrue(future.isCompletedExceptionally());
+        try {
+            future.join();
+        } catch (Exception e) {
+            assertTrue(expected.isInstance(e.getCause()));
+        }
+    }
+}
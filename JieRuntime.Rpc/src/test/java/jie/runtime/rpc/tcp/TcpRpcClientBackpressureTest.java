@@ -0,0 +1,100 @@
+package jie.runtime.rpc.tcp;
+
+import jie.runtime.rpc.event.IRpcClientEvent;
+import jie.runtime.rpc.event.RpcEventArgs;
+import jie.runtime.rpc.event.RpcExceptionEventArgs;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link TcpRpcClient} 发送背压的单元测试, 对端接受连接后不读取任何数据
+ *
+ * @author jiegg
+ */
+public class TcpRpcClientBackpressureTest {
+
+    private ServerSocket server;
+    private Socket accepted;
+    private TcpRpcClient client;
+
+    @Before
+    public void setUp() throws IOException, InterruptedException {
+        this.server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        this.client = new TcpRpcClient(new InetSocketAddress(InetAddress.getLoopbackAddress(), this.server.getLocalPort()));
+        this.client.setWaitResponseTime(Duration.ofSeconds(1));
+        this.client.setWriteBufferWaterMark(1, 2);
+        this.client.setBackpressureMode(TcpRpcBackpressureMode.BLOCK);
+
+        CountDownLatch connected = new CountDownLatch(1);
+        this.client.addListener(new IRpcClientEvent() {
+            @Override
+            public void onConnected(Object sender, RpcEventArgs args) {
+                connected.countDown();
+            }
+
+            @Override
+            public void onDisconnected(Object sender, RpcEventArgs args) {
+            }
+
+            @Override
+            public void onException(Object sender, RpcExceptionEventArgs args) {
+            }
+        });
+        this.client.connect();
+        this.accepted = this.server.accept();
+        assertTrue(connected.await(5, TimeUnit.SECONDS));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        this.client.disconnect();
+        this.accepted.close();
+        this.server.close();
+    }
+
+    @Test
+    public void asyncCallDoesNotBlockWhenUnwritable() throws Exception {
+        Method echo = ISvc.class.getMethod("echo", String.class);
+
+        // 对端不读取数据, 超过套接字缓冲区的请求使客户端一直不可写
+        char[] large = new char[32 * 1024 * 1024];
+        Arrays.fill(large, 'x');
+        this.client.invokeAsync(echo, new Object[]{new String(large)});
+
+        long start = System.nanoTime();
+        CompletableFuture<Object> future = this.client.invokeAsync(echo, new Object[]{"small"});
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue("异步调用阻塞了 " + elapsedMillis + " ms", elapsedMillis < 500);
+        assertFalse(future.isDone());
+
+        // 一直不可写时在等待响应的时间后以超时完成
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof JsonRpcTimeoutException);
+        }
+    }
+
+    public interface ISvc {
+        CompletableFuture<String> echo(String value);
+    }
+}
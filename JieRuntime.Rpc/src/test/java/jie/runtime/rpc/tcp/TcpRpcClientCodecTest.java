@@ -0,0 +1,240 @@
+package jie.runtime.rpc.tcp;
+
+import jie.runtime.net.sockets.event.ISocketServerEvent;
+import jie.runtime.net.sockets.event.SocketClientInfoEventArgs;
+import jie.runtime.net.sockets.event.SocketEventArgs;
+import jie.runtime.net.sockets.event.SocketExceptionEventArgs;
+import jie.runtime.net.sockets.event.SocketServerDataEventArgs;
+import jie.runtime.net.sockets.tcp.TcpClient;
+import jie.runtime.net.sockets.tcp.TcpServer;
+import jie.runtime.rpc.RpcBinaryCodec;
+import jie.runtime.rpc.RpcCodec;
+import jie.runtime.rpc.event.IRpcClientEvent;
+import jie.runtime.rpc.event.RpcEventArgs;
+import jie.runtime.rpc.event.RpcExceptionEventArgs;
+import jie.runtime.rpc.proxy.ProxyType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link TcpRpcClient} 编码器协商和参数回传的单元测试, 通过本机回环地址连接
+ *
+ * @author jiegg
+ */
+public class TcpRpcClientCodecTest {
+
+    private TcpServer server;
+    private TcpRpcClient client;
+    private volatile RpcCodec serverCodec;
+    private final CountDownLatch registered = new CountDownLatch(1);
+
+    @Before
+    public void setUp() throws IOException {
+        this.serverCodec = new RpcBinaryCodec();
+        this.server = new TcpServer(InetAddress.getLoopbackAddress(), 0);
+        this.server.addListener(new ServerListener());
+        this.server.start();
+    }
+
+    @After
+    public void tearDown() {
+        if (this.client != null) {
+            this.client.disconnect();
+        }
+        this.server.stop();
+    }
+
+    @Test
+    public void jsonIsUsedByDefault() throws Throwable {
+        ISvc svc = this.connect(null, true);
+        assertNull(this.client.getCodec());
+        assertEquals(5, svc.add(2, 3));
+        assertEquals(5, svc.add(2, 3));
+        assertNull(this.client.getNegotiatedCodec());
+    }
+
+    @Test
+    public void binaryIsNegotiatedWhenBothSidesEnableIt() throws Throwable {
+        RpcBinaryCodec codec = new RpcBinaryCodec();
+        ISvc svc = this.connect(codec, false);
+
+        // 第一次调用以 Json 格式发送, 回应中附带对端的编码器
+        assertEquals(5, svc.add(2, 3));
+        assertSame(codec, this.client.getNegotiatedCodec());
+
+        // 之后的调用以协商的编码器发送
+        assertEquals(9, svc.add(4, 5));
+        assertEquals("hi!", svc.echo("hi"));
+        Item item = svc.item(7);
+        assertEquals(7, item.id);
+        assertEquals("n7", item.name);
+        List<Item> items = svc.items(3);
+        assertEquals(3, items.size());
+        assertEquals("n2", items.get(2).name);
+    }
+
+    @Test
+    public void peerWithoutCodecKeepsJson() throws Throwable {
+        this.serverCodec = null;
+        ISvc svc = this.connect(new RpcBinaryCodec(), false);
+        assertEquals(5, svc.add(2, 3));
+        assertEquals("hi!", svc.echo("hi"));
+        assertNull(this.client.getNegotiatedCodec());
+    }
+
+    @Test
+    public void outParametersAreWrittenBackAfterNegotiation() throws Throwable {
+        this.connect(new RpcBinaryCodec(), true);
+        Method fill = ISvc.class.getMethod("fill", int[].class);
+
+        // 开启回传参数时即使协商了编码器, 请求仍以 Json 格式发送, 每次调用都回填参数
+        for (int i = 0; i < 2; i++) {
+            Object[] args = {new int[]{0, 1}};
+            assertEquals(2, this.client.invokeMethod(fill, args));
+            assertArrayEquals(new int[]{42, 1}, (int[]) args[0]);
+        }
+    }
+
+    @Test
+    public void outParametersAreIgnoredWhenDisabled() throws Throwable {
+        this.connect(null, false);
+        Method fill = ISvc.class.getMethod("fill", int[].class);
+
+        int[] values = {0, 1};
+        Object[] args = {values};
+        assertEquals(2, this.client.invokeMethod(fill, args));
+        assertSame(values, args[0]);
+        assertArrayEquals(new int[]{0, 1}, values);
+    }
+
+    private ISvc connect(RpcCodec codec, boolean outParameters) throws IOException, InterruptedException {
+        InetSocketAddress address = (InetSocketAddress) this.server.getServer().getLocalAddress();
+        this.client = new TcpRpcClient(new InetSocketAddress(InetAddress.getLoopbackAddress(), address.getPort()));
+        this.client.setCodec(codec);
+        this.client.setOutParameters(outParameters);
+        this.client.setProxyType(ProxyType.JDK);
+        CountDownLatch connected = new CountDownLatch(1);
+        this.client.addListener(new IRpcClientEvent() {
+            @Override
+            public void onConnected(Object sender, RpcEventArgs args) {
+                connected.countDown();
+            }
+
+            @Override
+            public void onDisconnected(Object sender, RpcEventArgs args) {
+            }
+
+            @Override
+            public void onException(Object sender, RpcExceptionEventArgs args) {
+            }
+        });
+        this.client.connect();
+
+        // 连接是异步建立的, 服务端在连接事件中注册服务, 双方就绪前发送的请求不会被处理
+        assertTrue(connected.await(5, TimeUnit.SECONDS));
+        assertTrue(this.registered.await(5, TimeUnit.SECONDS));
+        return this.client.resolver(ISvc.class);
+    }
+
+    public interface ISvc {
+        int add(int a, int b);
+
+        String echo(String value);
+
+        Item item(int id);
+
+        List<Item> items(int count);
+
+        int fill(int[] values);
+    }
+
+    public static class Item {
+        public int id;
+        public String name;
+    }
+
+    public static class Svc implements ISvc {
+        @Override
+        public int add(int a, int b) {
+            return a + b;
+        }
+
+        @Override
+        public String echo(String value) {
+            return value + "!";
+        }
+
+        @Override
+        public Item item(int id) {
+            Item item = new Item();
+            item.id = id;
+            item.name = "n" + id;
+            return item;
+        }
+
+        @Override
+        public List<Item> items(int count) {
+            Item[] items = new Item[count];
+            for (int i = 0; i < count; i++) {
+                items[i] = this.item(i);
+            }
+            return Arrays.asList(items);
+        }
+
+        @Override
+        public int fill(int[] values) {
+            values[0] = 42;
+            return values.length;
+        }
+    }
+
+    private class ServerListener implements ISocketServerEvent {
+        @Override
+        public void onStarted(Object sender, SocketEventArgs args) {
+        }
+
+        @Override
+        public void onStopped(Object sender, SocketEventArgs args) {
+        }
+
+        @Override
+        public void onReceiveData(Object sender, SocketServerDataEventArgs args) {
+        }
+
+        @Override
+        public void onSendData(Object sender, SocketServerDataEventArgs args) {
+        }
+
+        @Override
+        public void onException(Object sender, SocketExceptionEventArgs args) {
+        }
+
+        @Override
+        public void onClientConnected(Object sender, SocketClientInfoEventArgs args) {
+            TcpRpcClient rpc = new TcpRpcClient((TcpClient) args.getClient());
+            rpc.setCodec(serverCodec);
+            rpc.register(ISvc.class, new Svc());
+            registered.countDown();
+        }
+
+        @Override
+        public void onClientDisconnected(Object sender, SocketClientInfoEventArgs args) {
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package jie.runtime.rpc.tcp;
+
+import jie.runtime.net.sockets.SocketDispatcher;
+import jie.runtime.net.sockets.event.ISocketServerEvent;
+import jie.runtime.net.sockets.event.SocketClientInfoEventArgs;
+import jie.runtime.net.sockets.event.SocketEventArgs;
+import jie.runtime.net.sockets.event.SocketExceptionEventArgs;
+import jie.runtime.net.sockets.event.SocketServerDataEventArgs;
+import jie.runtime.net.sockets.tcp.TcpClient;
+import jie.runtime.net.sockets.tcp.TcpServer;
+import jie.runtime.rpc.event.IRpcClientEvent;
+import jie.runtime.rpc.event.RpcEventArgs;
+import jie.runtime.rpc.event.RpcExceptionEventArgs;
+import jie.runtime.rpc.proxy.ProxyType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link TcpRpcClient} 执行对端请求的单元测试, 通过本机回环地址连接, 双方共享只有一个线程的分发器
+ *
+ * @author jiegg
+ */
+public class TcpRpcClientRequestTest {
+
+    private SocketDispatcher dispatcher;
+    private TcpServer server;
+    private TcpRpcClient client;
+    private volatile Executor serverRequestExecutor;
+    private final CountDownLatch registered = new CountDownLatch(1);
+
+    @Before
+    public void setUp() {
+        this.dispatcher = new SocketDispatcher(1, 16);
+        this.server = new TcpServer(InetAddress.getLoopbackAddress(), 0, null, this.dispatcher);
+        this.server.addListener(new ServerListener());
+        this.server.start();
+    }
+
+    @After
+    public void tearDown() {
+        if (this.client != null) {
+            this.client.disconnect();
+        }
+        this.server.stop();
+        this.dispatcher.shutdown();
+    }
+
+    @Test
+    public void nestedCallsDoNotOccupyDispatcherThreads() throws Exception {
+        ISvc svc = this.connect();
+        this.client.register(ICallback.class, value -> value * 2);
+
+        // 服务方法在执行期间回调发起请求的一方, 回调的回应需要分发器的线程送达
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i * 2 + 1, svc.outer(i));
+        }
+    }
+
+    @Test
+    public void rejectedRequestIsAnsweredWithError() throws Exception {
+        this.serverRequestExecutor = command -> {
+            throw new RejectedExecutionException("busy");
+        };
+        ISvc svc = this.connect();
+
+        try {
+            svc.outer(1);
+            fail();
+        } catch (JsonRpcException e) {
+            // 对端以错误回应, 不会等待超时
+            assertTrue(!(e instanceof JsonRpcTimeoutException));
+        }
+    }
+
+    private ISvc connect() throws IOException, InterruptedException {
+        InetSocketAddress address = (InetSocketAddress) this.server.getServer().getLocalAddress();
+        TcpClient tcpClient = new TcpClient(null, this.dispatcher);
+        this.client = new TcpRpcClient(tcpClient);
+        this.client.setProxyType(ProxyType.JDK);
+        this.client.setWaitResponseTime(Duration.ofSeconds(3));
+        CountDownLatch connected = new CountDownLatch(1);
+        this.client.addListener(new IRpcClientEvent() {
+            @Override
+            public void onConnected(Object sender, RpcEventArgs args) {
+                connected.countDown();
+            }
+
+            @Override
+            public void onDisconnected(Object sender, RpcEventArgs args) {
+            }
+
+            @Override
+            public void onException(Object sender, RpcExceptionEventArgs args) {
+            }
+        });
+        tcpClient.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), address.getPort()));
+
+        // 连接是异步建立的, 服务端在连接事件中注册服务, 双方就绪前发送的请求不会被处理
+        assertTrue(connected.await(5, TimeUnit.SECONDS));
+        assertTrue(this.registered.await(5, TimeUnit.SECONDS));
+        return this.client.resolver(ISvc.class);
+    }
+
+    public interface ISvc {
+        int outer(int value);
+    }
+
+    public interface ICallback {
+        int inner(int value);
+    }
+
+    private class ServerListener implements ISocketServerEvent {
+        @Override
+        public void onStarted(Object sender, SocketEventArgs args) {
+        }
+
+        @Override
+        public void onStopped(Object sender, SocketEventArgs args) {
+        }
+
+        @Override
+        public void onReceiveData(Object sender, SocketServerDataEventArgs args) {
+        }
+
+        @Override
+        public void onSendData(Object sender, SocketServerDataEventArgs args) {
+        }
+
+        @Override
+        public void onException(Object sender, SocketExceptionEventArgs args) {
+        }
+
+        @Override
+        public void onClientConnected(Object sender, SocketClientInfoEventArgs args) {
+            TcpRpcClient rpc = new TcpRpcClient((TcpClient) args.getClient());
+            rpc.setProxyType(ProxyType.JDK);
+            rpc.setWaitResponseTime(Duration.ofSeconds(3));
+            if (serverRequestExecutor != null) {
+                rpc.setRequestExecutor(serverRequestExecutor);
+            }
+            ICallback callback = rpc.resolver(ICallback.class);
+            rpc.register(ISvc.class, value -> callback.inner(value) + 1);
+            registered.countDown();
+        }
+
+        @Override
+        public void onClientDisconnected(Object sender, SocketClientInfoEventArgs args) {
+        }
+    }
+}
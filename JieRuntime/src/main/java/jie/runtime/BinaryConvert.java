@@ -557,10 +557,10 @@ public class BinaryConvert {
      * @return 长度为 8 的字节数组
      */
     public static byte[] getBytes(long value, boolean reverse) {
-        byte[] result = new byte[Integer.BYTES];
+        byte[] result = new byte[Long.BYTES];
 
         // 获取数据类型一个 bit 的大小
-        int bitSize = Integer.SIZE / Integer.BYTES;
+        int bitSize = Long.SIZE / Long.BYTES;
 
         for (int i = 0; i < result.length; i++) {
             if (reverse) {
@@ -0,0 +1,266 @@
+package jie.runtime.collections;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 表示以 64 位整数为键的哈希表
+ * <p>使用开放寻址和线性探测保存键值对, 键不需要装箱. 该类不是线程安全的</p>
+ *
+ * @param <V> 值的类型
+ * @author jiegg
+ */
+public class LongHashMap<V> {
+
+    //region --常量--
+    /**
+     * 获取哈希表的默认初始容量
+     */
+    public static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * 哈希表的最大负载比例, 超过后将扩容
+     */
+    private static final float LOAD_FACTOR = 0.5F;
+    //endregion
+
+    //region --字段--
+    private long[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+    private int threshold;
+    //endregion
+
+    //region --属性--
+
+    /**
+     * 获取哈希表中键值对的数量
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * 获取哈希表是否为空
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+    //endregion
+
+    //region --构造函数--
+
+    /**
+     * 使用默认的初始容量初始化 {@link LongHashMap} 类的新实例
+     */
+    public LongHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * 初始化 {@link LongHashMap} 类的新实例
+     *
+     * @param capacity 预期保存的键值对数量
+     */
+    public LongHashMap(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("参数: capacity, 值不能为负数");
+        }
+
+        int len = Integer.highestOneBit(Math.max(DEFAULT_CAPACITY, (int) (capacity / LOAD_FACTOR)) - 1) << 1;
+        this.allocate(len);
+    }
+    //endregion
+
+    //region --公开方法--
+
+    /**
+     * 获取指定键对应的值
+     *
+     * @param key 要获取的键
+     * @return 键对应的值, 如果键不存在则为 <code>null</code>
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int index = this.indexOf(key);
+        return index < 0 ? null : (V) this.values[index];
+    }
+
+    /**
+     * 获取哈希表是否包含指定的键
+     *
+     * @param key 要查找的键
+     * @return 如果包含则为 <code>true</code>, 否则为 <code>false</code>
+     */
+    public boolean containsKey(long key) {
+        return this.indexOf(key) >= 0;
+    }
+
+    /**
+     * 将键值对放入哈希表, 如果键已存在则替换其值
+     *
+     * @param key   键
+     * @param value 值, 不能为 <code>null</code>
+     * @return 键原来对应的值, 如果键不存在则为 <code>null</code>
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new NullPointerException("参数: value 是 null");
+        }
+
+        int index = hash(key) & this.mask;
+        while (this.values[index] != null) {
+            if (this.keys[index] == key) {
+                V old = (V) this.values[index];
+                this.values[index] = value;
+                return old;
+            }
+            index = (index + 1) & this.mask;
+        }
+
+        this.keys[index] = key;
+        this.values[index] = value;
+        if (++this.size > this.threshold) {
+            this.resize(this.keys.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * 从哈希表中移除指定的键
+     *
+     * @param key 要移除的键
+     * @return 键对应的值, 如果键不存在则为 <code>null</code>
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int index = this.indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+
+        V old = (V) this.values[index];
+        this.removeAt(index);
+        return old;
+    }
+
+    /**
+     * 移除哈希表中的所有键值对
+     */
+    public void clear() {
+        Arrays.fill(this.values, null);
+        this.size = 0;
+    }
+
+    /**
+     * 获取哈希表中所有值的迭代器, 迭代期间不能修改哈希表
+     *
+     * @return 一个 {@link Iterable}, 可用于遍历所有的值
+     */
+    public Iterable<V> values() {
+        return ValueIterator::new;
+    }
+    //endregion
+
+    //region --私有方法--
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private int indexOf(long key) {
+        int index = hash(key) & this.mask;
+        while (this.values[index] != null) {
+            if (this.keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & this.mask;
+        }
+        return -1;
+    }
+
+    private void removeAt(int index) {
+        this.values[index] = null;
+        this.size--;
+
+        // 向前移动后续冲突的元素, 保证线性探测不会因空槽中断
+        int hole = index;
+        int next = (index + 1) & this.mask;
+        while (this.values[next] != null) {
+            int home = hash(this.keys[next]) & this.mask;
+            if (((next - home) & this.mask) >= ((next - hole) & this.mask)) {
+                this.keys[hole] = this.keys[next];
+                this.values[hole] = this.values[next];
+                this.values[next] = null;
+                hole = next;
+            }
+            next = (next + 1) & this.mask;
+        }
+    }
+
+    private void allocate(int len) {
+        this.keys = new long[len];
+        this.values = new Object[len];
+        this.mask = len - 1;
+        this.threshold = (int) (len * LOAD_FACTOR);
+    }
+
+    private void resize(int len) {
+        long[] oldKeys = this.keys;
+        Object[] oldValues = this.values;
+        this.allocate(len);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int index = hash(oldKeys[i]) & this.mask;
+                while (this.values[index] != null) {
+                    index = (index + 1) & this.mask;
+                }
+                this.keys[index] = oldKeys[i];
+                this.values[index] = oldValues[i];
+            }
+        }
+    }
+    //endregion
+
+    //region --内部类--
+    private class ValueIterator implements Iterator<V> {
+
+        //region --字段--
+        private int index = this.advance(0);
+        //endregion
+
+        //region --公开方法--
+        @Override
+        public boolean hasNext() {
+            return this.index < LongHashMap.this.values.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            V value = (V) LongHashMap.this.values[this.index];
+            this.index = this.advance(this.index + 1);
+            return value;
+        }
+        //endregion
+
+        //region --私有方法--
+        private int advance(int from) {
+            Object[] values = LongHashMap.this.values;
+            int i = from;
+            while (i < values.length && values[i] == null) {
+                i++;
+            }
+            return i;
+        }
+        //endregion
+    }
+    //endregion
+}
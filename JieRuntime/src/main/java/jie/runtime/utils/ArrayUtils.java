@@ -37,6 +37,7 @@ public class ArrayUtils {
         len = 0;
         for (byte[] bytes : source) {
             System.arraycopy(bytes, 0, newArray, len, bytes.length);
+            len += bytes.length;
         }
         return newArray;
     }
@@ -65,6 +66,7 @@ public class ArrayUtils {
         len = 0;
         for (T[] bytes : source) {
             System.arraycopy(bytes, 0, newArray, len, bytes.length);
+            len += bytes.length;
         }
         return newArray;
     }
@@ -1,9 +1,11 @@
 package jie.runtime.utils;
 
 import com.fasterxml.uuid.Generators;
+import com.fasterxml.uuid.impl.RandomBasedGenerator;
 import com.fasterxml.uuid.impl.UUIDUtil;
 import jie.runtime.BinaryConvert;
 
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * 提供一组快速处理 UUID 的方法
@@ -12,13 +14,31 @@ import jie.runtime.BinaryConvert;
  */
 public class GuidUtils {
 
+    //region --字段--
+    private static final RandomBasedGenerator RANDOM_BASED_GENERATOR = Generators.randomBasedGenerator();
+    //endregion
+
+    //region --公开方法--
+
     /**
      * 创建一个新的 GUID 并转换为 64 位有符号整数
+     * <p>GUID 使用 {@link java.security.SecureRandom} 生成, 开销较大, 只需要在进程内区分对象时请使用 {@link #newInt64()}</p>
      *
      * @return 一个 64 位有符号证书, 来源于新 GUID 的一部分
      */
     public static long newGuidInt64() {
-        return BinaryConvert.toInt64(UUIDUtil.asByteArray(Generators.randomBasedGenerator().generate()));
+        return BinaryConvert.toInt64(UUIDUtil.asByteArray(RANDOM_BASED_GENERATOR.generate()));
+    }
+
+    /**
+     * 创建一个随机的 64 位有符号整数
+     * <p>使用每个线程独立的伪随机数生成器, 不需要同步也不会分配对象, 但不适合用于安全相关的场景</p>
+     *
+     * @return 一个随机的 64 位有符号整数
+     */
+    public static long newInt64() {
+        return ThreadLocalRandom.current().nextLong();
     }
+    //endregion
 
 }
@@ -0,0 +1,109 @@
+package jie.runtime.collections;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link LongHashMap} 的单元测试
+ *
+ * @author jiegg
+ */
+public class LongHashMapTest {
+
+    @Test
+    public void putGetRemove() {
+        LongHashMap<String> map = new LongHashMap<>();
+        assertNull(map.put(1L, "a"));
+        assertEquals("a", map.put(1L, "b"));
+        assertEquals("b", map.get(1L));
+        assertTrue(map.containsKey(1L));
+        assertEquals(1, map.size());
+
+        assertEquals("b", map.remove(1L));
+        assertNull(map.remove(1L));
+        assertFalse(map.containsKey(1L));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void removeKeepsCollidingKeysReachable() {
+        // 找出同一个探测簇中的键, 移除簇中间的键后其余的键仍然可以找到
+        LongHashMap<Long> map = new LongHashMap<>();
+        long[] keys = collidingKeys(4, 32);
+        for (long key : keys) {
+            map.put(key, key);
+        }
+
+        for (int removed = 0; removed < keys.length; removed++) {
+            assertEquals(Long.valueOf(keys[removed]), map.remove(keys[removed]));
+            for (int i = removed + 1; i < keys.length; i++) {
+                assertEquals(Long.valueOf(keys[i]), map.get(keys[i]));
+            }
+        }
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void randomOperationsMatchHashMap() {
+        // 较小的键空间使探测簇频繁出现, 与 HashMap 的结果逐一比较
+        Random random = new Random(42);
+        LongHashMap<Long> map = new LongHashMap<>();
+        Map<Long, Long> expected = new HashMap<>();
+        for (int i = 0; i < 200000; i++) {
+            long key = random.nextInt(512);
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(expected.put(key, (long) i), map.put(key, (long) i));
+                    break;
+                case 1:
+                    assertEquals(expected.remove(key), map.remove(key));
+                    break;
+                default:
+                    assertEquals(expected.get(key), map.get(key));
+                    break;
+            }
+            assertEquals(expected.size(), map.size());
+        }
+
+        Set<Long> values = new HashSet<>();
+        for (Long value : map.values()) {
+            values.add(value);
+        }
+        assertEquals(new HashSet<>(expected.values()), values);
+    }
+
+    @Test
+    public void clearRemovesAllEntries() {
+        LongHashMap<String> map = new LongHashMap<>(100);
+        for (long i = 0; i < 100; i++) {
+            map.put(i, "v" + i);
+        }
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(5L));
+        assertFalse(map.values().iterator().hasNext());
+    }
+
+    private static long[] collidingKeys(int count, int capacity) {
+        // 使用与哈希表相同的散列函数, 找出落在同一个槽位的键
+        long[] keys = new long[count];
+        int found = 0;
+        for (long key = 1; found < count; key++) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            if (((int) (h ^ (h >>> 32)) & (capacity - 1)) == 0) {
+                keys[found++] = key;
+            }
+        }
+        return keys;
+    }
+}